@@ -0,0 +1,28 @@
+package com.andreas.showsdb.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar. Runs JMH with the given arguments, but writes the results as JSON to
+ * {@value RESULT_FILE} unless a result format or file is passed, so runs of different commits can be compared.
+ */
+public class BenchmarkMain {
+    static final String RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkMain() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.addAll(List.of("-rf", "json"));
+        }
+        if (!arguments.contains("-rff")) {
+            arguments.addAll(List.of("-rff", RESULT_FILE));
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,82 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.cache.CacheConfig;
+import com.andreas.showsdb.cache.CompactCacheSerializer;
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.ShowOutputDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the cache value serializers on a cached {@code findAll} of shows: the JSON serializer with default
+ * typing that the cache used to have, and {@link CompactCacheSerializer} with and without LZ4 compression.
+ * The stored size of each payload is reported by {@code serialize} as its {@code storedBytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"json", "compact", "compact-lz4"})
+    public String serializer;
+
+    @Param({"1", "100", "5000"})
+    public int shows;
+
+    private RedisSerializer<Object> redisSerializer;
+    private List<ShowOutputDto> value;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        RedisSerializer<Object> json = CacheConfig.jsonSerializer(
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        redisSerializer = switch (serializer) {
+            case "json" -> json;
+            case "compact" -> new CompactCacheSerializer(json, -1);
+            case "compact-lz4" -> new CompactCacheSerializer(json, 1024);
+            default -> throw new IllegalArgumentException(serializer);
+        };
+        value = IntStream.range(0, shows)
+                .mapToObj(i -> ShowOutputDto.builder()
+                        .id((long) i)
+                        .name("Show number " + i)
+                        .country(i % 2 == 0 ? "United States" : "United Kingdom")
+                        .numberOfSeasons(i % 10)
+                        .numberOfEpisodes(i % 100)
+                        .state(Show.State.values()[i % Show.State.values().length])
+                        .build())
+                .toList();
+        bytes = redisSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize(StoredSize storedSize) {
+        byte[] payload = redisSerializer.serialize(value);
+        storedSize.storedBytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return redisSerializer.deserialize(bytes);
+    }
+
+    /**
+     * Size of the payload the cache stores, as last serialized.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StoredSize {
+        public long storedBytes;
+    }
+}
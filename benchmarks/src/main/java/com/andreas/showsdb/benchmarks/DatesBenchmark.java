@@ -0,0 +1,31 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.util.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Utils#parseDate} and {@link Utils#dateToString}, used for every episode message and batch row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatesBenchmark {
+    private final String text = "23/11/1963";
+    private final Date date = Utils.parseDate(text);
+
+    @Benchmark
+    public Date parseDate() {
+        return Utils.parseDate(text);
+    }
+
+    @Benchmark
+    public String dateToString() {
+        return Utils.dateToString(date);
+    }
+}
@@ -0,0 +1,118 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.batch.EpisodesBatchConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the episode import job end to end on an H2 database in MySQL mode, in episodes imported per second: the
+ * current job, which loads the season ids when it starts, and the job it replaced ("legacy"), which looked the season
+ * of every episode up with a query.
+ * <p>
+ * The shows and seasons are created once; each invocation imports a freshly generated file into an empty episode
+ * table.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(EpisodeImportBenchmark.EPISODES)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EpisodeImportBenchmark {
+    static final int SHOWS = 1_000;
+    static final int SEASONS = 5;
+    static final int EPISODES_PER_SEASON = 10;
+    static final int EPISODES = SHOWS * SEASONS * EPISODES_PER_SEASON;
+
+    private AnnotationConfigApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createSeasons() {
+        context = new AnnotationConfigApplicationContext(ImportContext.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> shows = new ArrayList<>();
+        for (int i = 0; i < SHOWS; i++) {
+            shows.add(new Object[]{"Show " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO `show`(`name`) VALUES (?)", shows);
+        for (int season = 1; season <= SEASONS; season++) {
+            jdbcTemplate.update("INSERT INTO `season`(`show`, `season_number`) SELECT `id`, ? FROM `show`", season);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareImport() throws IOException {
+        jdbcTemplate.execute("TRUNCATE TABLE `episode` RESTART IDENTITY");
+
+        // The job deletes the file when it finishes
+        file = Files.createTempFile("episodes", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("Show,Season,Episode,Name\n");
+            for (int show = 0; show < SHOWS; show++) {
+                for (int season = 1; season <= SEASONS; season++) {
+                    for (int episode = 1; episode <= EPISODES_PER_SEASON; episode++) {
+                        writer.write("Show %d,%d,%d,Episode %d\n".formatted(show, season, episode, episode));
+                    }
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void checkImport() throws IOException {
+        Files.deleteIfExists(file);
+        Integer imported = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `episode`", Integer.class);
+        if (imported == null || imported != EPISODES) {
+            throw new IllegalStateException("Imported %s episodes out of %d".formatted(imported, EPISODES));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public BatchStatus preloaded() throws Exception {
+        return run("importEpisodeJob");
+    }
+
+    @Benchmark
+    public BatchStatus legacy() throws Exception {
+        return run("legacyImportEpisodeJob");
+    }
+
+    private BatchStatus run(String jobName) throws Exception {
+        JobParameters parameters = new JobParametersBuilder()
+                .addString("filepath", file.toString())
+                .addLong("run", System.nanoTime())
+                .toJobParameters();
+        JobExecution execution = context.getBean(JobLauncher.class)
+                .run(context.getBean(jobName, Job.class), parameters);
+        if (execution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Import failed: " + execution.getAllFailureExceptions());
+        }
+        return execution.getStatus();
+    }
+
+    @Configuration
+    @Import({ShowImportBenchmark.ImportContext.class, EpisodesBatchConfig.class, LegacyEpisodeImportConfig.class})
+    static class ImportContext {
+    }
+}
@@ -0,0 +1,133 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.config.GraphQLProperties;
+import com.andreas.showsdb.config.PersistedQueries;
+import com.andreas.showsdb.util.Utils;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.ParseAndValidate;
+import graphql.ParseAndValidateResult;
+import graphql.execution.preparsed.NoOpPreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures a GraphQL request of the allowlisted {@code Shows} query against the application schema, with fetchers
+ * that return a fixed page of 20 shows, so the difference between the documents parsed and validated on every
+ * request ("none") and the {@link PersistedQueries} cache is the parsing and validation time saved per request. The
+ * "cached" requests send the document, and the "persisted" requests only its hash. {@code parseAndValidate} measures
+ * that parsing and validation alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 15, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class GraphQLDocumentBenchmark {
+    private static final int SHOWS = 20;
+
+    @Benchmark
+    public ExecutionResult execute(Requests state) {
+        return state.graphQL.execute(state.input);
+    }
+
+    @Benchmark
+    public ParseAndValidateResult parseAndValidate(Document state) {
+        return ParseAndValidate.parseAndValidate(state.schema, state.input);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Requests {
+        @Param({"none", "cached", "persisted"})
+        public String documents;
+
+        private GraphQL graphQL;
+        private ExecutionInput input;
+
+        @Setup
+        public void setUp() throws IOException {
+            Map<String, String> allowlist = allowlist();
+            String query = showsQuery(allowlist);
+            graphQL = GraphQL.newGraphQL(schema())
+                    .preparsedDocumentProvider(documents.equals("none")
+                            ? NoOpPreparsedDocumentProvider.INSTANCE
+                            : new PersistedQueries(new GraphQLProperties(), allowlist))
+                    .build();
+            input = ExecutionInput.newExecutionInput()
+                    .query(documents.equals("persisted") ? PersistedQuerySupport.PERSISTED_QUERY_MARKER : query)
+                    .variables(Map.of("first", SHOWS))
+                    .extensions(documents.equals("persisted")
+                            ? Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", Utils.sha256(query)))
+                            : Map.of())
+                    .build();
+            ExecutionResult result = graphQL.execute(input);
+            if (!result.getErrors().isEmpty()) {
+                throw new IllegalStateException(result.getErrors().toString());
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Document {
+        private GraphQLSchema schema;
+        private ExecutionInput input;
+
+        @Setup
+        public void setUp() throws IOException {
+            schema = schema();
+            input = ExecutionInput.newExecutionInput()
+                    .query(showsQuery(allowlist()))
+                    .variables(Map.of("first", SHOWS))
+                    .build();
+            ParseAndValidateResult result = ParseAndValidate.parseAndValidate(schema, input);
+            if (result.isFailure()) {
+                throw new IllegalStateException(result.getErrors().toString());
+            }
+        }
+    }
+
+    private static Map<String, String> allowlist() throws IOException {
+        return PersistedQueries.loadAllowlist(new GraphQLProperties().getAllowlist());
+    }
+
+    private static String showsQuery(Map<String, String> allowlist) {
+        return allowlist.values().stream()
+                .filter(document -> document.startsWith("query Shows"))
+                .findFirst().orElseThrow();
+    }
+
+    private static GraphQLSchema schema() throws IOException {
+        List<Map<String, Object>> edges = IntStream.range(0, SHOWS)
+                .mapToObj(i -> Map.<String, Object>of(
+                        "node", Map.of("id", i, "name", "Show number " + i, "country", "United States",
+                                "numberOfSeasons", i % 10, "numberOfEpisodes", i % 100, "state", "AIRING"),
+                        "cursor", String.valueOf(i)))
+                .toList();
+        Map<String, Object> page = Map.of("edges", edges,
+                "pageInfo", Map.of("hasNextPage", true, "endCursor", String.valueOf(SHOWS - 1)));
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .scalar(ExtendedScalars.Date)
+                .type("Query", type -> type.dataFetcher("shows", environment -> page))
+                .build();
+        try (InputStream schemaInput = GraphQLProperties.class.getResourceAsStream("/graphql/schema.graphqls");
+             Reader reader = new InputStreamReader(schemaInput, StandardCharsets.UTF_8)) {
+            return new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(reader), wiring);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.controller.SeasonsController;
+import com.andreas.showsdb.controller.ShowsController;
+import com.andreas.showsdb.exception.ShowsDatabaseException;
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.ShowOutputDto;
+import com.andreas.showsdb.model.dto.hateoas.ShowHypermedia;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Measures {@link ShowsController#addLinks}, which builds the self, update state and seasons links of a show from
+ * templates of the controller methods resolved once. It runs for every show of every list response. The same links
+ * built with {@code linkTo(methodOn(...))}, which proxies the controller and inspects the method every time, are
+ * measured as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HateoasLinksBenchmark {
+    private final ShowOutputDto show = ShowOutputDto.builder()
+            .id(42L)
+            .name("The Wire")
+            .country("United States")
+            .numberOfSeasons(5)
+            .numberOfEpisodes(60)
+            .state(Show.State.FINISHED)
+            .build();
+
+    @Benchmark
+    public ShowHypermedia addLinks() {
+        return ShowsController.addLinks(show);
+    }
+
+    @Benchmark
+    public ShowHypermedia methodOnLinks() throws ShowsDatabaseException {
+        ShowHypermedia sh = new ShowHypermedia(show);
+        Long id = show.getId();
+        sh.add(linkTo(methodOn(ShowsController.class).get(id)).withSelfRel());
+        sh.add(linkTo(methodOn(ShowsController.class).updateState(id)).withRel("update state"));
+        sh.add(linkTo(methodOn(SeasonsController.class).getAllByShow(id)).withRel("seasons"));
+        return sh;
+    }
+}
@@ -0,0 +1,94 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.batch.EpisodesBatchConfig.EpisodeBatchInput;
+import com.andreas.showsdb.batch.EpisodesBatchConfig.EpisodeBatchInsert;
+import com.andreas.showsdb.batch.JobCompletionNotificationListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * The episode import job as it was before the season ids were preloaded: every episode looks its season up with a
+ * query and is written by a reflective {@link JdbcBatchItemWriter}, ten rows per transaction. The query stands in for
+ * the {@code findFirstByShowNameAndNumber} repository method the processor used, without the cost of loading the
+ * season entity.
+ */
+@Configuration
+public class LegacyEpisodeImportConfig {
+
+    @Bean
+    public Job legacyImportEpisodeJob(JobRepository jobRepository, JobCompletionNotificationListener listener,
+                                      Step legacyImportEpisodeStep) {
+        return new JobBuilder("legacyImportEpisodeJob", jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .listener(listener)
+                .flow(legacyImportEpisodeStep)
+                .end().build();
+    }
+
+    @JobScope
+    @Bean
+    public Step legacyImportEpisodeStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                        JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                        @Value("#{jobParameters['filepath']}") String filepath) {
+        JdbcBatchItemWriter<EpisodeBatchInsert> writer = new JdbcBatchItemWriterBuilder<EpisodeBatchInsert>()
+                .itemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>())
+                .sql("""
+                        INSERT INTO `episode`(`season`, `episode_number`, `name`) \
+                        VALUES (:season, :episodeNumber, :name) \
+                        ON DUPLICATE KEY UPDATE `name`= :name""")
+                .dataSource(dataSource)
+                .build();
+        writer.afterPropertiesSet();
+        return new StepBuilder("legacyImportEpisodeStep", jobRepository)
+                .<EpisodeBatchInput, EpisodeBatchInsert>chunk(10, transactionManager)
+                .reader(episodesReader(filepath))
+                .processor(episode -> {
+                    List<Long> seasonIds = jdbcTemplate.queryForList("""
+                                    SELECT s.`id` FROM `season` s JOIN `show` sh ON s.`show` = sh.`id` \
+                                    WHERE sh.`name` = ? AND s.`season_number` = ? LIMIT 1""",
+                            Long.class, episode.getShow(), episode.getSeason());
+                    if (seasonIds.isEmpty()) {
+                        return null;
+                    }
+                    return EpisodeBatchInsert.builder()
+                            .season(seasonIds.getFirst())
+                            .episodeNumber(episode.getEpisode())
+                            .name(episode.getName())
+                            .build();
+                })
+                .writer(writer)
+                .build();
+    }
+
+    private FlatFileItemReader<EpisodeBatchInput> episodesReader(String filepath) {
+        BeanWrapperFieldSetMapper<EpisodeBatchInput> mapper = new BeanWrapperFieldSetMapper<>();
+        mapper.setTargetType(EpisodeBatchInput.class);
+        return new FlatFileItemReaderBuilder<EpisodeBatchInput>().name("episodesReader")
+                .resource(new FileSystemResource(filepath))
+                .delimited()
+                .names("Show", "Season", "Episode", "Name")
+                .fieldSetMapper(mapper)
+                .linesToSkip(1)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.batch.JobCompletionNotificationListener;
+import com.andreas.showsdb.batch.ShowsBatchConfig.ShowBatchFormat;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The show import job as it was before it was partitioned: the file is read twice, once to insert the shows and once
+ * to insert their seasons one by one, looking each show up by name, ten rows per transaction on a single thread.
+ */
+@Configuration
+public class LegacyShowImportConfig {
+
+    @Bean
+    public Job legacyImportShowJob(JobRepository jobRepository, JobCompletionNotificationListener listener,
+                                   Step legacyImportShowStep1, Step legacyImportShowStep2) {
+        return new JobBuilder("legacyImportShowJob", jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .listener(listener)
+                .flow(legacyImportShowStep1)
+                .next(legacyImportShowStep2)
+                .end().build();
+    }
+
+    @JobScope
+    @Bean
+    public Step legacyImportShowStep1(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                      DataSource dataSource,
+                                      @Value("#{jobParameters['filepath']}") String filepath) {
+        JdbcBatchItemWriter<ShowBatchFormat> writer = new JdbcBatchItemWriterBuilder<ShowBatchFormat>()
+                .itemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>())
+                .sql("INSERT INTO `show`(`name`, `country`, `state`) VALUES (:name, :country, :state) " +
+                     "ON DUPLICATE KEY UPDATE `name`=:name, `country`=:country, `state`=:state")
+                .dataSource(dataSource)
+                .build();
+        writer.afterPropertiesSet();
+        return new StepBuilder("importShowStep1", jobRepository)
+                .<ShowBatchFormat, ShowBatchFormat>chunk(10, transactionManager)
+                .reader(showsReader(filepath))
+                .writer(writer)
+                .build();
+    }
+
+    @JobScope
+    @Bean
+    public Step legacyImportShowStep2(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                      DataSource dataSource,
+                                      @Value("#{jobParameters['filepath']}") String filepath) {
+        JdbcBatchItemWriter<Object[]> seasonWriter = new JdbcBatchItemWriterBuilder<Object[]>()
+                .itemPreparedStatementSetter((season, ps) -> {
+                    ps.setInt(1, (Integer) season[1]);
+                    ps.setString(2, (String) season[0]);
+                })
+                .sql("INSERT IGNORE INTO `season` (`show`, `season_number`) SELECT s.`id`, ? FROM `show` s " +
+                     "WHERE s.`name`=?")
+                .dataSource(dataSource)
+                .build();
+        seasonWriter.afterPropertiesSet();
+        ListUnpackingItemWriter<Object[]> writer = new ListUnpackingItemWriter<>();
+        writer.setDelegate(seasonWriter);
+        return new StepBuilder("importShowStep2", jobRepository)
+                .<ShowBatchFormat, List<Object[]>>chunk(10, transactionManager)
+                .reader(showsReader(filepath))
+                .processor(show -> {
+                    List<Object[]> seasons = new ArrayList<>();
+                    for (int i = 0; i < show.getSeasons(); i++) {
+                        seasons.add(new Object[]{show.getName(), i + 1});
+                    }
+                    return seasons;
+                })
+                .writer(writer)
+                .build();
+    }
+
+    private FlatFileItemReader<ShowBatchFormat> showsReader(String filepath) {
+        BeanWrapperFieldSetMapper<ShowBatchFormat> mapper = new BeanWrapperFieldSetMapper<>();
+        mapper.setTargetType(ShowBatchFormat.class);
+        return new FlatFileItemReaderBuilder<ShowBatchFormat>().name("showsReader")
+                .resource(new FileSystemResource(filepath))
+                .delimited()
+                .names("Name", "Country", "Seasons", "State")
+                .fieldSetMapper(mapper)
+                .linesToSkip(1)
+                .build();
+    }
+}
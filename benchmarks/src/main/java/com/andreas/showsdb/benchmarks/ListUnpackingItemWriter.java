@@ -1,8 +1,5 @@
-package com.andreas.showsdb.batch;
+package com.andreas.showsdb.benchmarks;
 
-import lombok.Setter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.*;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -10,18 +7,22 @@ import org.springframework.util.Assert;
 
 import java.util.List;
 
-@Setter
-public class ListUnpackingItemWriter<T> implements ItemWriter<List<T>>, ItemStream, InitializingBean {
-    private static final Logger logger = LoggerFactory.getLogger(ListUnpackingItemWriter.class);
+/**
+ * Writes the lists of items of a chunk as a single chunk, as the legacy show import wrote the seasons of its shows.
+ */
+class ListUnpackingItemWriter<T> implements ItemWriter<List<T>>, ItemStream, InitializingBean {
     private ItemWriter<T> delegate;
 
+    public void setDelegate(ItemWriter<T> delegate) {
+        this.delegate = delegate;
+    }
+
     @Override
     public void write(final Chunk<? extends List<T>> chunks) throws Exception {
         final Chunk<T> consolidatedList = new Chunk<>();
         for (final List<T> list : chunks) {
             consolidatedList.addAll(list);
         }
-        consolidatedList.forEach(ts -> logger.info(ts.toString()));
         try {
             delegate.write(consolidatedList);
         } catch (EmptyResultDataAccessException ignore) {
@@ -0,0 +1,76 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.model.Episode;
+import com.andreas.showsdb.model.Season;
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.EpisodeOutputDto;
+import com.andreas.showsdb.model.dto.ShowOutputDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the entity to DTO mapping: {@link Show#getInfoDto()}, which walks every season and episode of the show to
+ * count them, and {@link Episode#getInfoDto()}, which converts the release date to a {@code LocalDate}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1", "10", "30"})
+    public int seasons;
+
+    @Param({"10"})
+    public int episodesPerSeason;
+
+    private Show show;
+    private Episode episode;
+
+    @Setup
+    public void setUp() {
+        show = Show.builder()
+                .id(1L)
+                .name("Doctor Who")
+                .country("United Kingdom")
+                .state(Show.State.AIRING)
+                .seasons(new ArrayList<>())
+                .build();
+        for (int s = 1; s <= seasons; s++) {
+            Season season = Season.builder()
+                    .id((long) s)
+                    .show(show)
+                    .number(s)
+                    .episodes(new ArrayList<>())
+                    .build();
+            for (int e = 1; e <= episodesPerSeason; e++) {
+                season.getEpisodes().add(Episode.builder()
+                        .id((long) (s * 1000 + e))
+                        .season(season)
+                        .number(e)
+                        .name("Episode " + e)
+                        .releaseDate(new Date())
+                        .build());
+            }
+            show.getSeasons().add(season);
+        }
+        List<Episode> episodes = show.getSeasons().getFirst().getEpisodes();
+        episode = episodes.getFirst();
+    }
+
+    @Benchmark
+    public ShowOutputDto showInfoDto() {
+        return show.getInfoDto();
+    }
+
+    @Benchmark
+    public EpisodeOutputDto episodeInfoDto() {
+        return episode.getInfoDto();
+    }
+}
@@ -0,0 +1,143 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.messaging.MessageDeserializer;
+import com.andreas.showsdb.messaging.MessageSerializer;
+import com.andreas.showsdb.messaging.messages.BatchOrder;
+import com.andreas.showsdb.messaging.messages.EpisodeMessage;
+import com.andreas.showsdb.messaging.messages.Message;
+import com.andreas.showsdb.messaging.messages.ShowMessage;
+import com.andreas.showsdb.util.Utils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the records per millisecond of the Kafka value codec, {@link MessageSerializer} and
+ * {@link MessageDeserializer}, for each kind of message. The "legacy" codec reproduces the previous implementation,
+ * which created an {@code ObjectMapper} per record and went through a {@code Map} or a {@code JsonNode} tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCodecBenchmark {
+    private static final String TOPIC = "showsdb";
+
+    @Param({"legacy", "shared"})
+    public String codec;
+
+    @Param({"show", "episode", "batch-order"})
+    public String message;
+
+    private Serializer<Message> serializer;
+    private Deserializer<Message> deserializer;
+    private Message value;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = codec.equals("legacy") ? new LegacySerializer() : new MessageSerializer();
+        deserializer = codec.equals("legacy") ? new LegacyDeserializer() : new MessageDeserializer();
+        value = switch (message) {
+            case "show" -> ShowMessage.builder()
+                    .text("Show created")
+                    .name("The Expanse")
+                    .build();
+            case "episode" -> EpisodeMessage.builder()
+                    .text("Episode created")
+                    .show("The Expanse")
+                    .seasonNumber(2)
+                    .episodeNumber(5)
+                    .name("Home")
+                    .releaseDate(Utils.parseDate("08/03/2017"))
+                    .build();
+            case "batch-order" -> BatchOrder.builder()
+                    .text("shows")
+                    .filepath("/files/ABCD1234shows.csv")
+                    .build();
+            default -> throw new IllegalArgumentException(message);
+        };
+        bytes = serializer.serialize(TOPIC, value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, value);
+    }
+
+    @Benchmark
+    public Message deserialize() {
+        return deserializer.deserialize(TOPIC, bytes);
+    }
+
+    private static class LegacySerializer implements Serializer<Message> {
+
+        @Override
+        public byte[] serialize(String topic, Message message) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("text", message.getText());
+            switch (message) {
+                case ShowMessage show -> map.put("name", show.getName());
+                case EpisodeMessage episode -> {
+                    map.put("show", episode.getShow());
+                    map.put("seasonNumber", episode.getSeasonNumber());
+                    map.put("episodeNumber", episode.getEpisodeNumber());
+                    map.put("name", episode.getName());
+                    map.put("releaseDate", Utils.dateToString(episode.getReleaseDate()));
+                }
+                case BatchOrder batchOrder -> map.put("filepath", batchOrder.getFilepath());
+                default -> {
+                }
+            }
+            map.put("class", message.getClass().getSimpleName());
+            try {
+                return new ObjectMapper().writeValueAsBytes(map);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class LegacyDeserializer implements Deserializer<Message> {
+
+        @Override
+        public Message deserialize(String topic, byte[] bytes) {
+            try {
+                JsonNode json = new ObjectMapper().readTree(bytes);
+                return switch (json.get("class").asText()) {
+                    case "ShowMessage" -> ShowMessage.builder()
+                            .text(json.path("text").asText())
+                            .name(json.path("name").asText())
+                            .build();
+                    case "EpisodeMessage" -> EpisodeMessage.builder()
+                            .text(json.path("text").asText())
+                            .show(json.path("show").asText())
+                            .seasonNumber(json.path("seasonNumber").asInt())
+                            .episodeNumber(json.path("episodeNumber").asInt())
+                            .name(json.path("name").asText())
+                            .releaseDate(Utils.parseDate(json.path("releaseDate").asText()))
+                            .build();
+                    case "BatchOrder" -> BatchOrder.builder()
+                            .text(json.path("text").asText())
+                            .filepath(json.path("filepath").asText())
+                            .build();
+                    default -> Message.builder()
+                            .text(json.path("text").asText())
+                            .build();
+                };
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
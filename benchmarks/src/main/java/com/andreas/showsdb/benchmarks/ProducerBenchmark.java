@@ -0,0 +1,96 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.messaging.KafkaProducerConfig;
+import com.andreas.showsdb.messaging.messages.EpisodeMessage;
+import com.andreas.showsdb.messaging.messages.Message;
+import com.andreas.showsdb.util.Utils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the records per millisecond sent to the novelties topic of a single embedded broker by the producer of
+ * {@link KafkaProducerConfig}. The "legacy" profile has the client defaults the producer had before: no linger, 16 KB
+ * batches, no compression and unkeyed records. The other profiles have the default linger and batch size of the
+ * application, records keyed by show, and the given compression.
+ * <p>
+ * Each invocation sends {@value #RECORDS} episode messages of {@value #SHOWS} shows and waits until every one of them
+ * is acknowledged. The broker runs in the same JVM, so it needs a longer warmup than the other benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OperationsPerInvocation(ProducerBenchmark.RECORDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProducerBenchmark {
+    static final int RECORDS = 10_000;
+    private static final int SHOWS = 1_000;
+    private static final String TOPIC = "novelties";
+
+    @Param({"legacy", "lz4", "zstd"})
+    public String profile;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private AnnotationConfigApplicationContext context;
+    private KafkaTemplate<String, Message> kafkaTemplate;
+    private Message[] messages;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+
+        context = new AnnotationConfigApplicationContext();
+        Map<String, Object> properties = profile.equals("legacy")
+                ? Map.of("showsdb.kafka.linger", "0ms",
+                "showsdb.kafka.batch-size", "16KB",
+                "showsdb.kafka.compression", "none")
+                : Map.of("showsdb.kafka.compression", profile);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "spring.kafka.bootstrap-servers", broker.getBrokersAsString())));
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("profile", properties));
+        context.register(KafkaProducerConfig.class);
+        context.refresh();
+        kafkaTemplate = context.getBean(KafkaTemplate.class);
+
+        messages = new Message[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            messages[i] = EpisodeMessage.builder()
+                    .text("New episode released")
+                    .show("Show " + i % SHOWS)
+                    .seasonNumber(i / SHOWS + 1)
+                    .episodeNumber(i % 20 + 1)
+                    .name("Episode " + i)
+                    .releaseDate(Utils.parseDate("08/03/2017"))
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public SendResult<String, Message> send() {
+        boolean keyed = !profile.equals("legacy");
+        CompletableFuture<SendResult<String, Message>> last = null;
+        for (int i = 0; i < RECORDS; i++) {
+            last = kafkaTemplate.send(TOPIC, keyed ? String.valueOf(i % SHOWS) : null, messages[i]);
+        }
+        // Blocks until every record sent is acknowledged
+        kafkaTemplate.flush();
+        return last.join();
+    }
+}
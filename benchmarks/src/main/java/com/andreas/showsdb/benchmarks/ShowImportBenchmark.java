@@ -0,0 +1,159 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.batch.JobCompletionNotificationListener;
+import com.andreas.showsdb.batch.ShowsBatchConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the show import job end to end on an H2 database in MySQL mode: the current partitioned job, and the job it
+ * replaced ("legacy"). The legacy job looks every season's show up by name without an index, so its time grows with
+ * the square of the number of shows: twice the shows take about four times as long. A million shows would take days,
+ * so it is only run with the smaller file.
+ * <p>
+ * Each invocation imports a freshly generated file into empty tables. Shows have 0 to 9 seasons.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ShowImportBenchmark {
+
+    @Benchmark
+    public BatchStatus partitioned(PartitionedImport state) throws Exception {
+        return state.run("importShowJob");
+    }
+
+    @Benchmark
+    public BatchStatus legacy(LegacyImport state) throws Exception {
+        return state.run("legacyImportShowJob");
+    }
+
+    @State(Scope.Benchmark)
+    public static class PartitionedImport extends ImportState {
+        @Param({"10000", "1000000"})
+        public int shows;
+
+        @Override
+        int shows() {
+            return shows;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LegacyImport extends ImportState {
+        @Param({"10000"})
+        public int shows;
+
+        @Override
+        int shows() {
+            return shows;
+        }
+    }
+
+    public abstract static class ImportState {
+        private AnnotationConfigApplicationContext context;
+        private JdbcTemplate jdbcTemplate;
+        private Path file;
+
+        abstract int shows();
+
+        @Setup(Level.Trial)
+        public void startContext() {
+            context = new AnnotationConfigApplicationContext(ImportContext.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void prepareImport() throws IOException {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            jdbcTemplate.execute("TRUNCATE TABLE `season` RESTART IDENTITY");
+            jdbcTemplate.execute("TRUNCATE TABLE `show` RESTART IDENTITY");
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+            // The job deletes the file when it finishes
+            file = Files.createTempFile("shows", ".csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                writer.write("Name,Country,Seasons,State\n");
+                for (int i = 0; i < shows(); i++) {
+                    writer.write("Show %d,Country %d,%d,AIRING\n".formatted(i, i % 50, i % 10));
+                }
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void checkImport() throws IOException {
+            Files.deleteIfExists(file);
+            Integer imported = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `show`", Integer.class);
+            if (imported == null || imported != shows()) {
+                throw new IllegalStateException("Imported %s shows out of %d".formatted(imported, shows()));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void closeContext() {
+            context.close();
+        }
+
+        BatchStatus run(String jobName) throws Exception {
+            JobParameters parameters = new JobParametersBuilder()
+                    .addString("filepath", file.toString())
+                    .addLong("run", System.nanoTime())
+                    .toJobParameters();
+            JobExecution execution = context.getBean(JobLauncher.class)
+                    .run(context.getBean(jobName, Job.class), parameters);
+            if (execution.getStatus() != BatchStatus.COMPLETED) {
+                throw new IllegalStateException("Import failed: " + execution.getAllFailureExceptions());
+            }
+            return execution.getStatus();
+        }
+    }
+
+    @Configuration
+    @EnableBatchProcessing
+    @Import({ShowsBatchConfig.class, LegacyShowImportConfig.class, JobCompletionNotificationListener.class})
+    static class ImportContext {
+
+        @Bean
+        public DataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:import;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false");
+            dataSource.setMaximumPoolSize(Runtime.getRuntime().availableProcessors() + 4);
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                    new ClassPathResource("org/springframework/batch/core/schema-h2.sql"),
+                    new ClassPathResource("import-schema.sql"));
+            populator.execute(dataSource);
+            return dataSource;
+        }
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new JdbcTransactionManager(dataSource);
+        }
+    }
+}
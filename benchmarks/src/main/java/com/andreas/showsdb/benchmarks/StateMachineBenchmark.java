@@ -0,0 +1,34 @@
+package com.andreas.showsdb.benchmarks;
+
+import com.andreas.showsdb.exception.ShowStateMachineException;
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.statemachine.ShowStateMachine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.statemachine.StateMachine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ShowStateMachine#create}, which builds a new state machine every time a show's state is updated,
+ * alone and followed by the start that {@code ShowsService.updateState} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateMachineBenchmark {
+
+    @Benchmark
+    public StateMachine<Show.State, ShowStateMachine.Event> create() throws ShowStateMachineException {
+        return ShowStateMachine.create(Show.State.AIRING);
+    }
+
+    @Benchmark
+    public StateMachine<Show.State, ShowStateMachine.Event> createAndStart() throws ShowStateMachineException {
+        StateMachine<Show.State, ShowStateMachine.Event> stateMachine = ShowStateMachine.create(Show.State.AIRING);
+        stateMachine.startReactively().block();
+        return stateMachine;
+    }
+}
@@ -0,0 +1,23 @@
+-- Tables of the import jobs, as created by the client server changelog
+create table `show` (
+    `id` bigint primary key auto_increment,
+    `name` varchar(255) not null,
+    `country` varchar(255),
+    `state` varchar(16)
+);
+
+create table `season` (
+    `id` bigint primary key auto_increment,
+    `show` int references `show`,
+    `season_number` int not null,
+    unique (`show`, `season_number`)
+);
+
+create table `episode` (
+    `id` bigint primary key auto_increment,
+    `season` bigint references `season`,
+    `episode_number` int not null,
+    `name` varchar(255),
+    `rel_date` date,
+    unique (`season`, `episode_number`)
+);
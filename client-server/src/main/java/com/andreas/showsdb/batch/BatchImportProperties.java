@@ -0,0 +1,48 @@
+package com.andreas.showsdb.batch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties("showsdb.batch")
+public class BatchImportProperties {
+    /**
+     * Maximum number of imports running at the same time.
+     */
+    private int concurrentJobs = 2;
+    /**
+     * Maximum number of imports waiting for another one to finish. Imports ordered when the queue is full fail
+     * without starting.
+     */
+    private int queuedJobs = 10;
+    /**
+     * Maximum size of an uploaded import file, compressed or not. Larger uploads are rejected and nothing is saved.
+     */
+    private DataSize maxFileSize = DataSize.ofGigabytes(1);
+    /**
+     * Rows read, and written in a single transaction, at a time by each import thread.
+     */
+    private int chunkSize = 1_000;
+    /**
+     * Maximum number of parts a file is split into, each imported by its own thread.
+     */
+    private int partitions = Runtime.getRuntime().availableProcessors();
+    /**
+     * Files are only split in parts of at least this size, so small files are imported by a single thread.
+     */
+    private DataSize minPartitionSize = DataSize.ofMegabytes(1);
+    /**
+     * Whether rows are written with MySQL multi-row inserts. When false, one standard SQL statement per row is sent
+     * in a JDBC batch, which also works on databases without MySQL syntax.
+     */
+    private boolean multiRowInsert = true;
+    /**
+     * Maximum number of rows written by a single multi-row insert.
+     */
+    private int rowsPerInsert = 1_000;
+    /**
+     * Number of lines of each imported file checked against the database after the import. 0 disables the check.
+     */
+    private int verificationSampleSize = 0;
+}
@@ -1,23 +1,39 @@
 package com.andreas.showsdb.batch;
 
 import com.andreas.showsdb.messaging.messages.BatchOrder;
+import com.andreas.showsdb.util.Utils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionException;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaHandler;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 @Slf4j
 @Component
 @KafkaListener(groupId = "showsDB", topics = "batch-order")
 public class BatchOrderListener {
     public static final String SHOWS = "shows";
     public static final String EPISODES = "episodes";
+    /**
+     * Identifies the import, so the same file is only imported once and a failed import of it is restarted.
+     */
+    public static final String CHECKSUM = "checksum";
+    /**
+     * Not identifying, as every upload is saved with a different name.
+     */
+    public static final String FILEPATH = "filepath";
 
     private static final String RECEIVED_MESSAGE = "Received new batch order:";
 
@@ -26,7 +42,10 @@ public class BatchOrderListener {
     private final Job episodeJob;
 
 
-    public BatchOrderListener(JobLauncher jobLauncher,
+    /**
+     * @param jobLauncher launcher that runs the jobs in the background, so the consumer is not blocked by an import
+     */
+    public BatchOrderListener(@Qualifier("importJobLauncher") JobLauncher jobLauncher,
                               @Qualifier("importShowJob") Job showJob,
                               @Qualifier("importEpisodeJob") Job episodeJob) {
         this.jobLauncher = jobLauncher;
@@ -43,15 +62,37 @@ public class BatchOrderListener {
             case EPISODES -> episodeJob;
             default -> throw new IllegalStateException("Unexpected value: " + message.getText());
         };
-        JobParameters jobParameters = new JobParametersBuilder()
-                .addString("filepath", message.getFilepath())
-                .toJobParameters();
+        Path file = Path.of(message.getFilepath());
+        JobParameters jobParameters;
+        try {
+            jobParameters = new JobParametersBuilder()
+                    .addString(CHECKSUM, message.getChecksum() != null ? message.getChecksum() : Utils.sha256(file))
+                    .addString(FILEPATH, message.getFilepath(), false)
+                    .toJobParameters();
+        } catch (IOException e) {
+            log.error("Could not read {}: {}", file, e.getMessage());
+            return;
+        }
         try {
-            jobLauncher.run(jobToDo, jobParameters);
+            JobExecution jobExecution = jobLauncher.run(jobToDo, jobParameters);
+            log.info("Import {} of {} is {}", jobExecution.getId(), message.getFilepath(), jobExecution.getStatus());
+        } catch (JobInstanceAlreadyCompleteException e) {
+            log.info("{} was already imported", message.getFilepath());
+            delete(file);
+        } catch (JobExecutionAlreadyRunningException e) {
+            log.info("{} is already being imported", message.getFilepath());
+            delete(file);
         } catch (JobExecutionException e) {
             log.error("Error while importing: {}", e.getMessage());
         }
+    }
 
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.error("Could not delete file {}, please make sure to remove it manually.", file);
+        }
     }
 
     @KafkaHandler(isDefault = true)
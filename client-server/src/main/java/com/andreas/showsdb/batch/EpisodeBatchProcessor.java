@@ -0,0 +1,50 @@
+package com.andreas.showsdb.batch;
+
+import com.andreas.showsdb.batch.EpisodesBatchConfig.EpisodeBatchInput;
+import com.andreas.showsdb.batch.EpisodesBatchConfig.EpisodeBatchInsert;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Resolves the season of every imported episode. The season ids are loaded once when the step starts, so processing
+ * an episode does not go to the database.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class EpisodeBatchProcessor implements ItemProcessor<EpisodeBatchInput, EpisodeBatchInsert>,
+        StepExecutionListener {
+    private final JdbcTemplate jdbcTemplate;
+    private SeasonIdLookup seasonIds;
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        seasonIds = SeasonIdLookup.load(jdbcTemplate);
+        log.info("Loaded the seasons of {} shows", seasonIds.size());
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        seasonIds = null;
+        return null;
+    }
+
+    @Override
+    public EpisodeBatchInsert process(EpisodeBatchInput episode) {
+        long seasonId = episode.getSeason() == null ? SeasonIdLookup.NOT_FOUND
+                : seasonIds.find(episode.getShow(), episode.getSeason());
+        if (seasonId == SeasonIdLookup.NOT_FOUND) {
+            log.error("Could not find %s : S%02d".formatted(episode.getShow(), episode.getSeason()));
+            return null;
+        }
+        return EpisodeBatchInsert.builder()
+                .season(seasonId)
+                .episodeNumber(episode.getEpisode())
+                .name(episode.getName())
+                .build();
+    }
+}
@@ -1,8 +1,5 @@
 package com.andreas.showsdb.batch;
 
-import com.andreas.showsdb.exception.NotFoundException;
-import com.andreas.showsdb.repository.SeasonsRepository;
-import com.andreas.showsdb.repository.ShowsRepository;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,40 +7,37 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
-import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
-import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
-import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.List;
 
 @Slf4j
 @Configuration
 public class EpisodesBatchConfig {
 
+    /**
+     * Inserts the episodes, or renames them if they already exist.
+     */
     @Bean
-    public JdbcBatchItemWriter<EpisodeBatchInsert> episodeWriter(DataSource dataSource) {
-        return new JdbcBatchItemWriterBuilder<EpisodeBatchInsert>()
-                .itemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>())
-                .sql("""
-                        INSERT INTO `episode`(`season`, `episode_number`, `name`) \
-                        VALUES (:season, :episodeNumber, :name) \
-                        ON DUPLICATE KEY UPDATE `name`= :name""")
-                .dataSource(dataSource)
-                .build();
+    public MultiRowInsertWriter<EpisodeBatchInsert> episodeWriter(JdbcTemplate jdbcTemplate,
+                                                                  BatchImportProperties properties) {
+        return new MultiRowInsertWriter<>(jdbcTemplate, "episode", List.of("season", "episode_number", "name"),
+                List.of("season", "episode_number"), (ps, index, episode) -> {
+                    ps.setLong(index, episode.getSeason());
+                    ps.setObject(index + 1, episode.getEpisodeNumber(), Types.INTEGER);
+                    ps.setString(index + 2, episode.getName());
+                }, properties.getRowsPerInsert(), properties.isMultiRowInsert());
     }
 
     @Bean
@@ -56,51 +50,39 @@ public class EpisodesBatchConfig {
                 .end().build();
     }
 
+    /**
+     * Step scoped, so the season ids are loaded again by every import and released when it ends.
+     */
+    @StepScope
     @Bean
-    public ItemProcessor<EpisodeBatchInput, EpisodeBatchInsert> episodeProcessor(ShowsRepository showsRepository,
-                                                                                 SeasonsRepository seasonsRepository) {
-        return episode -> {
-            try {
-                Long seasonId = seasonsRepository.findFirstByShowNameAndNumber(episode.show, episode.season)
-                        .orElseThrow(NotFoundException::new)
-                        .getId();
-                return EpisodeBatchInsert.builder()
-                        .season(seasonId)
-                        .episodeNumber(episode.episode)
-                        .name(episode.name)
-                        .build();
-            } catch (NotFoundException e) {
-                log.error("Could not find %s : S%02d".formatted(episode.show, episode.season));
-                return null;
-            }
-        };
+    public EpisodeBatchProcessor episodeProcessor(JdbcTemplate jdbcTemplate) {
+        return new EpisodeBatchProcessor(jdbcTemplate);
     }
 
-    @JobScope
     @Bean
     public Step importEpisodeStep1(JobRepository jobRepository, PlatformTransactionManager transactionManager,
-                                   JdbcBatchItemWriter<EpisodeBatchInsert> writer,
-                                   ItemProcessor<EpisodeBatchInput, EpisodeBatchInsert> episodeProcessor,
-                                   @Value("#{jobParameters['filepath']}") String filepath) {
-        log.info("Filepath: {}", filepath);
+                                   FileRangeItemReader<EpisodeBatchInput> episodesReader,
+                                   MultiRowInsertWriter<EpisodeBatchInsert> writer,
+                                   EpisodeBatchProcessor episodeProcessor, BatchImportProperties properties) {
         return new StepBuilder("importEpisodeStep1", jobRepository)
-                .<EpisodeBatchInput, EpisodeBatchInsert>chunk(10, transactionManager)
-                .reader(episodesReader(filepath))
+                .<EpisodeBatchInput, EpisodeBatchInsert>chunk(properties.getChunkSize(), transactionManager)
+                .reader(episodesReader)
                 .processor(episodeProcessor)
                 .writer(writer)
                 .build();
     }
 
-    private FlatFileItemReader<EpisodeBatchInput> episodesReader(String filepath) {
-        BeanWrapperFieldSetMapper<EpisodeBatchInput> mapper = new BeanWrapperFieldSetMapper<>();
-        mapper.setTargetType(EpisodeBatchInput.class);
-        return new FlatFileItemReaderBuilder<EpisodeBatchInput>().name("episodesReader")
-                .resource(new FileSystemResource(filepath))
-                .delimited()
-                .names("Show", "Season", "Episode", "Name")
-                .fieldSetMapper(mapper)
-                .linesToSkip(1)
-                .build();
+    /**
+     * Reads the whole file, saving the offset of the next line with every chunk so a restarted import goes on from
+     * its last committed chunk.
+     */
+    @StepScope
+    @Bean
+    public FileRangeItemReader<EpisodeBatchInput> episodesReader(
+            @Value("#{jobParameters['filepath']}") String filepath) {
+        log.info("Filepath: {}", filepath);
+        return new FileRangeItemReader<>("episodesReader", Path.of(filepath), 0, Long.MAX_VALUE,
+                FileRangeItemReader.delimited(EpisodeBatchInput.class, "Show", "Season", "Episode", "Name"));
     }
 
     @Data
@@ -0,0 +1,179 @@
+package com.andreas.showsdb.batch;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the lines of a byte range of a file, skipping the header if the range starts the file and any blank lines.
+ * <p>
+ * Every record must be on a single line. A quoted field with a line break in it would be split wherever the file is,
+ * so a line that leaves a quoted field open fails the import with a {@link FlatFileParseException}.
+ * <p>
+ * The byte offset of the next line is saved in the execution context with every chunk, so a restarted import seeks
+ * straight to the first line it had not committed instead of reading the file again up to it.
+ * <p>
+ * Files named {@code *.gz} are decompressed as they are read, and the range and offsets are of the decompressed
+ * bytes. As those can not be sought, a restarted import decompresses the file again up to its offset.
+ */
+public class FileRangeItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+    static final String OFFSET = "offset";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final Path path;
+    private final long start;
+    private final long end;
+    private final LineMapper<T> lineMapper;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private InputStream input;
+    private int position;
+    private int limit;
+    private long offset;
+
+    /**
+     * @param name  name of the reader, which prefixes its keys in the execution context
+     * @param start offset of the first byte of the range, which must be the start of a line
+     * @param end   offset after the last byte of the range
+     */
+    public FileRangeItemReader(String name, Path path, long start, long end, LineMapper<T> lineMapper) {
+        setName(name);
+        this.path = path;
+        this.start = start;
+        this.end = end;
+        this.lineMapper = lineMapper;
+    }
+
+    /**
+     * Whether the file is gzip compressed, and so can only be read as a whole.
+     */
+    public static boolean isCompressed(Path path) {
+        return path.getFileName().toString().endsWith(GZIP_SUFFIX);
+    }
+
+    /**
+     * Maps comma separated lines to beans of the given type, with the fields in the order of the names.
+     */
+    public static <T> LineMapper<T> delimited(Class<T> type, String... names) {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setNames(names);
+        BeanWrapperFieldSetMapper<T> fieldSetMapper = new BeanWrapperFieldSetMapper<>();
+        fieldSetMapper.setTargetType(type);
+        DefaultLineMapper<T> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(fieldSetMapper);
+        return lineMapper;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        String key = getExecutionContextKey(OFFSET);
+        offset = isSaveState() && executionContext.containsKey(key) ? executionContext.getLong(key) : start;
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(OFFSET), offset);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws IOException {
+        if (isCompressed(path)) {
+            input = new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE);
+            input.skipNBytes(offset);
+        } else {
+            input = new FileRangeResource(path, offset, end).getInputStream();
+        }
+        position = 0;
+        limit = 0;
+        if (offset == 0) {
+            readLine();
+        }
+    }
+
+    /**
+     * Nothing to do: {@link #doOpen()} already seeks to the saved offset.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) {
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        String text = readLine();
+        while (text != null && text.isBlank()) {
+            text = readLine();
+        }
+        if (text == null) {
+            return null;
+        }
+        if (text.chars().filter(c -> c == '"').count() % 2 != 0) {
+            int record = getCurrentItemCount();
+            throw new FlatFileParseException(("Record %d has a quoted field not closed on its line. "
+                    + "Records spanning several lines are not supported").formatted(record), text, record);
+        }
+        return lineMapper.mapLine(text, getCurrentItemCount());
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        if (input != null) {
+            input.close();
+            input = null;
+        }
+    }
+
+    /**
+     * @return the next line without its line terminator, or null at the end of the range
+     */
+    private String readLine() throws IOException {
+        if (offset >= end) {
+            return null;
+        }
+        line.reset();
+        while (true) {
+            if (position == limit) {
+                limit = input.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return line.size() == 0 ? null : decodeLine();
+                }
+            }
+            int lineEnd = position;
+            while (lineEnd < limit && buffer[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            line.write(buffer, position, lineEnd - position);
+            offset += lineEnd - position;
+            if (lineEnd < limit) {
+                position = lineEnd + 1;
+                offset++;
+                return decodeLine();
+            }
+            position = limit;
+        }
+    }
+
+    private String decodeLine() {
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+}
@@ -0,0 +1,75 @@
+package com.andreas.showsdb.batch;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits a file of one record per line into byte ranges of about the same size, each ending right after a line
+ * break. The ranges are put in the step execution contexts as {@value #START} and {@value #END}, to be read with a
+ * {@link FileRangeResource}. Only the first range contains the header line. Line breaks inside quoted fields are not
+ * told apart, as {@link FileRangeItemReader} rejects records spanning several lines anyway.
+ * <p>
+ * Compressed files can not be split, so they are read whole by a single partition.
+ */
+public class FileRangePartitioner implements Partitioner {
+    public static final String START = "start";
+    public static final String END = "end";
+
+    private final Path path;
+    private final long minPartitionSize;
+
+    public FileRangePartitioner(Path path, long minPartitionSize) {
+        this.path = path;
+        this.minPartitionSize = minPartitionSize;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        if (FileRangeItemReader.isCompressed(path)) {
+            partitions.put("partition0", range(0, Long.MAX_VALUE));
+            return partitions;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            long size = file.length();
+            int parts = (int) Math.max(1, Math.min(gridSize, size / Math.max(1, minPartitionSize)));
+            long start = 0;
+            for (int i = 1; i <= parts && start < size; i++) {
+                long end = i == parts ? size : nextLineStart(file, size * i / parts);
+                if (end <= start) continue;
+                partitions.put("partition" + partitions.size(), range(start, end));
+                start = end;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not split " + path, e);
+        }
+        if (partitions.isEmpty()) {
+            // Empty file: a single partition that reads nothing
+            partitions.put("partition0", range(0, 0));
+        }
+        return partitions;
+    }
+
+    private static ExecutionContext range(long start, long end) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(START, start);
+        context.putLong(END, end);
+        return context;
+    }
+
+    private static long nextLineStart(RandomAccessFile file, long position) throws IOException {
+        file.seek(position);
+        int b;
+        do {
+            b = file.read();
+        } while (b != -1 && b != '\n');
+        return file.getFilePointer();
+    }
+}
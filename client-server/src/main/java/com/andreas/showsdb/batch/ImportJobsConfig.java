@@ -0,0 +1,52 @@
+package com.andreas.showsdb.batch;
+
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.launch.support.SimpleJobOperator;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Runs the imports in the background. The launcher and operator defined here return as soon as the job is queued, so
+ * neither the Kafka consumer that orders an import nor a request that restarts one waits for it to finish.
+ */
+@Configuration
+public class ImportJobsConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor importJobExecutor(BatchImportProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getConcurrentJobs());
+        executor.setMaxPoolSize(properties.getConcurrentJobs());
+        executor.setQueueCapacity(properties.getQueuedJobs());
+        executor.setThreadNamePrefix("import-job-");
+        return executor;
+    }
+
+    @Bean
+    public JobLauncher importJobLauncher(JobRepository jobRepository, ThreadPoolTaskExecutor importJobExecutor)
+            throws Exception {
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(importJobExecutor);
+        jobLauncher.afterPropertiesSet();
+        return jobLauncher;
+    }
+
+    @Bean
+    public JobOperator importJobOperator(JobLauncher importJobLauncher, JobRepository jobRepository,
+                                         JobExplorer jobExplorer, JobRegistry jobRegistry) throws Exception {
+        SimpleJobOperator jobOperator = new SimpleJobOperator();
+        jobOperator.setJobLauncher(importJobLauncher);
+        jobOperator.setJobRepository(jobRepository);
+        jobOperator.setJobExplorer(jobExplorer);
+        jobOperator.setJobRegistry(jobRegistry);
+        jobOperator.afterPropertiesSet();
+        return jobOperator;
+    }
+}
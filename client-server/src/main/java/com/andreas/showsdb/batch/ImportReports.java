@@ -0,0 +1,74 @@
+package com.andreas.showsdb.batch;
+
+import com.andreas.showsdb.model.dto.ImportReportDto;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.SimpleStepExecutionSplitter;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Builds the report of an import from its job execution. The counters are the ones Spring Batch stores for every
+ * step, which are updated as each chunk is committed, so the report of a running import shows its progress. The
+ * verification results are stored in the job execution context by {@link JobCompletionNotificationListener}.
+ */
+public final class ImportReports {
+    static final String SAMPLED = "verification.sampled";
+    static final String MISSING = "verification.missing";
+    /**
+     * Stored by the splitter in the execution context of every partitioned step.
+     */
+    private static final String GRID_SIZE = SimpleStepExecutionSplitter.class.getSimpleName() + ".GRID_SIZE";
+
+    private ImportReports() {
+    }
+
+    public static ImportReportDto of(JobExecution jobExecution) {
+        ImportReportDto report = ImportReportDto.builder()
+                .jobExecutionId(jobExecution.getId())
+                .job(jobExecution.getJobInstance().getJobName())
+                .status(jobExecution.getStatus().name())
+                .exitCode(jobExecution.getExitStatus().getExitCode())
+                .file(fileName(jobExecution.getJobParameters().getString(BatchOrderListener.FILEPATH)))
+                .startTime(jobExecution.getStartTime())
+                .endTime(jobExecution.getEndTime())
+                .failures(jobExecution.getAllFailureExceptions().stream()
+                        .map(Throwable::getMessage)
+                        .toList())
+                .build();
+        for (StepExecution step : jobExecution.getStepExecutions()) {
+            if (isPartitioned(step)) {
+                // Its partitions are counted instead, as it only adds them up when all of them have finished
+                continue;
+            }
+            report.setRead(report.getRead() + step.getReadCount());
+            report.setWritten(report.getWritten() + step.getWriteCount());
+            report.setFiltered(report.getFiltered() + step.getFilterCount());
+            report.setSkipped(report.getSkipped() + step.getSkipCount());
+            report.setCommits(report.getCommits() + step.getCommitCount());
+            report.setRollbacks(report.getRollbacks() + step.getRollbackCount());
+        }
+        LocalDateTime end = jobExecution.getEndTime() == null ? LocalDateTime.now() : jobExecution.getEndTime();
+        if (jobExecution.getStartTime() != null) {
+            long millis = Duration.between(jobExecution.getStartTime(), end).toMillis();
+            report.setRowsPerSecond(millis == 0 ? 0 : report.getWritten() * 1000.0 / millis);
+        }
+        ExecutionContext context = jobExecution.getExecutionContext();
+        if (context.containsKey(SAMPLED)) {
+            report.setSampled(context.getInt(SAMPLED));
+            report.setMissing(context.getInt(MISSING));
+        }
+        return report;
+    }
+
+    private static String fileName(String filepath) {
+        return filepath == null ? null : Path.of(filepath).getFileName().toString();
+    }
+
+    private static boolean isPartitioned(StepExecution step) {
+        return step.getExecutionContext().containsKey(GRID_SIZE);
+    }
+}
@@ -0,0 +1,128 @@
+package com.andreas.showsdb.batch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Checks that a sample of the rows of an imported file are in the database. Only the sampled lines are read, so its
+ * cost does not grow with the size of the file nor of the database.
+ * <p>
+ * Lines are sampled by seeking to random positions and taking the line after each one, so lines that follow long
+ * lines are more likely to be picked. Rows the import filtered on purpose, like episodes of seasons that do not exist,
+ * are reported as missing. Compressed files can not be sought, so they are read whole to sample them. Only files of
+ * completed imports are verified, and {@link FileRangeItemReader} fails any with records spanning several lines, so
+ * every line is a whole record.
+ */
+@RequiredArgsConstructor
+class ImportVerifier {
+    // Shows are found through the show_name index, and their seasons and episodes through their unique keys
+    private static final String SHOW_QUERY = "SELECT COUNT(*) FROM `show` WHERE `name` = ?";
+    private static final String EPISODE_QUERY = """
+            SELECT COUNT(*) FROM `episode` e \
+            JOIN `season` s ON e.`season` = s.`id` JOIN `show` sh ON s.`show` = sh.`id` \
+            WHERE sh.`name` = ? AND s.`season_number` = ? AND e.`episode_number` = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return how many of the sampled rows were not found
+     */
+    int countMissingShows(List<String> lines) {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        return (int) lines.stream()
+                .map(tokenizer::tokenize)
+                .filter(row -> !exists(SHOW_QUERY, row.readString(0)))
+                .count();
+    }
+
+    /**
+     * @return how many of the sampled rows were not found, counting those that are not valid episodes
+     */
+    int countMissingEpisodes(List<String> lines) {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        return (int) lines.stream()
+                .map(tokenizer::tokenize)
+                .filter(row -> !episodeExists(row))
+                .count();
+    }
+
+    private boolean episodeExists(FieldSet row) {
+        int seasonNumber;
+        int episodeNumber;
+        try {
+            seasonNumber = row.readInt(1);
+            episodeNumber = row.readInt(2);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // Missing or not a number, so it could not have been imported
+            return false;
+        }
+        return exists(EPISODE_QUERY, row.readString(0), seasonNumber, episodeNumber);
+    }
+
+    private boolean exists(String query, Object... arguments) {
+        Integer count = jdbcTemplate.queryForObject(query, Integer.class, arguments);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Picks up to {@code size} lines of a csv file, never its header.
+     */
+    static List<String> sample(Path file, int size) throws IOException {
+        if (FileRangeItemReader.isCompressed(file)) {
+            return sampleCompressed(file, size);
+        }
+        long length = Files.size(file);
+        List<String> lines = new ArrayList<>(size);
+        for (int i = 0; i < size && length > 0; i++) {
+            long position = ThreadLocalRandom.current().nextLong(length);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileRangeResource(file, position, length).getInputStream(), StandardCharsets.UTF_8))) {
+                // The first line is the rest of the one the position fell in, or the header
+                reader.readLine();
+                String line = reader.readLine();
+                if (line != null && !line.isBlank()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Reservoir sampling of the lines, so every line is as likely to be picked.
+     */
+    private static List<String> sampleCompressed(Path file, int size) throws IOException {
+        List<String> lines = new ArrayList<>(size);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            long seen = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank()) continue;
+                seen++;
+                if (lines.size() < size) {
+                    lines.add(line);
+                } else {
+                    long index = ThreadLocalRandom.current().nextLong(seen);
+                    if (index < size) {
+                        lines.set((int) index, line);
+                    }
+                }
+            }
+        }
+        return lines;
+    }
+}
@@ -1,69 +1,99 @@
 package com.andreas.showsdb.batch;
 
-import com.andreas.showsdb.model.Show;
-import lombok.RequiredArgsConstructor;
+import com.andreas.showsdb.model.dto.ImportReportDto;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
 
+/**
+ * Logs the report of every import, verifies a sample of its rows if enabled and removes its file once it has
+ * completed. The files of failed and stopped imports are kept so they can be restarted, until an execution of the
+ * same import completes and removes the files of all of them.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JobCompletionNotificationListener implements JobExecutionListener {
 
-    private final JdbcTemplate jdbcTemplate;
+    private final ImportVerifier verifier;
+    private final JobRepository jobRepository;
+    private final BatchImportProperties properties;
 
-    private static void accept(String show) {
-        log.info("Found < {} > in the database.", show);
+    public JobCompletionNotificationListener(JdbcTemplate jdbcTemplate, JobRepository jobRepository,
+                                             BatchImportProperties properties) {
+        this.verifier = new ImportVerifier(jdbcTemplate);
+        this.jobRepository = jobRepository;
+        this.properties = properties;
     }
 
     @Override
     public void afterJob(JobExecution jobExecution) {
+        String filepath = jobExecution.getJobParameters().getString(BatchOrderListener.FILEPATH);
         if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
-            log.info("!!! JOB FINISHED! Time to verify the results");
-
-            String jobName = jobExecution.getJobInstance().getJobName();
-            switch (jobName) {
-                case "importShowJob" -> acceptImportedShows();
-                case "importEpisodeJob" -> acceptImportedEpisodes();
-                default -> log.info("Nothing to verify");
+            if (properties.getVerificationSampleSize() > 0 && filepath != null) {
+                verify(jobExecution, Path.of(filepath));
             }
         } else if (jobExecution.getStatus() == BatchStatus.FAILED) {
             log.error("FAILURE STATE! Job could not be completed.");
         }
-        String filepath = jobExecution.getJobParameters().getString("filepath");
-        if (filepath != null) {
-            log.info("Removing file from file system");
-            File file = new File(filepath);
-            try {
-                Files.deleteIfExists(file.toPath());
-            } catch (IOException e) {
-                log.error("Could not delete file {}, please make sure to remove it manually.", filepath);
-            }
+        ImportReportDto report = ImportReports.of(jobExecution);
+        log.info("Import {} of {} finished with status {}: {} read, {} written, {} filtered, {} skipped",
+                report.getJobExecutionId(), report.getJob(), report.getStatus(), report.getRead(),
+                report.getWritten(), report.getFiltered(), report.getSkipped());
+
+        if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
+            jobRepository.findJobExecutions(jobExecution.getJobInstance()).stream()
+                    .map(execution -> execution.getJobParameters().getString(BatchOrderListener.FILEPATH))
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(JobCompletionNotificationListener::delete);
         }
     }
 
-    private void acceptImportedEpisodes() {
-        String query = "SELECT `name` FROM `episode`";
-        jdbcTemplate.query(query, (rs, rowNum) -> rs.getString(1))
-                .forEach(JobCompletionNotificationListener::accept);
+    private static void delete(String filepath) {
+        try {
+            if (Files.deleteIfExists(Path.of(filepath))) {
+                log.info("Removed {} from file system", filepath);
+            }
+        } catch (IOException e) {
+            log.error("Could not delete file {}, please make sure to remove it manually.", filepath);
+        }
     }
 
-    private void acceptImportedShows() {
-        String query = "SELECT `id`, `name`, `country` FROM `show`";
-        jdbcTemplate.query(query, (rs, row) -> Show.builder()
-                        .id(rs.getLong(1))
-                        .name(rs.getString(2))
-                        .country(rs.getString(3))
-                        .build())
-                .stream().map(Show::getName)
-                .forEach(JobCompletionNotificationListener::accept);
+    private void verify(JobExecution jobExecution, Path file) {
+        String jobName = jobExecution.getJobInstance().getJobName();
+        try {
+            List<String> sample = ImportVerifier.sample(file, properties.getVerificationSampleSize());
+            int missing = switch (jobName) {
+                case "importShowJob" -> verifier.countMissingShows(sample);
+                case "importEpisodeJob" -> verifier.countMissingEpisodes(sample);
+                default -> {
+                    log.info("Nothing to verify");
+                    yield -1;
+                }
+            };
+            if (missing < 0) {
+                return;
+            }
+            if (missing > 0) {
+                log.warn("{} of {} sampled rows of import {} were not found", missing, sample.size(),
+                        jobExecution.getId());
+            }
+            jobExecution.getExecutionContext().putInt(ImportReports.SAMPLED, sample.size());
+            jobExecution.getExecutionContext().putInt(ImportReports.MISSING, missing);
+            jobRepository.updateExecutionContext(jobExecution);
+        } catch (IOException | RuntimeException e) {
+            // Never keep the report from being logged nor the files from being removed
+            log.error("Could not verify import {} with {}: {}", jobExecution.getId(), file, e.toString());
+        }
     }
 }
@@ -0,0 +1,113 @@
+package com.andreas.showsdb.batch;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes items with as few statements as possible, binding their values with a {@link RowSetter} instead of
+ * reflection.
+ * <p>
+ * By default, rows are sent in MySQL multi-row inserts of up to {@code rowsPerInsert} rows. If key columns are given,
+ * rows whose keys already exist update the other columns ({@code ON DUPLICATE KEY UPDATE}, with the row alias of
+ * MySQL 8.0.19 instead of the deprecated {@code VALUES()} function). The portable mode sends one standard SQL
+ * statement per row in a JDBC batch, a {@code MERGE} if there are key columns, for databases without MySQL syntax such
+ * as the H2 database of the tests.
+ */
+public class MultiRowInsertWriter<T> implements ItemWriter<T> {
+    private final JdbcTemplate jdbcTemplate;
+    private final RowSetter<T> rowSetter;
+    private final int columnCount;
+    private final int rowsPerInsert;
+    private final boolean multiRow;
+    private final String rowParameters;
+    private final String sql;
+    private final String multiRowPrefix;
+    private final String multiRowSuffix;
+
+    /**
+     * @param table         table to write to
+     * @param columns       columns set by the row setter, in order
+     * @param keyColumns    columns of a unique key of the table, to update existing rows instead of failing. Empty for
+     *                      plain inserts
+     * @param rowSetter     sets the values of a row
+     * @param rowsPerInsert maximum number of rows of a multi-row insert
+     * @param multiRow      whether to use MySQL multi-row inserts, or the portable statements
+     */
+    public MultiRowInsertWriter(JdbcTemplate jdbcTemplate, String table, List<String> columns,
+                                List<String> keyColumns, RowSetter<T> rowSetter, int rowsPerInsert,
+                                boolean multiRow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rowSetter = rowSetter;
+        this.columnCount = columns.size();
+        this.rowsPerInsert = rowsPerInsert;
+        this.multiRow = multiRow;
+        List<String> updatedColumns = columns.stream().filter(column -> !keyColumns.contains(column)).toList();
+
+        multiRowPrefix = "INSERT INTO `%s`(%s) VALUES ".formatted(table, join(columns, "`%s`", ", "));
+        multiRowSuffix = keyColumns.isEmpty() || updatedColumns.isEmpty() ? ""
+                : " AS new ON DUPLICATE KEY UPDATE " + join(updatedColumns, "`%1$s` = new.`%1$s`", ", ");
+
+        rowParameters = "(" + ", ?".repeat(columnCount).substring(2) + ")";
+        if (keyColumns.isEmpty()) {
+            sql = "INSERT INTO \"%s\"(%s) VALUES %s".formatted(table, join(columns, "\"%s\"", ", "), rowParameters);
+        } else {
+            sql = """
+                    MERGE INTO "%1$s" t USING (VALUES %2$s) s(%3$s) ON %4$s \
+                    %5$sWHEN NOT MATCHED THEN INSERT (%3$s) VALUES (%6$s)""".formatted(
+                    table, rowParameters, join(columns, "\"%s\"", ", "),
+                    join(keyColumns, "t.\"%1$s\" = s.\"%1$s\"", " AND "),
+                    updatedColumns.isEmpty() ? ""
+                            : "WHEN MATCHED THEN UPDATE SET " + join(updatedColumns, "\"%1$s\" = s.\"%1$s\"", ", ")
+                              + " ",
+                    join(columns, "s.\"%s\"", ", "));
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) {
+        write(chunk.getItems());
+    }
+
+    public void write(List<? extends T> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (!multiRow) {
+            jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> rowSetter.setValues(ps, 1, row));
+            return;
+        }
+        for (int from = 0; from < rows.size(); from += rowsPerInsert) {
+            List<? extends T> group = rows.subList(from, Math.min(from + rowsPerInsert, rows.size()));
+            String groupSql = multiRowPrefix + (", " + rowParameters).repeat(group.size()).substring(2)
+                              + multiRowSuffix;
+            jdbcTemplate.update(groupSql, ps -> {
+                int index = 1;
+                for (T row : group) {
+                    rowSetter.setValues(ps, index, row);
+                    index += columnCount;
+                }
+            });
+        }
+    }
+
+    private static String join(List<String> columns, String format, String delimiter) {
+        return columns.stream().map(format::formatted).collect(Collectors.joining(delimiter));
+    }
+
+    /**
+     * Sets the values of a row in a statement, in the order of the columns of the writer.
+     */
+    @FunctionalInterface
+    public interface RowSetter<T> {
+        /**
+         * @param index index of the parameter of the first column of the row
+         */
+        void setValues(PreparedStatement ps, int index, T row) throws SQLException;
+    }
+}
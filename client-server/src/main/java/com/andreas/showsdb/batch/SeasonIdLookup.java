@@ -0,0 +1,70 @@
+package com.andreas.showsdb.batch;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Season ids by show name and season number, loaded with a single query so the episodes import does not go to the
+ * database for every row. The ids of each show are kept in a {@code long[]} indexed by season number, which takes
+ * 8 bytes per season on top of the show name.
+ * <p>
+ * Show names are not unique: if several shows have the same name, the season with the lowest id is used for each
+ * season number.
+ */
+public class SeasonIdLookup {
+    public static final long NOT_FOUND = 0;
+
+    private static final String QUERY = """
+            SELECT sh.`name`, s.`season_number`, s.`id` \
+            FROM `season` s JOIN `show` sh ON s.`show` = sh.`id` \
+            ORDER BY s.`id`""";
+
+    private final Map<String, long[]> seasonIds = new HashMap<>();
+
+    /**
+     * Loads the id of every season in the database.
+     */
+    public static SeasonIdLookup load(JdbcTemplate jdbcTemplate) {
+        SeasonIdLookup lookup = new SeasonIdLookup();
+        jdbcTemplate.query(QUERY, (RowCallbackHandler) rs -> lookup.add(rs.getString(1), rs.getInt(2), rs.getLong(3)));
+        return lookup;
+    }
+
+    /**
+     * @return the id of the season, or {@link #NOT_FOUND}
+     */
+    public long find(String showName, int seasonNumber) {
+        long[] ids = seasonIds.get(showName);
+        if (ids == null || seasonNumber < 0 || seasonNumber >= ids.length) {
+            return NOT_FOUND;
+        }
+        return ids[seasonNumber];
+    }
+
+    /**
+     * @return the number of distinct show names
+     */
+    public int size() {
+        return seasonIds.size();
+    }
+
+    void add(String showName, int seasonNumber, long seasonId) {
+        if (seasonNumber < 0) {
+            return;
+        }
+        long[] ids = seasonIds.get(showName);
+        if (ids == null) {
+            ids = new long[seasonNumber + 1];
+        } else if (seasonNumber >= ids.length) {
+            ids = Arrays.copyOf(ids, seasonNumber + 1);
+        } else if (ids[seasonNumber] != NOT_FOUND) {
+            return;
+        }
+        ids[seasonNumber] = seasonId;
+        seasonIds.put(showName, ids);
+    }
+}
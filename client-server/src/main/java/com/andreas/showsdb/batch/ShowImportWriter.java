@@ -0,0 +1,79 @@
+package com.andreas.showsdb.batch;
+
+import com.andreas.showsdb.batch.ShowsBatchConfig.ShowBatchFormat;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.util.StringUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts a chunk of shows in a single batch and then creates their seasons with a {@link MultiRowInsertWriter}, using
+ * the ids generated for the shows instead of looking each show up by name.
+ */
+public class ShowImportWriter implements ItemWriter<ShowBatchFormat> {
+    private static final String INSERT_SHOW = "INSERT INTO `show`(`name`, `country`, `state`) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertShow;
+    private final MultiRowInsertWriter<SeasonRow> seasonWriter;
+
+    /**
+     * @param multiRow whether to use MySQL syntax, see {@link MultiRowInsertWriter}
+     */
+    public ShowImportWriter(JdbcTemplate jdbcTemplate, int rowsPerInsert, boolean multiRow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertShow = multiRow ? INSERT_SHOW : INSERT_SHOW.replace('`', '"');
+        this.seasonWriter = new MultiRowInsertWriter<>(jdbcTemplate, "season", List.of("show", "season_number"),
+                List.of(), ShowImportWriter::setSeason, rowsPerInsert, multiRow);
+    }
+
+    @Override
+    public void write(Chunk<? extends ShowBatchFormat> chunk) {
+        List<? extends ShowBatchFormat> shows = chunk.getItems();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(insertShow, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ShowBatchFormat show = shows.get(i);
+                        ps.setString(1, show.getName());
+                        ps.setString(2, show.getCountry());
+                        ps.setString(3, StringUtils.hasText(show.getState()) ? show.getState() : null);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return shows.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<SeasonRow> seasons = new ArrayList<>();
+        for (int i = 0; i < shows.size(); i++) {
+            // Drivers name the key column differently, but it is the only one
+            long showId = ((Number) keys.get(i).values().iterator().next()).longValue();
+            Integer numberOfSeasons = shows.get(i).getSeasons();
+            for (int number = 1; numberOfSeasons != null && number <= numberOfSeasons; number++) {
+                seasons.add(new SeasonRow(showId, number));
+            }
+        }
+        seasonWriter.write(seasons);
+    }
+
+    private static void setSeason(PreparedStatement ps, int index, SeasonRow season) throws SQLException {
+        ps.setLong(index, season.show());
+        ps.setInt(index + 1, season.number());
+    }
+
+    private record SeasonRow(long show, int number) {
+    }
+}
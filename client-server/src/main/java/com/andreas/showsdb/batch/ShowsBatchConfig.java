@@ -7,115 +7,103 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
-import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
-import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
-import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import javax.sql.DataSource;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
 
 @Slf4j
 @Configuration
+@EnableConfigurationProperties(BatchImportProperties.class)
 public class ShowsBatchConfig {
 
     @Bean
-    public JdbcBatchItemWriter<ShowBatchFormat> showWriter(DataSource dataSource) {
-        return new JdbcBatchItemWriterBuilder<ShowBatchFormat>()
-                .itemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>())
-                .sql("INSERT INTO `show`(`name`, `country`, `state`) VALUES (:name, :country, :state) " +
-                     "ON DUPLICATE KEY UPDATE `name`=:name, `country`=:country, `state`=:state")
-                .dataSource(dataSource)
-                .build();
+    public ShowImportWriter showWriter(JdbcTemplate jdbcTemplate, BatchImportProperties properties) {
+        return new ShowImportWriter(jdbcTemplate, properties.getRowsPerInsert(), properties.isMultiRowInsert());
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor importTaskExecutor(BatchImportProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPartitions());
+        executor.setMaxPoolSize(properties.getPartitions());
+        executor.setThreadNamePrefix("import-");
+        return executor;
     }
 
     @Bean
     public Job importShowJob(JobRepository jobRepository, JobCompletionNotificationListener listener,
-                             Step importShowStep1, Step importShowStep2) {
+                             Step importShowStep) {
         return new JobBuilder("importShowJob", jobRepository)
                 .incrementer(new RunIdIncrementer())
                 .listener(listener)
-                .flow(importShowStep1)
-                .next(importShowStep2)
+                .flow(importShowStep)
                 .end().build();
     }
 
-    @JobScope
+    /**
+     * Splits the file in byte ranges and imports them in parallel, reading the file only once.
+     */
     @Bean
-    public Step importShowStep1(JobRepository jobRepository, PlatformTransactionManager transactionManager,
-                                JdbcBatchItemWriter<ShowBatchFormat> writer,
-                                @Value("#{jobParameters['filepath']}") String filepath) {
-        log.info("Filepath: {}", filepath);
-        return new StepBuilder("importShowStep1", jobRepository)
-                .<ShowBatchFormat, ShowBatchFormat>chunk(10, transactionManager)
-                .reader(showsReader(filepath))
-                .writer(writer)
+    public Step importShowStep(JobRepository jobRepository, Step importShowPartitionStep,
+                               FileRangePartitioner showsPartitioner, ThreadPoolTaskExecutor importTaskExecutor,
+                               BatchImportProperties properties) {
+        TaskExecutorPartitionHandler partitionHandler = new TaskExecutorPartitionHandler();
+        partitionHandler.setStep(importShowPartitionStep);
+        partitionHandler.setTaskExecutor(importTaskExecutor);
+        partitionHandler.setGridSize(properties.getPartitions());
+        return new StepBuilder("importShowStep", jobRepository)
+                .partitioner(importShowPartitionStep.getName(), showsPartitioner)
+                .partitionHandler(partitionHandler)
                 .build();
     }
 
+    /**
+     * Step scoped, as it splits the file of the job being run. The step itself is not scoped, so the job operator can
+     * find it to stop it.
+     */
+    @StepScope
     @Bean
-    public ListUnpackingItemWriter<SeasonBatchFormat> seasonsWriter(DataSource dataSource) {
-        JdbcBatchItemWriter<SeasonBatchFormat> delegateWriter = new JdbcBatchItemWriterBuilder<SeasonBatchFormat>()
-//                .itemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>())
-                .itemPreparedStatementSetter((season, ps) -> {
-                    ps.setInt(1, season.getSeason());
-                    ps.setString(2, season.getShow());
-                })
-                .sql("INSERT IGNORE INTO `season` (`show`, `season_number`) SELECT s.`id`, ? FROM `show` s " +
-                     "WHERE s.`name`=?")
-                .dataSource(dataSource)
-                .build();
-        ListUnpackingItemWriter<SeasonBatchFormat> listUnpackingItemWriter = new ListUnpackingItemWriter<>();
-        listUnpackingItemWriter.setDelegate(delegateWriter);
-        return listUnpackingItemWriter;
+    public FileRangePartitioner showsPartitioner(@Value("#{jobParameters['filepath']}") String filepath,
+                                                 BatchImportProperties properties) {
+        log.info("Filepath: {}", filepath);
+        return new FileRangePartitioner(Path.of(filepath), properties.getMinPartitionSize().toBytes());
     }
 
-    @JobScope
     @Bean
-    public Step importShowStep2(JobRepository jobRepository, PlatformTransactionManager transactionManager,
-                                ListUnpackingItemWriter<SeasonBatchFormat> writer,
-                                @Value("#{jobParameters['filepath']}") String filepath) {
-        return new StepBuilder("importShowStep2", jobRepository)
-                .<ShowBatchFormat, List<SeasonBatchFormat>>chunk(10, transactionManager)
-                .reader(showsReader(filepath))
-                .processor(show -> {
-                    List<SeasonBatchFormat> seasons = new ArrayList<>();
-                    for (int i = 0; i < show.seasons; i++) {
-                        SeasonBatchFormat season = SeasonBatchFormat.builder()
-                                .show(show.name)
-                                .season(i + 1)
-                                .build();
-                        seasons.add(season);
-                    }
-                    return seasons;
-                })
+    public Step importShowPartitionStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                        FileRangeItemReader<ShowBatchFormat> showsReader, ShowImportWriter writer,
+                                        BatchImportProperties properties) {
+        return new StepBuilder("importShowPartitionStep", jobRepository)
+                .<ShowBatchFormat, ShowBatchFormat>chunk(properties.getChunkSize(), transactionManager)
+                .reader(showsReader)
                 .writer(writer)
                 .build();
     }
 
-    private FlatFileItemReader<ShowBatchFormat> showsReader(String filepath) {
-        BeanWrapperFieldSetMapper<ShowBatchFormat> mapper = new BeanWrapperFieldSetMapper<>();
-        mapper.setTargetType(ShowBatchFormat.class);
-        return new FlatFileItemReaderBuilder<ShowBatchFormat>().name("showsReader")
-                .resource(new FileSystemResource(filepath))
-                .delimited()
-                .names("Name", "Country", "Seasons", "State")
-                .fieldSetMapper(mapper)
-                .linesToSkip(1)
-                .build();
+    /**
+     * Reads the byte range of its partition. The header is in the first one. The offset of the next line is saved
+     * with every chunk, so a restarted partition goes on from its last committed chunk.
+     */
+    @StepScope
+    @Bean
+    public FileRangeItemReader<ShowBatchFormat> showsReader(
+            @Value("#{jobParameters['filepath']}") String filepath,
+            @Value("#{stepExecutionContext['" + FileRangePartitioner.START + "']}") long start,
+            @Value("#{stepExecutionContext['" + FileRangePartitioner.END + "']}") long end) {
+        return new FileRangeItemReader<>("showsReader", Path.of(filepath), start, end,
+                FileRangeItemReader.delimited(ShowBatchFormat.class, "Name", "Country", "Seasons", "State"));
     }
 
     @Data
@@ -128,13 +116,4 @@ public class ShowsBatchConfig {
         private Integer seasons;
         private String state;
     }
-
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
-    @Builder
-    public static class SeasonBatchFormat {
-        private String show;
-        private Integer season;
-    }
 }
@@ -5,23 +5,33 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
-
-import java.time.Duration;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     @Value("${spring.data.redis.host}")
@@ -35,21 +45,83 @@ public class CacheConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, ObjectMapper mapper) {
+    public RedisTemplate<String, CacheInvalidation> cacheInvalidationTemplate(
+            RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, CacheInvalidation> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new JdkSerializationRedisSerializer());
+        return template;
+    }
+
+    @Bean
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, ObjectMapper mapper,
+                                            CacheProperties cacheProperties,
+                                            RedisTemplate<String, CacheInvalidation> cacheInvalidationTemplate,
+                                            MeterRegistry meterRegistry,
+                                            ThreadPoolTaskExecutor cacheRefreshExecutor) {
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(cacheInvalidationTemplate,
+                cacheProperties.getInvalidationChannel());
+        LoadLock loadLock = new RedisLoadLock(new StringRedisTemplate(redisConnectionFactory), publisher.getNodeId(),
+                cacheProperties.getLoadLockTtl());
+        return new TwoTierCacheManager(redisCacheManager(redisConnectionFactory, mapper, cacheProperties),
+                cacheProperties, publisher, meterRegistry, loadLock, cacheRefreshExecutor);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(CacheProperties cacheProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(cacheProperties.getRefreshThreads());
+        executor.setMaxPoolSize(cacheProperties.getRefreshThreads());
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("cache-refresh-");
+        return executor;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory redisConnectionFactory, TwoTierCacheManager cacheManager,
+            CacheProperties cacheProperties) {
+        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheManager.onInvalidation(
+                        (CacheInvalidation) serializer.deserialize(message.getBody())),
+                new ChannelTopic(cacheProperties.getInvalidationChannel()));
+        return container;
+    }
+
+    /**
+     * The JSON serializer the cache used before {@link CompactCacheSerializer}. Still used for cached values the
+     * compact serializer does not know about.
+     */
+    public static GenericJackson2JsonRedisSerializer jsonSerializer(ObjectMapper mapper) {
         ObjectMapper newMapper = mapper.copy();
         newMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
         newMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.EVERYTHING,
                 JsonTypeInfo.As.WRAPPER_ARRAY);
+        return new GenericJackson2JsonRedisSerializer(newMapper);
+    }
+
+    private CacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory, ObjectMapper mapper,
+                                           CacheProperties cacheProperties) {
         RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))
+                .entryTtl(cacheProperties.getRedisTtl())
                 .disableCachingNullValues()
                 .serializeValuesWith(
                         SerializationPair.fromSerializer(
-                                new GenericJackson2JsonRedisSerializer(newMapper)
+                                new CompactCacheSerializer(jsonSerializer(mapper),
+                                        cacheProperties.getCompressionThreshold())
                         )
                 );
-        return RedisCacheManager.builder(redisConnectionFactory)
+        // Clearing a cache (every page cache is cleared on writes) deletes its keys with SCAN instead of KEYS
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory,
+                BatchStrategies.scan(1000));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
                 .cacheDefaults(redisCacheConfiguration)
                 .build();
+        redisCacheManager.initializeCaches();
+        return redisCacheManager;
     }
 }
@@ -0,0 +1,9 @@
+package com.andreas.showsdb.cache;
+
+import java.io.Serializable;
+
+/**
+ * Message published to the other nodes when an entry (or, if the key is null, a whole cache) is evicted.
+ */
+public record CacheInvalidation(String origin, String cacheName, Object key) implements Serializable {
+}
@@ -0,0 +1,31 @@
+package com.andreas.showsdb.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.UUID;
+
+@Slf4j
+public class CacheInvalidationPublisher {
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, CacheInvalidation> redisTemplate;
+    private final String channel;
+
+    public CacheInvalidationPublisher(RedisTemplate<String, CacheInvalidation> redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publish(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(channel, new CacheInvalidation(nodeId, cacheName, key));
+        } catch (Exception e) {
+            // Local entries on other nodes will still expire with their TTL
+            log.error("Could not publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+}
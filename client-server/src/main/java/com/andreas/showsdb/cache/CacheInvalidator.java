@@ -0,0 +1,117 @@
+package com.andreas.showsdb.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+import static com.andreas.showsdb.cache.CacheKeys.*;
+
+/**
+ * Evicts only the cache entries affected by a write, following the dependencies between them:
+ * a show's entry depends on its seasons and episodes (it holds their counts), a season's entry on its episodes,
+ * and the main cast entries on both the actor and the show. Pages of lists cannot be told apart by key, so a write
+ * clears every page of the lists it changes.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidator {
+    private final CacheManager cacheManager;
+    private final CacheKeys keys;
+
+    public void showAdded() {
+        clear(SHOW_PAGES);
+    }
+
+    public void showChanged(long showId) {
+        clear(SHOW_PAGES);
+        evict(SHOWS, keys.show(showId));
+    }
+
+    /**
+     * @param episodesBySeason episode numbers of every season the show had, by season number
+     * @param actorIds         actors that were main cast of the show
+     */
+    public void showDeleted(long showId, Map<Integer, ? extends Collection<Integer>> episodesBySeason,
+                            Collection<Long> actorIds) {
+        showChanged(showId);
+        seasonsDeleted(showId, episodesBySeason);
+        actorIds.forEach(actorId -> mainCastChanged(actorId, showId));
+    }
+
+    public void seasonAdded(long showId, int seasonNumber) {
+        showChanged(showId);
+        evict(SEASONS, keys.show(showId));
+        evict(SEASONS, keys.season(showId, seasonNumber));
+    }
+
+    /**
+     * @param episodesBySeason episode numbers of every deleted season, by season number
+     */
+    public void seasonsDeleted(long showId, Map<Integer, ? extends Collection<Integer>> episodesBySeason) {
+        episodesBySeason.forEach((seasonNumber, episodeNumbers) -> {
+            seasonAdded(showId, seasonNumber);
+            episodesAddedOrDeleted(showId, seasonNumber, episodeNumbers);
+        });
+    }
+
+    public void episodeChanged(long showId, int seasonNumber, int episodeNumber) {
+        clear(EPISODE_PAGES);
+        evict(EPISODES, keys.season(showId, seasonNumber));
+        evict(EPISODES, keys.episode(showId, seasonNumber, episodeNumber));
+    }
+
+    /**
+     * Same as {@link #episodeChanged}, plus the season and show entries whose episode counts are now outdated.
+     */
+    public void episodesAddedOrDeleted(long showId, int seasonNumber, Collection<Integer> episodeNumbers) {
+        showChanged(showId);
+        evict(SEASONS, keys.show(showId));
+        evict(SEASONS, keys.season(showId, seasonNumber));
+        evict(EPISODES, keys.season(showId, seasonNumber));
+        clear(EPISODE_PAGES);
+        episodeNumbers.forEach(episodeNumber ->
+                evict(EPISODES, keys.episode(showId, seasonNumber, episodeNumber)));
+    }
+
+    public void actorAdded() {
+        clear(ACTOR_PAGES);
+    }
+
+    public void actorChanged(long actorId) {
+        clear(ACTOR_PAGES);
+        evict(ACTORS, keys.actor(actorId));
+    }
+
+    /**
+     * @param showIds shows in which the actor was main cast
+     */
+    public void actorDeleted(long actorId, Collection<Long> showIds) {
+        actorChanged(actorId);
+        showIds.forEach(showId -> mainCastChanged(actorId, showId));
+    }
+
+    public void mainCastChanged(long actorId, long showId) {
+        clear(MAIN_CAST_PAGES);
+        evict(MAIN_CAST, keys.mainCast(actorId, showId));
+        evict(MAIN_CAST_BY_ACTOR, keys.actor(actorId));
+        evict(MAIN_CAST_BY_SHOW, keys.show(showId));
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.andreas.showsdb.cache;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Key scheme shared by the {@code @Cacheable} methods (referenced as {@code @cacheKeys} in their key expressions)
+ * and by {@link CacheInvalidator}, so both always agree on which entry holds what.
+ */
+@Component("cacheKeys")
+public class CacheKeys {
+    public static final String SHOWS = "shows-cache";
+    public static final String SEASONS = "seasons-cache";
+    public static final String EPISODES = "episodes-cache";
+    public static final String ACTORS = "actors-cache";
+    public static final String MAIN_CAST = "main-cast-cache";
+    public static final String MAIN_CAST_BY_ACTOR = "main-cast-cache-actor";
+    public static final String MAIN_CAST_BY_SHOW = "main-cast-cache-show";
+    public static final String SHOW_PAGES = "shows-page-cache";
+    public static final String EPISODE_PAGES = "episodes-page-cache";
+    public static final String ACTOR_PAGES = "actors-page-cache";
+    public static final String MAIN_CAST_PAGES = "main-cast-page-cache";
+
+    /**
+     * Entry holding a page of a list, identified by everything that selects it: limit, cursor, sort and filters.
+     * Pages are kept in their own caches, which are cleared whenever the list changes.
+     */
+    public String page(Object... parameters) {
+        StringBuilder key = new StringBuilder("page");
+        for (Object parameter : parameters) {
+            key.append(':').append(parameter == null ? "" : parameter);
+        }
+        return key.toString();
+    }
+
+    public String show(long showId) {
+        return "show:" + showId;
+    }
+
+    public String season(long showId, int seasonNumber) {
+        return "season:" + showId + ":" + seasonNumber;
+    }
+
+    public String episode(long showId, int seasonNumber, int episodeNumber) {
+        return "episode:" + showId + ":" + seasonNumber + ":" + episodeNumber;
+    }
+
+    public String actor(long actorId) {
+        return "actor:" + actorId;
+    }
+
+    public String mainCast(long actorId, long showId) {
+        return "main-cast:" + actorId + ":" + showId;
+    }
+}
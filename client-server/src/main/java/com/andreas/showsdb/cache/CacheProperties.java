@@ -0,0 +1,60 @@
+package com.andreas.showsdb.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("showsdb.cache")
+public class CacheProperties {
+    /**
+     * Time to live of the entries stored in Redis.
+     */
+    private Duration redisTtl = Duration.ofMinutes(10);
+    /**
+     * Cached values bigger than this many bytes are compressed before being sent to Redis. -1 disables compression.
+     */
+    private int compressionThreshold = 1024;
+    /**
+     * How long a node may hold the lock to load a missing entry. The other nodes wait at most this long for its value
+     * before loading the entry themselves.
+     */
+    private Duration loadLockTtl = Duration.ofSeconds(5);
+    /**
+     * How often a node waiting for another node's load checks Redis for the value.
+     */
+    private Duration loadLockPollInterval = Duration.ofMillis(50);
+    /**
+     * How eagerly entries are reloaded before they expire in Redis. Higher values refresh earlier; 0 disables it.
+     */
+    private double earlyRefreshBeta = 1.0;
+    /**
+     * Threads reloading entries in the background.
+     */
+    private int refreshThreads = 2;
+    /**
+     * Redis channel used to tell the other nodes which local entries they have to drop.
+     */
+    private String invalidationChannel = "showsdb:cache-invalidation";
+    /**
+     * Limits used for any local cache that is not listed in {@link #local}.
+     */
+    private LocalCacheSpec localDefaults = new LocalCacheSpec();
+    /**
+     * Limits of the local (per node) tier, by cache name.
+     */
+    private Map<String, LocalCacheSpec> local = new HashMap<>();
+
+    public LocalCacheSpec getLocalSpec(String cacheName) {
+        return local.getOrDefault(cacheName, localDefaults);
+    }
+
+    @Data
+    public static class LocalCacheSpec {
+        private long maximumSize = 1_000;
+        private Duration ttl = Duration.ofMinutes(1);
+    }
+}
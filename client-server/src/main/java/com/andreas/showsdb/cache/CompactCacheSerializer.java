@@ -0,0 +1,278 @@
+package com.andreas.showsdb.cache;
+
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.*;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary serializer for the cached DTOs and lists of them. Each field is written in a fixed order without names or
+ * type information, so a cached show takes a few dozen bytes instead of a few hundred.
+ * <p>
+ * Layout: {@code [version][flags][payload]}. If the payload is bigger than the compression threshold it is compressed
+ * with LZ4 and prefixed with its uncompressed length. Any value that is not one of the known DTOs is written with the
+ * fallback serializer, so the cache keeps working for new cached types until they are added here.
+ * <p>
+ * The version must be increased whenever the layout of any DTO changes; entries written with another version are
+ * treated as cache misses.
+ */
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+    static final byte VERSION = 1;
+
+    private static final byte FLAG_COMPRESSED = 1;
+
+    private static final byte NULL = 0;
+    private static final byte SHOW = 1;
+    private static final byte SEASON = 2;
+    private static final byte EPISODE = 3;
+    private static final byte ACTOR = 4;
+    private static final byte MAIN_CAST = 5;
+    private static final byte LIST = 6;
+    private static final byte PAGE = 7;
+    private static final byte FALLBACK = 127;
+
+    private static final Show.State[] STATES = Show.State.values();
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /**
+     * @param fallback             serializer for values that are not cached DTOs
+     * @param compressionThreshold payloads bigger than this many bytes are compressed. A negative value disables
+     *                             compression
+     */
+    public CompactCacheSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeValue(out, value);
+            out.flush();
+            byte[] payload = bytes.toByteArray();
+
+            if (compressionThreshold < 0 || payload.length <= compressionThreshold) {
+                byte[] result = new byte[payload.length + 2];
+                result[0] = VERSION;
+                System.arraycopy(payload, 0, result, 2, payload.length);
+                return result;
+            }
+            int maxLength = compressor.maxCompressedLength(payload.length);
+            byte[] result = new byte[maxLength + 6];
+            result[0] = VERSION;
+            result[1] = FLAG_COMPRESSED;
+            ByteBuffer.wrap(result, 2, 4).putInt(payload.length);
+            int compressedLength = compressor.compress(payload, 0, payload.length, result, 6, maxLength);
+            return Arrays.copyOf(result, compressedLength + 6);
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize cache value", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < 2 || bytes[0] != VERSION) {
+            return null;
+        }
+        byte[] payload;
+        int offset;
+        int length;
+        if ((bytes[1] & FLAG_COMPRESSED) != 0) {
+            int originalLength = ByteBuffer.wrap(bytes, 2, 4).getInt();
+            payload = decompressor.decompress(bytes, 6, originalLength);
+            offset = 0;
+            length = originalLength;
+        } else {
+            payload = bytes;
+            offset = 2;
+            length = bytes.length - 2;
+        }
+        try {
+            return readValue(new DataInputStream(new ByteArrayInputStream(payload, offset, length)));
+        } catch (IOException e) {
+            throw new SerializationException("Could not deserialize cache value", e);
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(NULL);
+            case ShowOutputDto show -> {
+                out.writeByte(SHOW);
+                writeLong(out, show.getId());
+                writeString(out, show.getName());
+                writeString(out, show.getCountry());
+                writeInt(out, show.getNumberOfSeasons());
+                writeInt(out, show.getNumberOfEpisodes());
+                out.writeByte(show.getState() == null ? 0 : show.getState().ordinal() + 1);
+            }
+            case SeasonOutputDto season -> {
+                out.writeByte(SEASON);
+                writeLong(out, season.getShowId());
+                writeInt(out, season.getSeasonNumber());
+                writeInt(out, season.getNumberOfEpisodes());
+            }
+            case EpisodeOutputDto episode -> {
+                out.writeByte(EPISODE);
+                writeLong(out, episode.getShowId());
+                writeInt(out, episode.getSeasonNumber());
+                writeInt(out, episode.getEpisodeNumber());
+                writeString(out, episode.getName());
+                writeDate(out, episode.getReleaseDate());
+            }
+            case ActorOutputDto actor -> {
+                out.writeByte(ACTOR);
+                writeLong(out, actor.getId());
+                writeString(out, actor.getName());
+                writeString(out, actor.getCountry());
+                writeDate(out, actor.getBirthDate());
+            }
+            case MainCastDto mainCast -> {
+                out.writeByte(MAIN_CAST);
+                writeLong(out, mainCast.getActorId());
+                writeLong(out, mainCast.getShowId());
+                writeString(out, mainCast.getCharacter());
+            }
+            case List<?> list -> {
+                out.writeByte(LIST);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    writeValue(out, element);
+                }
+            }
+            case PageDto<?> page -> {
+                out.writeByte(PAGE);
+                writeValue(out, page.getContent());
+                out.writeInt(page.getCursors().size());
+                for (String cursor : page.getCursors()) {
+                    out.writeUTF(cursor);
+                }
+                out.writeBoolean(page.isHasNext());
+            }
+            default -> {
+                out.writeByte(FALLBACK);
+                byte[] bytes = fallback.serialize(value);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case NULL -> null;
+            case SHOW -> ShowOutputDto.builder()
+                    .id(readLong(in))
+                    .name(readString(in))
+                    .country(readString(in))
+                    .numberOfSeasons(readInt(in))
+                    .numberOfEpisodes(readInt(in))
+                    .state(readState(in))
+                    .build();
+            case SEASON -> SeasonOutputDto.builder()
+                    .showId(readLong(in))
+                    .seasonNumber(readInt(in))
+                    .numberOfEpisodes(readInt(in))
+                    .build();
+            case EPISODE -> EpisodeOutputDto.builder()
+                    .showId(readLong(in))
+                    .seasonNumber(readInt(in))
+                    .episodeNumber(readInt(in))
+                    .name(readString(in))
+                    .releaseDate(readDate(in))
+                    .build();
+            case ACTOR -> ActorOutputDto.builder()
+                    .id(readLong(in))
+                    .name(readString(in))
+                    .country(readString(in))
+                    .birthDate(readDate(in))
+                    .build();
+            case MAIN_CAST -> MainCastDto.builder()
+                    .actorId(readLong(in))
+                    .showId(readLong(in))
+                    .character(readString(in))
+                    .build();
+            case LIST -> {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                yield list;
+            }
+            case PAGE -> {
+                List<?> content = (List<?>) readValue(in);
+                int size = in.readInt();
+                List<String> cursors = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    cursors.add(in.readUTF());
+                }
+                yield new PageDto<>(content, cursors, in.readBoolean());
+            }
+            case FALLBACK -> {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                yield fallback.deserialize(bytes);
+            }
+            default -> throw new SerializationException("Unknown cache value type " + type);
+        };
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeLong(value);
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeInt(value);
+    }
+
+    private static Integer readInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeInt((int) value.toEpochDay());
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null;
+    }
+
+    private static Show.State readState(DataInputStream in) throws IOException {
+        int state = in.readByte();
+        return state == 0 ? null : STATES[state - 1];
+    }
+}
@@ -0,0 +1,25 @@
+package com.andreas.showsdb.cache;
+
+/**
+ * Lock taken by the node that loads a missing cache entry, so the other nodes wait for its value instead of all
+ * running the same query.
+ */
+public interface LoadLock {
+    /**
+     * Lock for a single node: there is nobody else to coordinate with.
+     */
+    LoadLock NONE = new LoadLock() {
+        @Override
+        public boolean tryLock(String cacheName, Object key) {
+            return true;
+        }
+
+        @Override
+        public void unlock(String cacheName, Object key) {
+        }
+    };
+
+    boolean tryLock(String cacheName, Object key);
+
+    void unlock(String cacheName, Object key);
+}
@@ -0,0 +1,56 @@
+package com.andreas.showsdb.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link LoadLock} stored as a Redis key with a short expiry, so a node that dies while loading cannot block the
+ * entry for longer than the lock TTL.
+ */
+@Slf4j
+public class RedisLoadLock implements LoadLock {
+    private static final String PREFIX = "showsdb:cache-lock:";
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String owner;
+    private final Duration ttl;
+
+    public RedisLoadLock(StringRedisTemplate redisTemplate, String owner, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.owner = owner;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public boolean tryLock(String cacheName, Object key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), owner, ttl));
+        } catch (Exception e) {
+            // Without Redis there is no shared entry to wait for, so let this node load it
+            log.error("Could not take the load lock for {}: {}", cacheName, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void unlock(String cacheName, Object key) {
+        try {
+            // Only delete the lock if it is still ours; it may have expired and been taken by another node
+            redisTemplate.execute(UNLOCK, List.of(lockKey(cacheName, key)), owner);
+        } catch (Exception e) {
+            log.error("Could not release the load lock for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    private static String lockKey(String cacheName, Object key) {
+        return PREFIX + cacheName + "::" + key;
+    }
+}
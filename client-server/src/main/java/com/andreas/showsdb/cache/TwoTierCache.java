@@ -0,0 +1,295 @@
+package com.andreas.showsdb.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.*;
+
+/**
+ * Cache that looks up a bounded in-process cache first and only goes to Redis on a local miss.
+ * Writes go to both tiers; evictions clear both tiers and are broadcast so every other node drops its local copy.
+ * <p>
+ * Entries read with a value loader ({@code @Cacheable(sync = true)}) are also protected against stampedes: only one
+ * thread per node loads a missing key, the rest wait for its result, and across nodes the loader holds a
+ * {@link LoadLock} while the others wait for the value to show up in Redis. Keys loaded by this node are reloaded in
+ * the background shortly before they expire in Redis, with a probability that grows as the expiry gets closer and
+ * with the time the load took (see {@link LoadStamp#isRefreshDue}).
+ */
+@Slf4j
+public class TwoTierCache extends AbstractValueAdaptingCache {
+    private final Cache local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher publisher;
+    private final TwoTierCacheMetrics metrics;
+    private final LoadLock loadLock;
+    private final CacheProperties properties;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<Object, Load> loads = new ConcurrentHashMap<>();
+    private final com.github.benmanes.caffeine.cache.Cache<Object, LoadStamp> stamps;
+
+    public TwoTierCache(Cache local, Cache remote, CacheInvalidationPublisher publisher,
+                        TwoTierCacheMetrics metrics, LoadLock loadLock, CacheProperties properties,
+                        Executor refreshExecutor) {
+        super(false);
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+        this.metrics = metrics;
+        this.loadLock = loadLock;
+        this.properties = properties;
+        this.refreshExecutor = refreshExecutor;
+        this.stamps = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalSpec(remote.getName()).getMaximumSize())
+                .expireAfterWrite(properties.getRedisTtl())
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        ValueWrapper localValue = local.get(key);
+        if (localValue != null) {
+            metrics.localHits().increment();
+            return localValue.get();
+        }
+        ValueWrapper remoteValue = remote.get(key);
+        if (remoteValue == null) {
+            metrics.misses().increment();
+            return null;
+        }
+        metrics.remoteHits().increment();
+        local.put(key, remoteValue.get());
+        return remoteValue.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper localValue = local.get(key);
+        if (localValue != null) {
+            metrics.localHits().increment();
+            refreshIfDue(key, valueLoader);
+            return (T) localValue.get();
+        }
+        ValueWrapper remoteValue = remote.get(key);
+        if (remoteValue != null) {
+            metrics.remoteHits().increment();
+            local.put(key, remoteValue.get());
+            refreshIfDue(key, valueLoader);
+            return (T) remoteValue.get();
+        }
+        metrics.misses().increment();
+
+        Load load = new Load();
+        Load current = loads.putIfAbsent(key, load);
+        if (current != null) {
+            return (T) current.await(key, valueLoader);
+        }
+        run(key, valueLoader, load, false);
+        return (T) load.await(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        invalidateLoad(key);
+        remote.evict(key);
+        local.evict(key);
+        stamps.invalidate(key);
+        metrics.evictions().increment();
+        publisher.publish(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        invalidateLoad(key);
+        boolean evicted = remote.evictIfPresent(key);
+        evicted |= local.evictIfPresent(key);
+        stamps.invalidate(key);
+        metrics.evictions().increment();
+        publisher.publish(getName(), key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        invalidateLoads();
+        remote.clear();
+        local.clear();
+        stamps.invalidateAll();
+        metrics.evictions().increment();
+        publisher.publish(getName(), null);
+    }
+
+    /**
+     * Drops entries from the local tier only. Called when another node has evicted them.
+     */
+    public void evictLocal(Object key) {
+        if (key == null) {
+            invalidateLoads();
+            local.clear();
+            stamps.invalidateAll();
+        } else {
+            invalidateLoad(key);
+            local.evict(key);
+            stamps.invalidate(key);
+        }
+    }
+
+    private void refreshIfDue(Object key, Callable<?> valueLoader) {
+        LoadStamp stamp = stamps.getIfPresent(key);
+        if (stamp == null || !stamp.isRefreshDue(properties.getEarlyRefreshBeta())) {
+            return;
+        }
+        Load load = new Load();
+        if (loads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> run(key, valueLoader, load, true));
+            metrics.refreshes().increment();
+        } catch (RejectedExecutionException e) {
+            // Too many refreshes queued, the entry will be loaded again when it expires
+            loads.remove(key, load);
+        }
+    }
+
+    private void run(Object key, Callable<?> valueLoader, Load load, boolean refresh) {
+        try {
+            load.result.complete(loadWithLock(key, valueLoader, load, refresh));
+        } catch (Throwable e) {
+            if (refresh) {
+                log.error("Could not refresh {} in {}: {}", key, getName(), e.getMessage());
+            }
+            load.result.completeExceptionally(e);
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    private Object loadWithLock(Object key, Callable<?> valueLoader, Load load, boolean refresh)
+            throws Exception {
+        long deadline = System.nanoTime() + properties.getLoadLockTtl().toNanos();
+        while (!loadLock.tryLock(getName(), key)) {
+            // Another node is loading it: wait for its value, or keep serving the current one if it is a refresh
+            ValueWrapper remoteValue = remote.get(key);
+            if (remoteValue != null) {
+                local.put(key, remoteValue.get());
+                return remoteValue.get();
+            }
+            if (System.nanoTime() > deadline) {
+                return loadAndStore(key, valueLoader, load);
+            }
+            Thread.sleep(properties.getLoadLockPollInterval().toMillis());
+        }
+        try {
+            if (!refresh) {
+                // The previous holder of the lock may have stored it while this node was waiting
+                ValueWrapper remoteValue = remote.get(key);
+                if (remoteValue != null) {
+                    local.put(key, remoteValue.get());
+                    return remoteValue.get();
+                }
+            }
+            return loadAndStore(key, valueLoader, load);
+        } finally {
+            loadLock.unlock(getName(), key);
+        }
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader, Load load) throws Exception {
+        long start = System.nanoTime();
+        Object value = valueLoader.call();
+        long end = System.nanoTime();
+        if (value == null || load.stale) {
+            // Evicted while loading: the value may predate the write that evicted it, so it is returned but not cached
+            return value;
+        }
+        remote.put(key, value);
+        local.put(key, value);
+        stamps.put(key, new LoadStamp(end + properties.getRedisTtl().toNanos(), end - start));
+        load.stored = true;
+        if (load.stale) {
+            // Evicted between the check above and the puts
+            remote.evict(key);
+            local.evict(key);
+            stamps.invalidate(key);
+        }
+        return value;
+    }
+
+    private void invalidateLoad(Object key) {
+        Load load = loads.remove(key);
+        if (load != null && load.invalidate()) {
+            remote.evict(key);
+            local.evict(key);
+        }
+    }
+
+    private void invalidateLoads() {
+        loads.keySet().forEach(this::invalidateLoad);
+    }
+
+    /**
+     * A load in progress. Evicting its key marks it stale, so the loaded value is not stored over the eviction, and
+     * removes it from {@link #loads}, so later reads start a new load instead of waiting for this one.
+     */
+    private static class Load {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean stale;
+        private volatile boolean stored;
+
+        /**
+         * @return whether the value had already been stored, in which case the caller has to evict it again
+         */
+        boolean invalidate() {
+            stale = true;
+            return stored;
+        }
+
+        Object await(Object key, Callable<?> valueLoader) {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+    }
+
+    /**
+     * When an entry loaded by this node expires in Redis, and how long loading it took.
+     */
+    record LoadStamp(long expiresAt, long loadTime) {
+
+        /**
+         * Probabilistic early expiration: a refresh is due when {@code now - loadTime * beta * ln(random)} reaches the
+         * expiry. Slow loads and hot keys are refreshed earlier; a beta of 0 disables it.
+         */
+        boolean isRefreshDue(double beta) {
+            if (beta <= 0) {
+                return false;
+            }
+            double random = 1 - ThreadLocalRandom.current().nextDouble();
+            return System.nanoTime() - loadTime * beta * Math.log(random) >= expiresAt;
+        }
+    }
+}
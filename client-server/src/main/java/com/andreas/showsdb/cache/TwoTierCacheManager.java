@@ -0,0 +1,70 @@
+package com.andreas.showsdb.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Puts a Caffeine cache, sized and timed per cache name, in front of every cache of the remote cache manager.
+ */
+public class TwoTierCacheManager implements CacheManager {
+    private final CacheManager remoteCacheManager;
+    private final CacheProperties properties;
+    private final CacheInvalidationPublisher publisher;
+    private final MeterRegistry meterRegistry;
+    private final LoadLock loadLock;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, CacheProperties properties,
+                               CacheInvalidationPublisher publisher, MeterRegistry meterRegistry,
+                               LoadLock loadLock, Executor refreshExecutor) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.properties = properties;
+        this.publisher = publisher;
+        this.meterRegistry = meterRegistry;
+        this.loadLock = loadLock;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+
+    /**
+     * Applies an invalidation sent by another node. Invalidations sent by this node were already applied.
+     */
+    public void onInvalidation(CacheInvalidation invalidation) {
+        if (publisher.getNodeId().equals(invalidation.origin())) {
+            return;
+        }
+        TwoTierCache cache = caches.get(invalidation.cacheName());
+        if (cache != null) {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        CacheProperties.LocalCacheSpec spec = properties.getLocalSpec(name);
+        CaffeineCache local = new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getTtl())
+                .build(), false);
+        Cache remote = remoteCacheManager.getCache(name);
+        return new TwoTierCache(local, remote, publisher, TwoTierCacheMetrics.of(meterRegistry, name), loadLock,
+                properties, refreshExecutor);
+    }
+}
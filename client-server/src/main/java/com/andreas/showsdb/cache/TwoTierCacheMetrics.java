@@ -0,0 +1,32 @@
+package com.andreas.showsdb.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counters behind the {@code showsdb.cache.gets}, {@code showsdb.cache.evictions} and {@code showsdb.cache.refreshes}
+ * meters. The hit ratio of a cache is {@code (local-hit + remote-hit) / (local-hit + remote-hit + miss)}.
+ */
+public record TwoTierCacheMetrics(Counter localHits, Counter remoteHits, Counter misses, Counter evictions,
+                                  Counter refreshes) {
+
+    public static TwoTierCacheMetrics of(MeterRegistry registry, String cacheName) {
+        return new TwoTierCacheMetrics(
+                gets(registry, cacheName, "local-hit"),
+                gets(registry, cacheName, "remote-hit"),
+                gets(registry, cacheName, "miss"),
+                Counter.builder("showsdb.cache.evictions")
+                        .tag("cache", cacheName)
+                        .register(registry),
+                Counter.builder("showsdb.cache.refreshes")
+                        .tag("cache", cacheName)
+                        .register(registry));
+    }
+
+    private static Counter gets(MeterRegistry registry, String cacheName, String result) {
+        return Counter.builder("showsdb.cache.gets")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(registry);
+    }
+}
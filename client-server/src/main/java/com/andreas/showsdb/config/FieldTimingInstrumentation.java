@@ -0,0 +1,50 @@
+package com.andreas.showsdb.config;
+
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times the fetching of every field that is not a plain property of its parent in the {@code showsdb.graphql.fields}
+ * meter, tagged with the field as {@code Type.field} and whether it failed. The timers publish histograms, so the
+ * latency percentiles of each field can be aggregated across nodes.
+ * <p>
+ * Fields resolved with a batch mapping are timed until their batch is loaded, so they include the time spent
+ * waiting for the other fields of their level.
+ */
+@RequiredArgsConstructor
+public class FieldTimingInstrumentation extends SimplePerformantInstrumentation {
+    static final String METER = "showsdb.graphql.fields";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        String field = parameters.getExecutionStepInfo().getObjectType().getName() + "."
+                       + parameters.getField().getName();
+        Timer.Sample sample = Timer.start(registry);
+        return SimpleInstrumentationContext.whenCompleted((result, exception) ->
+                sample.stop(timer(field, exception == null ? "success" : "error")));
+    }
+
+    private Timer timer(String field, String outcome) {
+        return timers.computeIfAbsent(field + " " + outcome, k -> Timer.builder(METER)
+                .tag("field", field)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
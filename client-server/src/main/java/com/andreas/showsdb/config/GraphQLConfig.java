@@ -1,12 +1,25 @@
 package com.andreas.showsdb.config;
 
+import com.andreas.showsdb.messaging.EpisodeReleases;
 import graphql.scalars.ExtendedScalars;
 import graphql.schema.GraphQLScalarType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
 @Configuration
+@EnableConfigurationProperties(GraphQLProperties.class)
 public class GraphQLConfig {
     @Bean
     public RuntimeWiringConfigurer runtimeWiringConfigurer() {
@@ -17,4 +30,44 @@ public class GraphQLConfig {
     public GraphQLScalarType date() {
         return ExtendedScalars.Date;
     }
+
+    /**
+     * The input DTOs shared with the REST API have {@link Date}s, and the Date scalar is read as a {@link LocalDate}.
+     */
+    @Bean
+    public Converter<LocalDate, Date> localDateToDate() {
+        return new Converter<>() {
+            @Override
+            public Date convert(LocalDate date) {
+                return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+            }
+        };
+    }
+
+    @Bean
+    public PersistedQueries persistedQueries(GraphQLProperties properties) throws IOException {
+        return new PersistedQueries(properties, PersistedQueries.loadAllowlist(properties.getAllowlist()));
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQueriesCustomizer(PersistedQueries persistedQueries) {
+        return builder -> builder.configureGraphQl(graphQL -> graphQL.preparsedDocumentProvider(persistedQueries));
+    }
+
+    @Bean
+    public QueryLimitsInstrumentation queryLimitsInstrumentation(GraphQLProperties properties) {
+        return new QueryLimitsInstrumentation(properties);
+    }
+
+    @Bean
+    public FieldTimingInstrumentation fieldTimingInstrumentation(MeterRegistry registry) {
+        return new FieldTimingInstrumentation(registry);
+    }
+
+    @Bean
+    public MeterBinder subscribersGauge(EpisodeReleases episodeReleases) {
+        return registry -> Gauge.builder("showsdb.graphql.subscribers", episodeReleases, EpisodeReleases::subscribers)
+                .description("Subscriptions to the episodes released")
+                .register(registry);
+    }
 }
@@ -0,0 +1,83 @@
+package com.andreas.showsdb.config;
+
+import com.andreas.showsdb.repository.Keyset;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("showsdb.graphql")
+public class GraphQLProperties {
+    /**
+     * Limits of the queries of callers that have none of the roles listed in {@link #roles}.
+     */
+    private QueryLimits defaults = new QueryLimits(8, 10_000);
+    /**
+     * Limits of the queries by role, without the {@code ROLE_} prefix. Callers with several roles get the highest
+     * of each limit.
+     */
+    private Map<String, QueryLimits> roles = new HashMap<>(Map.of(
+            "USER", new QueryLimits(8, 20_000),
+            "ADMIN", new QueryLimits(12, 200_000)));
+    /**
+     * Number of elements a list field that is not paged is expected to return, which multiplies the cost of its
+     * fields. Paged fields are multiplied by their {@code first} argument instead.
+     */
+    private int listSize = 10;
+    /**
+     * Maximum number of parsed and validated query documents kept in memory.
+     */
+    private long documentCacheSize = 1_000;
+    /**
+     * Location of the query documents of the allowlist, which can have wildcards. Clients may send just their hash.
+     */
+    private String allowlist = "classpath*:graphql/persisted/*.graphql";
+    /**
+     * Whether only the documents of the {@link #allowlist} are executed.
+     */
+    private boolean allowlistOnly = false;
+    /**
+     * Number of episodes kept for each subscriber that reads them slower than they are released. Once they are more,
+     * the oldest are dropped.
+     */
+    private int subscriberBufferSize = 256;
+
+    /**
+     * Highest limits among those of the given roles, or {@link #defaults} if none of them is listed.
+     */
+    public QueryLimits getLimits(Collection<String> callerRoles) {
+        QueryLimits limits = null;
+        for (String role : callerRoles) {
+            QueryLimits roleLimits = roles.get(role);
+            if (roleLimits != null) {
+                limits = limits == null ? roleLimits : new QueryLimits(
+                        Math.max(limits.getMaxDepth(), roleLimits.getMaxDepth()),
+                        Math.max(limits.getMaxComplexity(), roleLimits.getMaxComplexity()));
+            }
+        }
+        return limits != null ? limits : defaults;
+    }
+
+    /**
+     * Limits checked before a query is executed. Introspection fields are not counted.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueryLimits {
+        /**
+         * Maximum nesting of fields, the top level fields being at depth 1.
+         */
+        private int maxDepth;
+        /**
+         * Maximum cost, where every field costs 1 times the elements expected from each list it is nested in. Paged
+         * fields with no {@code first} argument count as {@value Keyset#DEFAULT_LIMIT} elements.
+         */
+        private long maxComplexity;
+    }
+}
@@ -0,0 +1,163 @@
+package com.andreas.showsdb.config;
+
+import com.andreas.showsdb.util.Utils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryError;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Parses and validates every query document once, keeping the result in a bounded cache keyed by the SHA-256 hash of
+ * the document, in hex.
+ * <p>
+ * Clients can send the hash alone in the {@code persistedQuery} extension, as in Apollo's automatic persisted queries.
+ * Spring GraphQL requires a query, so they send {@value #PERSISTED_QUERY_MARKER} as the query along with the hash.
+ * If the document is not cached, nor in the allowlist, the answer is a {@code PersistedQueryNotFound} error, and the
+ * client sends the hash again along with the document. Queries sent without a hash are hashed by the server.
+ * <p>
+ * In allowlist only mode, only the documents of the allowlist are executed, whether they are sent or just their hash.
+ */
+@Slf4j
+public class PersistedQueries extends ApolloPersistedQuerySupport {
+    private final DocumentCache documentCache;
+
+    public PersistedQueries(GraphQLProperties properties, Map<String, String> allowlist) {
+        this(new DocumentCache(properties.getDocumentCacheSize(), allowlist, properties.isAllowlistOnly()));
+    }
+
+    private PersistedQueries(DocumentCache documentCache) {
+        super(documentCache);
+        this.documentCache = documentCache;
+    }
+
+    /**
+     * Reads the documents of the allowlist.
+     *
+     * @param locationPattern location of the documents, which can have wildcards
+     * @return the documents by the hash of their text
+     */
+    public static Map<String, String> loadAllowlist(String locationPattern) throws IOException {
+        Map<String, String> allowlist = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locationPattern)) {
+            String document = resource.getContentAsString(StandardCharsets.UTF_8);
+            allowlist.put(Utils.sha256(document), document);
+        }
+        log.info("Loaded {} allowed GraphQL documents", allowlist.size());
+        return allowlist;
+    }
+
+    @Override
+    protected Optional<Object> getPersistedQueryId(ExecutionInput executionInput) {
+        return super.getPersistedQueryId(executionInput).or(() -> {
+            String query = executionInput.getQuery();
+            return StringUtils.hasText(query) && !query.equals(PERSISTED_QUERY_MARKER)
+                    ? Optional.of(Utils.sha256(query))
+                    : Optional.empty();
+        });
+    }
+
+    /**
+     * Same as the deprecated {@code getDocument} of {@code PersistedQuerySupport}, which this method would otherwise
+     * call, but getting the document with {@link PersistedQueryCache#getPersistedQueryDocumentAsync}.
+     */
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        Optional<Object> queryId = getPersistedQueryId(executionInput);
+        try {
+            if (queryId.isEmpty()) {
+                return CompletableFuture.completedFuture(parseAndValidateFunction.apply(executionInput));
+            }
+            Object id = queryId.get();
+            return documentCache.getPersistedQueryDocumentAsync(id, executionInput, query -> {
+                if (!StringUtils.hasText(query)) {
+                    throw new PersistedQueryNotFound(id);
+                }
+                if (persistedQueryIdIsInvalid(id, query)) {
+                    throw new PersistedQueryIdInvalid(id);
+                }
+                return parseAndValidateFunction.apply(executionInput.transform(builder -> builder.query(query)));
+            });
+        } catch (PersistedQueryError e) {
+            return CompletableFuture.completedFuture(mkMissingError(e));
+        }
+    }
+
+    private static class DocumentCache implements PersistedQueryCache {
+        private final Cache<Object, PreparsedDocumentEntry> documents;
+        private final Map<String, String> allowlist;
+        private final boolean allowlistOnly;
+
+        DocumentCache(long maximumSize, Map<String, String> allowlist, boolean allowlistOnly) {
+            this.documents = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .build();
+            this.allowlist = allowlist;
+            this.allowlistOnly = allowlistOnly;
+        }
+
+        /**
+         * Only kept as it is abstract: {@link PersistedQueries} gets the documents asynchronously.
+         */
+        @Override
+        @Deprecated
+        public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId, ExecutionInput executionInput,
+                                                                PersistedQueryCacheMiss onCacheMiss)
+                throws PersistedQueryNotFound {
+            return getPersistedQueryDocumentAsync(persistedQueryId, executionInput, onCacheMiss).join();
+        }
+
+        /**
+         * The documents are parsed on the calling thread, as they are needed right away, so the future is always
+         * complete.
+         */
+        @Override
+        public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(
+                Object persistedQueryId, ExecutionInput executionInput, PersistedQueryCacheMiss onCacheMiss)
+                throws PersistedQueryNotFound {
+            String allowed = allowlist.get(persistedQueryId.toString());
+            if (allowlistOnly && allowed == null) {
+                throw new QueryNotAllowed();
+            }
+            PreparsedDocumentEntry entry = documents.getIfPresent(persistedQueryId);
+            if (entry == null) {
+                String query = executionInput.getQuery();
+                // Checks that the document matches the hash, then parses and validates it. Without a document the
+                // client is told to send it.
+                entry = onCacheMiss.apply(allowed != null ? allowed
+                        : query.equals(PERSISTED_QUERY_MARKER) ? null
+                        : query);
+                // Documents with errors are not cached, so they can not push out the valid ones
+                if (!entry.hasErrors()) {
+                    documents.put(persistedQueryId, entry);
+                }
+            }
+            return CompletableFuture.completedFuture(entry);
+        }
+    }
+
+    static class QueryNotAllowed extends PersistedQueryError {
+        @Override
+        public String getMessage() {
+            return "Query is not in the allowlist";
+        }
+    }
+}
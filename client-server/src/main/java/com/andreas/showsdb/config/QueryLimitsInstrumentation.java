@@ -0,0 +1,135 @@
+package com.andreas.showsdb.config;
+
+import com.andreas.showsdb.config.GraphQLProperties.QueryLimits;
+import com.andreas.showsdb.repository.Keyset;
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLTypeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Rejects queries nested deeper or expected to cost more than the limits of the roles of the caller, before any of
+ * their fields is fetched.
+ * <p>
+ * The cost of a field is 1 plus the cost of its fields, times the elements expected from it if it is a list: its
+ * {@code first} argument if it is paged, or {@link GraphQLProperties#getListSize()} otherwise. The lists of the
+ * connection types are the page of their parent, so they are not multiplied again.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryLimitsInstrumentation extends SimplePerformantInstrumentation {
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final String CONNECTION_SUFFIX = "Connection";
+
+    private final GraphQLProperties properties;
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        QueryLimits limits = properties.getLimits(callerRoles());
+        Cost cost = cost(QueryTraverser.newQueryTraverser()
+                .schema(context.getGraphQLSchema())
+                .document(context.getDocument())
+                .operationName(context.getExecutionInput().getOperationName())
+                .coercedVariables(context.getCoercedVariables())
+                .build());
+        if (cost.depth() > limits.getMaxDepth()) {
+            log.info("Rejected query nested {} levels deep", cost.depth());
+            throw new AbortExecutionException("Query is nested %d levels deep, the limit is %d"
+                    .formatted(cost.depth(), limits.getMaxDepth()));
+        }
+        if (cost.complexity() > limits.getMaxComplexity()) {
+            log.info("Rejected query of complexity {}", cost.complexity());
+            throw new AbortExecutionException("Query has complexity %d, the limit is %d"
+                    .formatted(cost.complexity(), limits.getMaxComplexity()));
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    private Cost cost(QueryTraverser traverser) {
+        // Cost of the fields of each field, the top level ones being under the null key
+        Map<QueryVisitorFieldEnvironment, Cost> children = new HashMap<>();
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment environment) {
+                if (environment.isTypeNameIntrospectionField() || environment.getField().getName().startsWith("__")) {
+                    return;
+                }
+                Cost fields = children.getOrDefault(environment, Cost.NONE);
+                long complexity = saturated(() -> Math.multiplyExact(Math.addExact(1, fields.complexity()),
+                        elements(environment)));
+                children.merge(environment.getParentEnvironment(), new Cost(fields.depth() + 1, complexity),
+                        Cost::add);
+            }
+        });
+        return children.getOrDefault(null, Cost.NONE);
+    }
+
+    private long elements(QueryVisitorFieldEnvironment environment) {
+        Object first = environment.getArguments().get("first");
+        if (environment.getFieldDefinition().getArgument("first") != null) {
+            // Pages out of range are rejected when fetched, but must not lower the cost of the rest of the query
+            return first instanceof Number number ? Math.clamp(number.longValue(), 0, Keyset.MAX_LIMIT)
+                    : Keyset.DEFAULT_LIMIT;
+        }
+        boolean list = GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType()) instanceof GraphQLList;
+        boolean page = environment.getFieldsContainer().getName().endsWith(CONNECTION_SUFFIX);
+        return list && !page ? properties.getListSize() : 1;
+    }
+
+    /**
+     * @return the result of the operation, or {@link Long#MAX_VALUE} if it overflows
+     */
+    private static long saturated(LongSupplier operation) {
+        try {
+            return operation.getAsLong();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static List<String> callerRoles() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return List.of();
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .map(authority -> authority.substring(ROLE_PREFIX.length()))
+                .toList();
+    }
+
+    /**
+     * @param depth      deepest nesting of the fields
+     * @param complexity sum of the cost of the fields
+     */
+    record Cost(int depth, long complexity) {
+        static final Cost NONE = new Cost(0, 0);
+
+        Cost add(Cost other) {
+            return new Cost(Math.max(depth, other.depth),
+                    saturated(() -> Math.addExact(complexity, other.complexity)));
+        }
+    }
+}
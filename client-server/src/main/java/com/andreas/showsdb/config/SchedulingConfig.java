@@ -0,0 +1,12 @@
+package com.andreas.showsdb.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the scheduled tasks, such as the {@link com.andreas.showsdb.messaging.OutboxRelay}, which registers itself.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,26 @@
+package com.andreas.showsdb.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Boot only creates its {@code applicationTaskExecutor} when there is no other {@code Executor} bean, and the cache
+ * and the imports have their own. Without it, asynchronous MVC requests, such as the exports streamed, would run on
+ * a new thread each, so it is declared here, configured by the {@code spring.task.execution} properties.
+ * <p>
+ * Each export holds a database connection for as long as it is streamed, so the pool must stay well below
+ * {@code spring.datasource.hikari.maximum-pool-size}, or concurrent exports would leave no connection to the other
+ * requests.
+ */
+@Configuration
+public class TaskExecutionConfig {
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -1,9 +1,11 @@
 package com.andreas.showsdb.controller;
 
 import com.andreas.showsdb.exception.NotFoundException;
+import com.andreas.showsdb.exception.ShowsDatabaseException;
 import com.andreas.showsdb.model.dto.ActorInputDto;
 import com.andreas.showsdb.model.dto.ActorOutputDto;
 import com.andreas.showsdb.model.dto.MainCastDto;
+import com.andreas.showsdb.model.dto.PageDto;
 import com.andreas.showsdb.model.dto.hateoas.ActorHypermedia;
 import com.andreas.showsdb.model.dto.hateoas.MainCastHypermedia;
 import com.andreas.showsdb.service.ActorsService;
@@ -16,15 +18,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @RestController
 @RequestMapping("/api/actors")
 @RequiredArgsConstructor
@@ -33,24 +33,38 @@ public class ActorsController {
     private final ActorsService actorsService;
     private final MainCastService mainCastService;
 
-    @SneakyThrows // This method cannot and will not throw an exception, but the compiler doesn't know that.
+    private static final LinkTemplate SELF = LinkTemplate.of(ActorsController.class, "get", IanaLinkRelations.SELF);
+    private static final LinkTemplate SHOWS = LinkTemplate.of(ActorsController.class, "getShows",
+            LinkRelation.of("shows"));
+
     private static ActorHypermedia addLinks(ActorOutputDto actor) {
         ActorHypermedia ah = new ActorHypermedia(actor);
         Long actorId = actor.getId();
-        ah.add(linkTo(methodOn(ActorsController.class).get(actorId)).withSelfRel());
-        ah.add(linkTo(methodOn(ActorsController.class).getShows(actorId)).withRel("shows"));
+        ah.add(SELF.expand(actorId));
+        ah.add(SHOWS.expand(actorId));
         return ah;
     }
 
-    @Operation(summary = "List all actors")
-    @ApiResponses(value = {@ApiResponse(responseCode = "200",
-            content = @Content(mediaType = "application/json",
-                    array = @ArraySchema(schema = @Schema(implementation = ActorHypermedia.class))))})
+    @Operation(summary = "List actors one page at a time", description = """
+            Pages are requested by passing the nextCursor of the previous page as the after parameter.
+            Sorts: id (default), name. Add ",desc" to sort in descending order.""")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit, cursor or sort")})
     @GetMapping
-    public List<ActorHypermedia> getAll() {
-        return actorsService.findAll().stream()
-                .map(ActorsController::addLinks)
-                .toList();
+    public PageDto<ActorHypermedia> getAll(@Parameter(description = "Maximum number of actors in the page")
+                                           @RequestParam(value = "limit", required = false) Integer limit,
+                                           @Parameter(description = "Cursor of the last actor of the previous page")
+                                           @RequestParam(value = "after", required = false) String after,
+                                           @Parameter(description = "Sort of the list")
+                                           @RequestParam(value = "sort", required = false) String sort,
+                                           @Parameter(description = "Only actors from this country")
+                                           @RequestParam(value = "country", required = false) String country)
+            throws ShowsDatabaseException {
+        return actorsService.findPage(limit, after, sort, country)
+                .map(ActorsController::addLinks);
     }
 
     @Operation(summary = "Find an actor given the specified id by parameter")
@@ -107,17 +121,7 @@ public class ActorsController {
     @GetMapping("/{actorId}/shows")
     public List<MainCastHypermedia> getShows(@PathVariable("actorId") long id) {
         return mainCastService.findByActor(id).stream()
-                .map(MainCastHypermedia::new)
-                .peek(mainCast -> {
-                    try {
-                        mainCast.add(linkTo(methodOn(ShowsController.class).get(mainCast.getContent().getShowId()))
-                                .withRel("show"));
-                        mainCast.add(linkTo(methodOn(ActorsController.class).get(mainCast.getContent().getActorId()))
-                                .withRel("actor"));
-                    } catch (NotFoundException e) {
-                        // This line cannot and will not throw an exception, but the compiler doesn't know that.
-                    }
-                })
+                .map(MainCastController::addLinks)
                 .toList();
     }
 
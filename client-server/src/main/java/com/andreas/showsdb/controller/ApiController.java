@@ -1,38 +1,58 @@
 package com.andreas.showsdb.controller;
 
+import com.andreas.showsdb.batch.BatchImportProperties;
 import com.andreas.showsdb.batch.BatchOrderListener;
 import com.andreas.showsdb.exception.ExceptionMessage;
+import com.andreas.showsdb.exception.NotFoundException;
 import com.andreas.showsdb.exception.ShowsDatabaseException;
 import com.andreas.showsdb.messaging.Messenger;
+import com.andreas.showsdb.model.dto.ImportReportDto;
 import com.andreas.showsdb.service.EpisodesService;
+import com.andreas.showsdb.service.ImportsService;
 import com.andreas.showsdb.service.SeasonsService;
 import com.andreas.showsdb.service.ShowsService;
+import com.andreas.showsdb.util.SavedFile;
 import com.andreas.showsdb.util.Utils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class ApiController {
     private static final String XLS_CONTENT_TYPE = "application/vnd.ms-excel";
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
     private static final String CSV_CONTENT_TYPE = "text/csv";
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
+    private static final MediaType GZIP_MEDIA_TYPE = MediaType.parseMediaType(GZIP_CONTENT_TYPE);
+    private static final String GZIP_SUFFIX = ".gz";
 
     private final Messenger messenger;
     private final ShowsService showsService;
     private final SeasonsService seasonsService;
     private final EpisodesService episodesService;
+    private final ImportsService importsService;
+    private final BatchImportProperties batchImportProperties;
 
     @Value("${showsdb.files}")
     private String filePath;
@@ -40,17 +60,34 @@ public class ApiController {
     @Operation(summary = "Upload a file of shows to be exported in batch", description = """
             Upload a csv file, with headers Name, Country and Seasons. The file will be uploaded, used by the
             batch import system and later deleted. Shows with names already in the database will be ignored, and
-            any seasons up to the number of seasons will be created.""")
+            any seasons up to the number of seasons will be created. The import runs in the background: the name
+            the file was saved as is returned, and identifies the import in GET /api/imports.""")
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "File uploaded")})
-    @PostMapping("/imports/shows")
-    public void importShows(@RequestPart("file") MultipartFile file) throws ShowsDatabaseException {
-        String savedFile = Utils.saveFile(file, filePath);
-        messenger.sendBatchOrder(BatchOrderListener.SHOWS, savedFile);
+    @PostMapping(value = "/imports/shows", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public String importShows(@RequestPart("file") MultipartFile file) throws ShowsDatabaseException {
+        return order(BatchOrderListener.SHOWS, Utils.saveFile(file, filePath, maxFileSize()));
+    }
+
+    @Operation(summary = "Stream a file of shows to be exported in batch", description = """
+            Same as the multipart upload, but the csv file is the body of the request, and is written straight to
+            disk as it is received. The file may be gzip compressed, either with the application/gzip content type
+            or with the gzip content encoding, and is then decompressed as it is imported.""")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "File uploaded"),
+            @ApiResponse(responseCode = "413", description = "File too large",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionMessage.class)))})
+    @PostMapping(value = "/imports/shows",
+            consumes = {CSV_CONTENT_TYPE, GZIP_CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public String streamShows(@Parameter(description = "Name of the file")
+                              @RequestParam(value = "name", defaultValue = "shows.csv") String name,
+                              HttpServletRequest request) throws ShowsDatabaseException {
+        return order(BatchOrderListener.SHOWS, saveBody(request, name));
     }
 
     @Operation(summary = "Download a file in the stated format", description = """
             Download a file in the stated format, which includes the name, country and number of seasons of a
-            show. The default value is csv, but it also accepts xls.""")
+            show. The default value is csv, but it also accepts xlsx and xls. The csv and xlsx files are streamed, and
+            the csv file can be uploaded again as a batch import. xls is limited to 65,535 shows.""")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "File downloaded as csv",
                     content = @Content(mediaType = CSV_CONTENT_TYPE,
@@ -59,34 +96,143 @@ public class ApiController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ExceptionMessage.class)))})
     @GetMapping("/imports/shows")
-    public ResponseEntity<byte[]> exportShows(@Parameter(description = "File format")
-                                              @RequestParam(value = "format", required = false) String mode)
+    public ResponseEntity<StreamingResponseBody> exportShows(@Parameter(description = "File format")
+                                                             @RequestParam(value = "format", required = false)
+                                                             String mode)
             throws ShowsDatabaseException {
         if (mode == null || mode.equals("csv")) {
+            return csv("Shows.csv", showsService::writeCsv);
+        } else if (mode.equals("xlsx")) {
             return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_TYPE, CSV_CONTENT_TYPE)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=Shows.csv")
-                    .body(showsService.getAsCsvFile());
+                    .header(HttpHeaders.CONTENT_TYPE, XLSX_CONTENT_TYPE)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=Shows.xlsx")
+                    .body(showsService::writeXlsx);
         } else if (mode.equals("xls")) {
+            byte[] file = showsService.getAsXlsFile();
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_TYPE, XLS_CONTENT_TYPE)
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=Shows.xls")
-                    .body(showsService.getAsXlsFile());
+                    .body(outputStream -> outputStream.write(file));
         }
         throw new ShowsDatabaseException("File format %s not supported".formatted(mode), HttpStatus.BAD_REQUEST);
     }
 
+    @Operation(summary = "Download all seasons as a csv file", description = """
+            Download a csv file with the show name, number and number of episodes of every season. The file is
+            streamed.""")
+    @ApiResponses(value = @ApiResponse(responseCode = "200", description = "File downloaded as csv",
+            content = @Content(mediaType = CSV_CONTENT_TYPE, schema = @Schema(implementation = String.class))))
+    @GetMapping("/imports/seasons")
+    public ResponseEntity<StreamingResponseBody> exportSeasons() {
+        return csv("Seasons.csv", seasonsService::writeCsv);
+    }
+
     @Operation(summary = "Upload a file of episodes to be exported in batch",
             description = """
                     Upload a csv file, with headers Show, Season, Episode and Name. The file will be uploaded, used by
                     the batch import system and then deleted. A batch episode operation CAN NOT create new shows nor
                     seasons, so any episodes of a show whose name was not found or of a season stated that does not
-                    exist will be ignored.""")
+                    exist will be ignored. The import runs in the background: the name the file was saved as is
+                    returned, and identifies the import in GET /api/imports.""")
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "File uploaded")})
-    @PostMapping("/imports/episodes")
-    public void importEpisodes(@RequestPart("file") MultipartFile file) throws ShowsDatabaseException {
-        String savedFile = Utils.saveFile(file, filePath);
-        messenger.sendBatchOrder(BatchOrderListener.EPISODES, savedFile);
+    @PostMapping(value = "/imports/episodes", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public String importEpisodes(@RequestPart("file") MultipartFile file) throws ShowsDatabaseException {
+        return order(BatchOrderListener.EPISODES, Utils.saveFile(file, filePath, maxFileSize()));
+    }
+
+    @Operation(summary = "Stream a file of episodes to be exported in batch", description = """
+            Same as the multipart upload, but the csv file is the body of the request, and is written straight to
+            disk as it is received. The file may be gzip compressed, either with the application/gzip content type
+            or with the gzip content encoding, and is then decompressed as it is imported.""")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "File uploaded"),
+            @ApiResponse(responseCode = "413", description = "File too large",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionMessage.class)))})
+    @PostMapping(value = "/imports/episodes",
+            consumes = {CSV_CONTENT_TYPE, GZIP_CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public String streamEpisodes(@Parameter(description = "Name of the file")
+                                 @RequestParam(value = "name", defaultValue = "episodes.csv") String name,
+                                 HttpServletRequest request) throws ShowsDatabaseException {
+        return order(BatchOrderListener.EPISODES, saveBody(request, name));
+    }
+
+    @Operation(summary = "Download all episodes as a csv file", description = """
+            Download a csv file with the show name, season number, number and name of every episode. The file is
+            streamed, and can be uploaded again as a batch import.""")
+    @ApiResponses(value = @ApiResponse(responseCode = "200", description = "File downloaded as csv",
+            content = @Content(mediaType = CSV_CONTENT_TYPE, schema = @Schema(implementation = String.class))))
+    @GetMapping("/imports/episodes")
+    public ResponseEntity<StreamingResponseBody> exportEpisodes() {
+        return csv("Episodes.csv", episodesService::writeCsv);
+    }
+
+    @Operation(summary = "Get the report of an import", description = """
+            Get the status and item counts of an import, and the result of its sampled verification if enabled. The
+            counts are read from the batch metadata tables, so they are also available for imports still running.""")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportReportDto.class))),
+            @ApiResponse(responseCode = "404", description = "Import not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionMessage.class)))})
+    @GetMapping("/imports/{jobExecutionId:\\d+}")
+    public ImportReportDto getImportReport(@Parameter(description = "Id of the job execution of the import")
+                                           @PathVariable("jobExecutionId") long jobExecutionId)
+            throws NotFoundException {
+        return importsService.getReport(jobExecutionId);
+    }
+
+    @Operation(summary = "Get the reports of the latest imports", description = """
+            Get the reports of the latest show and episode imports, newest first, including the ones still running or
+            waiting to start.""")
+    @ApiResponses(value = @ApiResponse(responseCode = "200", description = "Imports found",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = ImportReportDto.class)))))
+    @GetMapping("/imports")
+    public List<ImportReportDto> getImportReports(@Parameter(description = "Maximum number of imports")
+                                                  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return importsService.findLatest(Math.clamp(limit, 1, 100));
+    }
+
+    @Operation(summary = "Stop a running import", description = """
+            Ask a running import to stop. It stops once the rows it is writing are committed, and can be restarted
+            later.""")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import stopping",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportReportDto.class))),
+            @ApiResponse(responseCode = "404", description = "Import not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionMessage.class))),
+            @ApiResponse(responseCode = "409", description = "Import not running",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionMessage.class)))})
+    @PostMapping("/imports/{jobExecutionId:\\d+}/stop")
+    public ImportReportDto stopImport(@Parameter(description = "Id of the job execution of the import")
+                                      @PathVariable("jobExecutionId") long jobExecutionId)
+            throws ShowsDatabaseException {
+        return importsService.stop(jobExecutionId);
+    }
+
+    @Operation(summary = "Restart a failed or stopped import", description = """
+            Restart a failed or stopped import in the background, from the last rows it committed. Returns the report
+            of the new execution, whose id is used to follow it.""")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import restarted",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportReportDto.class))),
+            @ApiResponse(responseCode = "404", description = "Import not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionMessage.class))),
+            @ApiResponse(responseCode = "409", description = "Import running or already completed",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionMessage.class)))})
+    @PostMapping("/imports/{jobExecutionId:\\d+}/restart")
+    public ImportReportDto restartImport(@Parameter(description = "Id of the job execution of the import")
+                                         @PathVariable("jobExecutionId") long jobExecutionId)
+            throws ShowsDatabaseException {
+        return importsService.restart(jobExecutionId);
     }
 
     @Operation(summary = "Clear all the cache for episodes", description = """
@@ -106,4 +252,50 @@ public class ApiController {
     public void clearSeasonCache() {
         seasonsService.clearCache();
     }
+
+    private String order(String importJob, SavedFile savedFile) {
+        messenger.sendBatchOrder(importJob, savedFile);
+        return Path.of(savedFile.path()).getFileName().toString();
+    }
+
+    /**
+     * Saves the body of the request without buffering it in memory or in a temp file first. Only compressed bodies
+     * are saved with the gzip suffix, which tells the import to decompress them, whatever the name given.
+     */
+    private SavedFile saveBody(HttpServletRequest request, String name) throws ShowsDatabaseException {
+        if (request.getContentLengthLong() > maxFileSize()) {
+            throw new ShowsDatabaseException("File larger than %d bytes".formatted(maxFileSize()),
+                    HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        String fileName = name.endsWith(GZIP_SUFFIX) ? name.substring(0, name.length() - GZIP_SUFFIX.length()) : name;
+        if (isGzip(request)) {
+            fileName += GZIP_SUFFIX;
+        }
+        try {
+            return Utils.saveFile(Channels.newChannel(request.getInputStream()), filePath, fileName, maxFileSize());
+        } catch (IOException e) {
+            throw new ShowsDatabaseException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static boolean isGzip(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding != null && encoding.trim().equalsIgnoreCase("gzip")) {
+            return true;
+        }
+        // The content type may have parameters, like application/gzip; charset=UTF-8
+        return request.getContentType() != null
+                && MediaType.parseMediaType(request.getContentType()).isCompatibleWith(GZIP_MEDIA_TYPE);
+    }
+
+    private long maxFileSize() {
+        return batchImportProperties.getMaxFileSize().toBytes();
+    }
+
+    private static ResponseEntity<StreamingResponseBody> csv(String fileName, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, CSV_CONTENT_TYPE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .body(body);
+    }
 }
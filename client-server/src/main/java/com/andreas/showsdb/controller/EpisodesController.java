@@ -1,54 +1,51 @@
 package com.andreas.showsdb.controller;
 
 import com.andreas.showsdb.exception.NotFoundException;
-import com.andreas.showsdb.messaging.Messenger;
+import com.andreas.showsdb.exception.ShowsDatabaseException;
 import com.andreas.showsdb.model.dto.EpisodeInputDto;
 import com.andreas.showsdb.model.dto.EpisodeOutputDto;
+import com.andreas.showsdb.model.dto.PageDto;
 import com.andreas.showsdb.model.dto.hateoas.EpisodeHypermedia;
 import com.andreas.showsdb.service.EpisodesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Comparator;
-import java.util.List;
 import java.util.NoSuchElementException;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @RestController
 @RequestMapping("/api/shows/{showId}/seasons/{seasonNumber}/episodes")
 @RequiredArgsConstructor
 public class EpisodesController {
     private final EpisodesService episodesService;
-    private final Messenger messenger;
 
-    @SneakyThrows // This method cannot and will not throw an exception, but the compiler doesn't know that.
+    private static final LinkTemplate SELF = LinkTemplate.of(EpisodesController.class, "get",
+            IanaLinkRelations.SELF);
+    private static final LinkTemplate SHOW = LinkTemplate.of(ShowsController.class, "get", LinkRelation.of("show"));
+    private static final LinkTemplate SEASON = LinkTemplate.of(SeasonsController.class, "get",
+            LinkRelation.of("season"));
+
     private static EpisodeHypermedia addLinks(EpisodeOutputDto episode) {
         Long showId = episode.getShowId();
         Integer seasonNumber = episode.getSeasonNumber();
 
         EpisodeHypermedia eh = new EpisodeHypermedia(episode);
-        eh.add(linkTo(methodOn(EpisodesController.class)
-                .get(showId, seasonNumber, episode.getEpisodeNumber()))
-                .withSelfRel());
-        eh.add(linkTo(methodOn(ShowsController.class)
-                .get(showId))
-                .withRel("show"));
-        eh.add(linkTo(methodOn(SeasonsController.class)
-                .get(showId, seasonNumber))
-                .withRel("season"));
+        eh.add(SELF.expand(showId, seasonNumber, episode.getEpisodeNumber()));
+        eh.add(SHOW.expand(showId));
+        eh.add(SEASON.expand(showId, seasonNumber));
         return eh;
     }
 
@@ -76,7 +73,6 @@ public class EpisodesController {
             throws NotFoundException {
         if (episodeInputDto == null) {
             EpisodeOutputDto savedEpisode = episodesService.createInSeason(showId, seasonNumber);
-            messenger.newEpisode(savedEpisode);
             return new ResponseEntity<>(addLinks(savedEpisode), HttpStatus.CREATED);
         }
 
@@ -105,7 +101,6 @@ public class EpisodesController {
 
         try {
             EpisodeOutputDto savedEpisode = episodesService.save(showId, seasonNumber, episodeInputDto);
-            messenger.newEpisode(savedEpisode);
             return new ResponseEntity<>(addLinks(savedEpisode), HttpStatus.CREATED);
         } catch (DataIntegrityViolationException e) {
             EpisodeInputDto finalEpisodeInputDto = episodeInputDto;
@@ -134,20 +129,34 @@ public class EpisodesController {
         return addLinks(episode);
     }
 
-    @Operation(summary = "Find all episodes from a season")
+    @Operation(summary = "Find the episodes from a season one page at a time", description = """
+            Pages are requested by passing the nextCursor of the previous page as the after parameter.
+            Sorts: number (default). Add ",desc" to sort in descending order.""")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Episodes found",
                     content = @Content(mediaType = "application/json",
-                            array = @ArraySchema(
-                                    schema = @Schema(implementation = EpisodeHypermedia.class))))})
+                            schema = @Schema(implementation = PageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit, cursor or sort")})
     @GetMapping
-    public List<EpisodeHypermedia> getAllFromSeason(@Parameter(description = "Id of the show")
-                                                    @PathVariable("showId") long showId,
-                                                    @Parameter(description = "Season number")
-                                                    @PathVariable("seasonNumber") int seasonNumber) {
-        return episodesService.findBySeason(showId, seasonNumber).stream()
-                .map(EpisodesController::addLinks)
-                .toList();
+    public PageDto<EpisodeHypermedia> getAllFromSeason(
+            @Parameter(description = "Id of the show")
+            @PathVariable("showId") long showId,
+            @Parameter(description = "Season number")
+            @PathVariable("seasonNumber") int seasonNumber,
+            @Parameter(description = "Maximum number of episodes in the page")
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @Parameter(description = "Cursor of the last episode of the previous page")
+            @RequestParam(value = "after", required = false) String after,
+            @Parameter(description = "Sort of the list")
+            @RequestParam(value = "sort", required = false) String sort,
+            @Parameter(description = "Only episodes released on or after this date")
+            @RequestParam(value = "releasedFrom", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedFrom,
+            @Parameter(description = "Only episodes released on or before this date")
+            @RequestParam(value = "releasedTo", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedTo) throws ShowsDatabaseException {
+        return episodesService.findPage(showId, seasonNumber, limit, after, sort, releasedFrom, releasedTo)
+                .map(EpisodesController::addLinks);
     }
 
     @Operation(summary = "Modify an episode")
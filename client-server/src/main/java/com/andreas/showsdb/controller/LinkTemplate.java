@@ -0,0 +1,122 @@
+package com.andreas.showsdb.controller;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.server.core.AnnotationMappingDiscoverer;
+import org.springframework.hateoas.server.core.MappingDiscoverer;
+import org.springframework.hateoas.server.core.UriMapping;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Link to a controller method, the same as {@code linkTo(methodOn(...))} builds, but with the mapping of the method
+ * resolved once instead of on every link, and no proxy of the controller. Building a link only replaces the path
+ * variables of the mapping, in their order, with the values given, and adds the base URI of the current request,
+ * which is worked out once per request.
+ * <p>
+ * Request parameters are not given values. Like {@code linkTo} does with null values, the optional ones are added as
+ * template variables, and the methods linked must have no others.
+ */
+final class LinkTemplate {
+    private static final MappingDiscoverer DISCOVERER = new AnnotationMappingDiscoverer(RequestMapping.class);
+    private static final String BASE_URI = LinkTemplate.class.getName() + ".BASE_URI";
+
+    /**
+     * The text around the path variables, one more than there are variables.
+     */
+    private final String[] parts;
+    private final LinkRelation rel;
+
+    private LinkTemplate(String mapping, String query, LinkRelation rel) {
+        List<String> split = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = mapping.indexOf('{', start)) >= 0) {
+            split.add(mapping.substring(start, open));
+            start = mapping.indexOf('}', open) + 1;
+        }
+        split.add(mapping.substring(start) + query);
+        this.parts = split.toArray(String[]::new);
+        this.rel = rel;
+    }
+
+    /**
+     * @param method name of the method of the controller, which must not be overloaded
+     */
+    static LinkTemplate of(Class<?> controller, String method, LinkRelation rel) {
+        List<Method> methods = Arrays.stream(controller.getMethods())
+                .filter(candidate -> candidate.getName().equals(method))
+                .toList();
+        if (methods.size() != 1) {
+            throw new IllegalArgumentException("%s has %d methods named %s"
+                    .formatted(controller.getSimpleName(), methods.size(), method));
+        }
+        Method linked = methods.getFirst();
+        UriMapping mapping = DISCOVERER.getUriMapping(controller, linked);
+        if (mapping == null) {
+            throw new IllegalArgumentException("%s.%s is not mapped".formatted(controller.getSimpleName(), method));
+        }
+        return new LinkTemplate(mapping.getMapping(), queryTemplate(linked), rel);
+    }
+
+    /**
+     * @return the template of the optional request parameters of the method, in their order
+     */
+    private static String queryTemplate(Method method) {
+        List<String> names = new ArrayList<>();
+        for (Parameter parameter : method.getParameters()) {
+            RequestParam requestParam = AnnotatedElementUtils.findMergedAnnotation(parameter, RequestParam.class);
+            if (requestParam == null) {
+                continue;
+            }
+            if (requestParam.required() && requestParam.defaultValue().equals(ValueConstants.DEFAULT_NONE)) {
+                throw new IllegalArgumentException("%s has a required request parameter".formatted(method));
+            }
+            names.add(StringUtils.hasText(requestParam.name()) ? requestParam.name() : parameter.getName());
+        }
+        return names.isEmpty() ? "" : "{?" + String.join(",", names) + "}";
+    }
+
+    /**
+     * @param values the path variables, in the order they are in the mapping
+     */
+    Link expand(Object... values) {
+        if (values.length != parts.length - 1) {
+            throw new IllegalArgumentException("Expected %d path variables but got %d"
+                    .formatted(parts.length - 1, values.length));
+        }
+        StringBuilder href = new StringBuilder(baseUri()).append(parts[0]);
+        for (int i = 0; i < values.length; i++) {
+            href.append(values[i]).append(parts[i + 1]);
+        }
+        return Link.of(href.toString(), rel);
+    }
+
+    /**
+     * Outside a request, the links are relative to the root, like those of {@code linkTo}.
+     */
+    private static String baseUri() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "";
+        }
+        String baseUri = (String) attributes.getAttribute(BASE_URI, RequestAttributes.SCOPE_REQUEST);
+        if (baseUri == null) {
+            baseUri = ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+            attributes.setAttribute(BASE_URI, baseUri, RequestAttributes.SCOPE_REQUEST);
+        }
+        return baseUri;
+    }
+}
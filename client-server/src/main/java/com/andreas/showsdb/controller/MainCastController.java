@@ -4,25 +4,20 @@ package com.andreas.showsdb.controller;
 import com.andreas.showsdb.exception.NotFoundException;
 import com.andreas.showsdb.exception.ShowsDatabaseException;
 import com.andreas.showsdb.model.dto.MainCastDto;
+import com.andreas.showsdb.model.dto.PageDto;
 import com.andreas.showsdb.model.dto.hateoas.MainCastHypermedia;
 import com.andreas.showsdb.service.MainCastService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @RestController
 @RequestMapping("/api/main-cast")
 @RequiredArgsConstructor
@@ -30,28 +25,39 @@ public class MainCastController {
 
     private final MainCastService mainCastService;
 
-    @SneakyThrows // This method cannot and will not throw an exception, but the compiler doesn't know that.
-    private static MainCastHypermedia addLinks(MainCastDto mainCast) {
+    private static final LinkTemplate SHOW = LinkTemplate.of(ShowsController.class, "get", LinkRelation.of("show"));
+    private static final LinkTemplate ACTOR = LinkTemplate.of(ActorsController.class, "get",
+            LinkRelation.of("actor"));
+
+    static MainCastHypermedia addLinks(MainCastDto mainCast) {
         Long showId = mainCast.getShowId();
         Long actorId = mainCast.getActorId();
 
         MainCastHypermedia mch = new MainCastHypermedia(mainCast);
-        mch.add(linkTo(methodOn(ShowsController.class).get(showId)).withRel("show"));
-        mch.add(linkTo(methodOn(ActorsController.class).get(actorId)).withRel("actor"));
+        mch.add(SHOW.expand(showId));
+        mch.add(ACTOR.expand(actorId));
 
         return mch;
     }
 
-    @Operation(summary = "List all main casts")
+    @Operation(summary = "List main casts one page at a time", description = """
+            Pages are requested by passing the nextCursor of the previous page as the after parameter.
+            Sorts: actorId (default), showId. Add ",desc" to sort in descending order.""")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     content = @Content(mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = MainCastHypermedia.class))))})
+                            schema = @Schema(implementation = PageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit, cursor or sort")})
     @GetMapping
-    public List<MainCastHypermedia> getAll() {
-        return mainCastService.findAll().stream()
-                .map(MainCastController::addLinks)
-                .toList();
+    public PageDto<MainCastHypermedia> getAll(@Parameter(description = "Maximum number of main casts in the page")
+                                              @RequestParam(value = "limit", required = false) Integer limit,
+                                              @Parameter(description = "Cursor of the last main cast of the last page")
+                                              @RequestParam(value = "after", required = false) String after,
+                                              @Parameter(description = "Sort of the list")
+                                              @RequestParam(value = "sort", required = false) String sort)
+            throws ShowsDatabaseException {
+        return mainCastService.findPage(limit, after, sort)
+                .map(MainCastController::addLinks);
     }
 
     @Operation(summary = "Create a main cast passed through body")
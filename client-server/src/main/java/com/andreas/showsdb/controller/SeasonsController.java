@@ -13,31 +13,33 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @RestController
 @RequestMapping("/api/shows/{showId}/seasons")
 @RequiredArgsConstructor
 public class SeasonsController {
     private final SeasonsService seasonsService;
 
-    @SneakyThrows // This method cannot and will not throw an exception, but the compiler doesn't know that.
+    private static final LinkTemplate SELF = LinkTemplate.of(SeasonsController.class, "get", IanaLinkRelations.SELF);
+    private static final LinkTemplate SHOW = LinkTemplate.of(ShowsController.class, "get", LinkRelation.of("show"));
+    private static final LinkTemplate EPISODES = LinkTemplate.of(EpisodesController.class, "getAllFromSeason",
+            LinkRelation.of("episodes"));
+
     private static SeasonHypermedia addLinks(SeasonOutputDto season) {
         SeasonHypermedia sh = new SeasonHypermedia(season);
         Long showId = season.getShowId();
         Integer seasonNumber = season.getSeasonNumber();
-        sh.add(linkTo(methodOn(SeasonsController.class).get(showId, seasonNumber)).withSelfRel());
-        sh.add(linkTo(methodOn(ShowsController.class).get(showId)).withRel("show"));
-        sh.add(linkTo(methodOn(EpisodesController.class).getAllFromSeason(showId, seasonNumber)).withRel("episodes"));
+        sh.add(SELF.expand(showId, seasonNumber));
+        sh.add(SHOW.expand(showId));
+        sh.add(EPISODES.expand(showId, seasonNumber));
         return sh;
     }
 
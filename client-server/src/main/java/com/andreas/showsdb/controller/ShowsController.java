@@ -2,7 +2,8 @@ package com.andreas.showsdb.controller;
 
 import com.andreas.showsdb.exception.NotFoundException;
 import com.andreas.showsdb.exception.ShowsDatabaseException;
-import com.andreas.showsdb.messaging.Messenger;
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.PageDto;
 import com.andreas.showsdb.model.dto.ShowInputDto;
 import com.andreas.showsdb.model.dto.ShowOutputDto;
 import com.andreas.showsdb.model.dto.hateoas.MainCastHypermedia;
@@ -18,15 +19,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @RestController
 @RequestMapping("/api/shows")
 @RequiredArgsConstructor
@@ -34,28 +33,44 @@ public class ShowsController {
 
     private final ShowsService showsService;
     private final MainCastService mainCastService;
-    private final Messenger messenger;
 
-    @SneakyThrows // This method cannot and will not throw an exception, but the compiler doesn't know that.
-    private static ShowHypermedia addLinks(ShowOutputDto show) {
+    private static final LinkTemplate SELF = LinkTemplate.of(ShowsController.class, "get", IanaLinkRelations.SELF);
+    private static final LinkTemplate UPDATE_STATE = LinkTemplate.of(ShowsController.class, "updateState",
+            LinkRelation.of("update state"));
+    private static final LinkTemplate SEASONS = LinkTemplate.of(SeasonsController.class, "getAllByShow",
+            LinkRelation.of("seasons"));
+
+    public static ShowHypermedia addLinks(ShowOutputDto show) {
         ShowHypermedia sh = new ShowHypermedia(show);
         Long id = show.getId();
-        sh.add(linkTo(methodOn(ShowsController.class).get(id)).withSelfRel());
-        sh.add(linkTo(methodOn(ShowsController.class).updateState(id)).withRel("update state"));
-        sh.add(linkTo(methodOn(SeasonsController.class).getAllByShow(id)).withRel("seasons"));
+        sh.add(SELF.expand(id));
+        sh.add(UPDATE_STATE.expand(id));
+        sh.add(SEASONS.expand(id));
         return sh;
     }
 
-    @Operation(summary = "List all shows")
+    @Operation(summary = "List shows one page at a time", description = """
+            Pages are requested by passing the nextCursor of the previous page as the after parameter.
+            Sorts: id (default), name. Add ",desc" to sort in descending order.""")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     content = @Content(mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = ShowHypermedia.class))))})
+                            schema = @Schema(implementation = PageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit, cursor or sort")})
     @GetMapping
-    public List<ShowHypermedia> searchAll() {
-        return showsService.findAll().stream()
-                .map(ShowsController::addLinks)
-                .toList();
+    public PageDto<ShowHypermedia> searchAll(@Parameter(description = "Maximum number of shows in the page")
+                                             @RequestParam(value = "limit", required = false) Integer limit,
+                                             @Parameter(description = "Cursor of the last show of the previous page")
+                                             @RequestParam(value = "after", required = false) String after,
+                                             @Parameter(description = "Sort of the list")
+                                             @RequestParam(value = "sort", required = false) String sort,
+                                             @Parameter(description = "Only shows from this country")
+                                             @RequestParam(value = "country", required = false) String country,
+                                             @Parameter(description = "Only shows in this state")
+                                             @RequestParam(value = "state", required = false) Show.State state)
+            throws ShowsDatabaseException {
+        return showsService.findPage(limit, after, sort, country, state)
+                .map(ShowsController::addLinks);
     }
 
     @Operation(summary = "Find a show given the specified id by parameter")
@@ -80,7 +95,6 @@ public class ShowsController {
     @ResponseStatus(HttpStatus.CREATED)
     public ShowHypermedia create(@RequestBody @Valid ShowInputDto show) {
         ShowOutputDto savedShow = showsService.save(show);
-        messenger.newShow(savedShow);
         return addLinks(savedShow);
     }
 
@@ -114,17 +128,7 @@ public class ShowsController {
     public List<MainCastHypermedia> getMainCast(@Parameter(description = "Id of the show")
                                                 @PathVariable("id") long id) {
         return mainCastService.findByShow(id).stream()
-                .map(MainCastHypermedia::new)
-                .peek(mainCast -> {
-                    try {
-                        mainCast.add(linkTo(methodOn(ShowsController.class).get(mainCast.getContent().getShowId()))
-                                .withRel("show"));
-                        mainCast.add(linkTo(methodOn(ActorsController.class).get(mainCast.getContent().getActorId()))
-                                .withRel("actor"));
-                    } catch (NotFoundException e) {
-                        // This line cannot and will not throw an exception, but the compiler doesn't know that.
-                    }
-                })
+                .map(MainCastController::addLinks)
                 .toList();
     }
 
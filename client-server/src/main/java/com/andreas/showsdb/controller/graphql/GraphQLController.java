@@ -1,19 +1,39 @@
 package com.andreas.showsdb.controller.graphql;
 
 import com.andreas.showsdb.exception.NotFoundException;
+import com.andreas.showsdb.exception.ShowsDatabaseException;
+import com.andreas.showsdb.messaging.EpisodeReleases;
+import com.andreas.showsdb.model.Show;
 import com.andreas.showsdb.model.dto.*;
 import com.andreas.showsdb.service.*;
 import graphql.GraphQLError;
+import graphql.relay.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.graphql.execution.ErrorType;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Resolves the queries with the services. The nested fields are resolved with {@link BatchMapping}s, which load the
+ * field of every parent at the same level of a query at once, so each level costs a single query however many
+ * parents it has.
+ * <p>
+ * The mutations go through the services like those of the REST API, so they clear the same caches and send the same
+ * messages. The episodes released are pushed to subscribers by {@link EpisodeReleases}.
+ */
 @Controller
 @RequiredArgsConstructor
 public class GraphQLController {
@@ -23,10 +43,27 @@ public class GraphQLController {
     private final EpisodesService episodesService;
     private final ActorsService actorsService;
     private final MainCastService mainCastService;
+    private final EpisodeReleases episodeReleases;
+
+    private static <T> Connection<T> toConnection(PageDto<T> page, String after) {
+        List<Edge<T>> edges = new ArrayList<>(page.getContent().size());
+        for (int i = 0; i < page.getContent().size(); i++) {
+            ConnectionCursor cursor = new DefaultConnectionCursor(page.getCursors().get(i));
+            edges.add(new DefaultEdge<>(page.getContent().get(i), cursor));
+        }
+        PageInfo pageInfo = new DefaultPageInfo(
+                edges.isEmpty() ? null : edges.getFirst().getCursor(),
+                edges.isEmpty() ? null : edges.getLast().getCursor(),
+                after != null,
+                page.isHasNext());
+        return new DefaultConnection<>(edges, pageInfo);
+    }
 
     @QueryMapping
-    List<ShowOutputDto> shows() {
-        return showsService.findAll();
+    Connection<ShowOutputDto> shows(@Argument Integer first, @Argument String after, @Argument String sort,
+                                    @Argument String country, @Argument Show.State state)
+            throws ShowsDatabaseException {
+        return toConnection(showsService.findPage(first, after, sort, country, state), after);
     }
 
     @QueryMapping
@@ -43,6 +80,77 @@ public class GraphQLController {
         return showsService.save(show);
     }
 
+    @MutationMapping
+    SeasonOutputDto addSeason(@Argument Long showId, @Argument SeasonInputDto season) throws NotFoundException {
+        return season == null || season.getSeasonNumber() == null
+                ? seasonsService.createInShow(showId)
+                : seasonsService.save(showId, season);
+    }
+
+    @MutationMapping
+    boolean deleteSeason(@Argument Long showId, @Argument Integer seasonNumber) {
+        seasonsService.delete(showId, seasonNumber);
+        return true;
+    }
+
+    @MutationMapping
+    EpisodeOutputDto addEpisode(@Argument Long showId, @Argument Integer seasonNumber,
+                                @Argument EpisodeInputDto episode) throws NotFoundException {
+        return episode == null
+                ? episodesService.createInSeason(showId, seasonNumber)
+                : episodesService.save(showId, seasonNumber, episode);
+    }
+
+    @MutationMapping
+    EpisodeOutputDto updateEpisode(@Argument Long showId, @Argument Integer seasonNumber,
+                                   @Argument EpisodeInputDto episode) throws NotFoundException {
+        return episodesService.modify(showId, seasonNumber, episode);
+    }
+
+    @MutationMapping
+    boolean deleteEpisode(@Argument Long showId, @Argument Integer seasonNumber, @Argument Integer episodeNumber) {
+        episodesService.deleteByShowAndSeasonAndEpisodeNumbers(showId, seasonNumber, episodeNumber);
+        return true;
+    }
+
+    @MutationMapping
+    ActorOutputDto addActor(@Argument ActorInputDto actor) {
+        return actorsService.save(actor);
+    }
+
+    @MutationMapping
+    ActorOutputDto updateActor(@Argument Long id, @Argument ActorOutputDto actor) throws NotFoundException {
+        actor.setId(id);
+        return actorsService.modify(actor);
+    }
+
+    @MutationMapping
+    boolean deleteActor(@Argument Long id) {
+        actorsService.deleteById(id);
+        return true;
+    }
+
+    @MutationMapping
+    MainCastDto addMainCast(@Argument MainCastDto mainCast) throws ShowsDatabaseException {
+        return mainCastService.save(mainCast);
+    }
+
+    @MutationMapping
+    MainCastDto updateMainCast(@Argument MainCastDto mainCast) throws NotFoundException {
+        return mainCastService.modify(mainCast);
+    }
+
+    @MutationMapping
+    boolean deleteMainCast(@Argument Long actorId, @Argument Long showId) {
+        mainCastService.delete(actorId, showId);
+        return true;
+    }
+
+    @SubscriptionMapping
+    Flux<EpisodeOutputDto> episodeReleased(@Argument Long showId) {
+        return episodeReleases.ofShow(showId);
+    }
+
     @QueryMapping
     List<SeasonOutputDto> seasons(@Argument Long showId) {
         return seasonsService.findByShow(showId);
@@ -72,8 +180,9 @@ public class GraphQLController {
     }
 
     @QueryMapping
-    List<ActorOutputDto> actors() {
-        return actorsService.findAll();
+    Connection<ActorOutputDto> actors(@Argument Integer first, @Argument String after, @Argument String sort,
+                                      @Argument String country) throws ShowsDatabaseException {
+        return toConnection(actorsService.findPage(first, after, sort, country), after);
     }
 
     @QueryMapping
@@ -86,8 +195,9 @@ public class GraphQLController {
     }
 
     @QueryMapping
-    List<MainCastDto> mainCasts() {
-        return mainCastService.findAll();
+    Connection<MainCastDto> mainCasts(@Argument Integer first, @Argument String after, @Argument String sort)
+            throws ShowsDatabaseException {
+        return toConnection(mainCastService.findPage(first, after, sort), after);
     }
 
     @QueryMapping
@@ -109,8 +219,58 @@ public class GraphQLController {
         }
     }
 
+    @BatchMapping(typeName = "Show", field = "seasons")
+    List<List<SeasonOutputDto>> showSeasons(List<ShowOutputDto> shows) {
+        Map<Long, List<SeasonOutputDto>> seasons = seasonsService.findByShows(ids(shows, ShowOutputDto::getId));
+        return shows.stream()
+                .map(show -> seasons.getOrDefault(show.getId(), List.of()))
+                .toList();
+    }
+
+    @BatchMapping(typeName = "Show", field = "mainCast")
+    List<List<MainCastDto>> showMainCast(List<ShowOutputDto> shows) {
+        Map<Long, List<MainCastDto>> mainCast = mainCastService.findByShows(ids(shows, ShowOutputDto::getId));
+        return shows.stream()
+                .map(show -> mainCast.getOrDefault(show.getId(), List.of()))
+                .toList();
+    }
+
+    @BatchMapping(typeName = "Season", field = "episodes")
+    List<List<EpisodeOutputDto>> seasonEpisodes(List<SeasonOutputDto> seasons) {
+        Map<SeasonOutputDto, List<EpisodeOutputDto>> episodes = episodesService.findBySeasons(seasons);
+        return seasons.stream()
+                .map(season -> episodes.getOrDefault(season, List.of()))
+                .toList();
+    }
+
+    @BatchMapping(typeName = "MainCast", field = "actor")
+    List<ActorOutputDto> mainCastActor(List<MainCastDto> mainCast) {
+        Map<Long, ActorOutputDto> actors = actorsService.findByIds(ids(mainCast, MainCastDto::getActorId));
+        return mainCast.stream()
+                .map(character -> actors.get(character.getActorId()))
+                .toList();
+    }
+
+    @BatchMapping(typeName = "MainCast", field = "show")
+    List<ShowOutputDto> mainCastShow(List<MainCastDto> mainCast) {
+        Map<Long, ShowOutputDto> shows = showsService.findByIds(ids(mainCast, MainCastDto::getShowId));
+        return mainCast.stream()
+                .map(character -> shows.get(character.getShowId()))
+                .toList();
+    }
+
+    private static <T> Set<Long> ids(List<T> parents, Function<T, Long> id) {
+        return parents.stream().map(id).collect(Collectors.toSet());
+    }
+
     @GraphQlExceptionHandler
     public GraphQLError handle(NotFoundException e) {
         return GraphQLError.newError().errorType(ErrorType.NOT_FOUND).message(e.getMessage()).build();
     }
+
+    @GraphQlExceptionHandler
+    public GraphQLError handle(ShowsDatabaseException e) {
+        String message = e.getResponse().getBody() != null ? e.getResponse().getBody().message() : e.getMessage();
+        return GraphQLError.newError().errorType(ErrorType.BAD_REQUEST).message(message).build();
+    }
 }
@@ -0,0 +1,82 @@
+package com.andreas.showsdb.messaging;
+
+import com.andreas.showsdb.config.GraphQLProperties;
+import com.andreas.showsdb.messaging.messages.EpisodeMessage;
+import com.andreas.showsdb.messaging.messages.Message;
+import com.andreas.showsdb.model.dto.EpisodeOutputDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Pushes the episodes released to the GraphQL subscribers of their show. Every node reads all the partitions of the
+ * novelties topic from the time it starts, outside any consumer group, so its subscribers hear of the episodes of
+ * every show, whichever node saved them.
+ * <p>
+ * The episodes are multicast to every subscriber as they are read. Each subscriber has a buffer of
+ * {@link GraphQLProperties#getSubscriberBufferSize()} episodes it has not requested yet, and once it is full the
+ * oldest are dropped, so a slow subscriber holds back neither the listener nor the other subscribers.
+ */
+@Slf4j
+@Component
+public class EpisodeReleases {
+    private final Sinks.Many<EpisodeOutputDto> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+
+    public EpisodeReleases(GraphQLProperties properties) {
+        this.bufferSize = properties.getSubscriberBufferSize();
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = "novelties",
+            partitions = "0-#{${showsdb.kafka.novelties-partitions:3} - 1}"),
+            containerFactory = "releasesListenerContainerFactory")
+    public void noveltiesListener(List<Message> messages) {
+        for (Message message : messages) {
+            // Episode messages written before they had the show id can not be told apart, so they are not pushed
+            if (message instanceof EpisodeMessage episode && episode.getShowId() != null) {
+                publish(EpisodeOutputDto.builder()
+                        .showId(episode.getShowId())
+                        .seasonNumber(episode.getSeasonNumber())
+                        .episodeNumber(episode.getEpisodeNumber())
+                        .name(episode.getName())
+                        .releaseDate(episode.getReleaseDate() == null ? null
+                                : episode.getReleaseDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate())
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * Sends the episode to the current subscribers of its show. There is a listener thread per partition, and the
+     * sink must not be called by two at once.
+     */
+    public synchronized void publish(EpisodeOutputDto episode) {
+        // Only fails when nobody is subscribed, and then there is nobody to tell
+        sink.tryEmitNext(episode);
+    }
+
+    /**
+     * @return the episodes of the show released from now on
+     */
+    public Flux<EpisodeOutputDto> ofShow(long showId) {
+        return sink.asFlux()
+                .filter(episode -> episode.getShowId() == showId)
+                .onBackpressureBuffer(bufferSize,
+                        dropped -> log.debug("Dropped episode {} for a slow subscriber", dropped),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * @return the number of subscribers, of all shows
+     */
+    public int subscribers() {
+        return sink.currentSubscriberCount();
+    }
+}
@@ -1,6 +1,7 @@
 package com.andreas.showsdb.messaging;
 
 import com.andreas.showsdb.messaging.messages.Message;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +11,7 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 
 import java.util.HashMap;
@@ -21,13 +23,25 @@ public class KafkaConsumerConfig {
     @Value(value = "${spring.kafka.bootstrap-servers}")
     private String bootstrapAddress;
 
+    /**
+     * The metrics of every consumer are registered, among them the records each one is behind the end of its
+     * partitions, as {@code kafka.consumer.fetch.manager.records.lag} and {@code ...records.lag.max}.
+     */
     @Bean
-    public ConsumerFactory<String, Message> consumerFactory() {
+    public ConsumerFactory<String, Message> consumerFactory(MessagingProperties properties,
+                                                            MeterRegistry meterRegistry) {
+        Map<String, Object> props = consumerProperties(properties);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG,
+                "showsDB");
+        DefaultKafkaConsumerFactory<String, Message> factory = new DefaultKafkaConsumerFactory<>(props);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private Map<String, Object> consumerProperties(MessagingProperties properties) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
                 bootstrapAddress);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG,
-                "showsDB");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
                 ErrorHandlingDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
@@ -36,15 +50,56 @@ public class KafkaConsumerConfig {
                 StringDeserializer.class);
         props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS,
                 MessageDeserializer.class);
-        return new DefaultKafkaConsumerFactory<>(props);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getMaxPollRecords());
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, (int) properties.getFetchMinSize().toBytes());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) properties.getFetchMaxWait().toMillis());
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG,
+                (int) properties.getMaxPartitionFetchSize().toBytes());
+        return props;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Message> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Message> kafkaListenerContainerFactory(
+            ConsumerFactory<String, Message> consumerFactory) {
 
         ConcurrentKafkaListenerContainerFactory<String, Message> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
+        return factory;
+    }
+
+    /**
+     * Hands the listener every record of a poll at once, with a consumer per partition of the novelties topic.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Message> noveltiesListenerContainerFactory(
+            ConsumerFactory<String, Message> consumerFactory, MessagingProperties properties) {
+        ConcurrentKafkaListenerContainerFactory<String, Message> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(properties.getListenerConcurrency());
+        return factory;
+    }
+
+    /**
+     * Hands the {@link EpisodeReleases} listener every record of a poll at once. Its consumers have no group: they
+     * are assigned the partitions of the novelties topic and start at their end, so no node joins or leaves a group
+     * behind, and no offset is ever committed.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Message> releasesListenerContainerFactory(
+            MessagingProperties properties, MeterRegistry meterRegistry) {
+        Map<String, Object> props = consumerProperties(properties);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        DefaultKafkaConsumerFactory<String, Message> consumerFactory = new DefaultKafkaConsumerFactory<>(props);
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        ConcurrentKafkaListenerContainerFactory<String, Message> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(properties.getListenerConcurrency());
         return factory;
     }
 }
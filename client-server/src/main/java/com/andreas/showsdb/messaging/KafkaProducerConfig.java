@@ -4,6 +4,7 @@ import com.andreas.showsdb.messaging.messages.Message;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -14,13 +15,17 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@EnableConfigurationProperties(MessagingProperties.class)
 public class KafkaProducerConfig {
 
     @Value(value = "${spring.kafka.bootstrap-servers}")
     private String bootstrapAddress;
 
+    /**
+     * Records are batched for a few milliseconds and compressed together, and written once even if retried.
+     */
     @Bean
-    public ProducerFactory<String, Message> producerFactory() {
+    public ProducerFactory<String, Message> producerFactory(MessagingProperties properties) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(
                 ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
@@ -31,11 +36,16 @@ public class KafkaProducerConfig {
         configProps.put(
                 ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
                 MessageSerializer.class);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, (int) properties.getLinger().toMillis());
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) properties.getBatchSize().toBytes());
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, properties.getCompression());
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, properties.isIdempotence());
+        configProps.put(ProducerConfig.ACKS_CONFIG, properties.getAcks());
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
     @Bean
-    public KafkaTemplate<String, Message> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Message> kafkaTemplate(ProducerFactory<String, Message> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
     }
 }
@@ -21,9 +21,13 @@ public class KafkaTopicConfig {
         ));
     }
 
+    /**
+     * Existing topics with fewer partitions get more on startup. The show of a key may then be sent to another
+     * partition, so the messages of a show are only ordered from then on.
+     */
     @Bean
-    public NewTopic novelties() {
-        return new NewTopic("novelties", 1, (short) 1);
+    public NewTopic novelties(MessagingProperties properties) {
+        return new NewTopic("novelties", properties.getNoveltiesPartitions(), (short) 1);
     }
 
     @Bean
@@ -0,0 +1,22 @@
+package com.andreas.showsdb.messaging;
+
+import com.andreas.showsdb.messaging.messages.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Reader and writer of the Kafka messages, built once and shared by every serializer and deserializer, as both are
+ * immutable and thread-safe. Messages are bound straight from and to the JSON stream, with the concrete type in the
+ * "class" property (see {@link Message}).
+ */
+final class MessageCodec {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static final ObjectWriter WRITER = MAPPER.writerFor(Message.class);
+    static final ObjectReader READER = MAPPER.readerFor(Message.class);
+
+    private MessageCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+}
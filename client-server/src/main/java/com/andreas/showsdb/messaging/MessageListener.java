@@ -1,20 +1,38 @@
 package com.andreas.showsdb.messaging;
 
 import com.andreas.showsdb.messaging.messages.EpisodeMessage;
+import com.andreas.showsdb.messaging.messages.Message;
 import com.andreas.showsdb.messaging.messages.ShowMessage;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.annotation.KafkaHandler;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+/**
+ * Reads the novelties topic a poll at a time, with a consumer per partition (see
+ * {@link KafkaConsumerConfig#noveltiesListenerContainerFactory}). Records that could not be deserialized are null,
+ * and are skipped.
+ */
 @Slf4j
 @Component
-@KafkaListener(groupId = "showsDB", topics = "novelties")
 public class MessageListener {
     private static final String RECEIVED_MESSAGE = "Received Message in group showsDB:";
 
-    @KafkaHandler
-    public void newEpisodeListener(EpisodeMessage message) {
+    @KafkaListener(groupId = "showsDB", topics = "novelties", containerFactory = "noveltiesListenerContainerFactory")
+    public void noveltiesListener(List<Message> messages) {
+        log.debug("Received {} messages", messages.size());
+        for (Message message : messages) {
+            switch (message) {
+                case null -> log.warn("{} unreadable message", RECEIVED_MESSAGE);
+                case EpisodeMessage episode -> newEpisodeListener(episode);
+                case ShowMessage show -> newShowListener(show);
+                default -> unknownListener(message);
+            }
+        }
+    }
+
+    private void newEpisodeListener(EpisodeMessage message) {
         String messageText = "[%s] %s: %s S%02dE%02d - %s".formatted(
                 message.getReleaseDate(),
                 message.getText(),
@@ -25,13 +43,11 @@ public class MessageListener {
         log.info("{} {}", RECEIVED_MESSAGE, messageText);
     }
 
-    @KafkaHandler
-    public void newShowListener(ShowMessage message) {
+    private void newShowListener(ShowMessage message) {
         log.info("{} {}: {}", RECEIVED_MESSAGE, message.getText(), message.getName());
     }
 
-    @KafkaHandler(isDefault = true)
-    public void unknownListener(Object message) {
+    private void unknownListener(Message message) {
         log.info("{} {}", RECEIVED_MESSAGE, message);
     }
 }
@@ -0,0 +1,77 @@
+package com.andreas.showsdb.messaging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("showsdb.kafka")
+public class MessagingProperties {
+    /**
+     * How long the producer waits for more records to fill a batch before sending it.
+     */
+    private Duration linger = Duration.ofMillis(5);
+    /**
+     * Maximum size of a batch of records sent to a partition at once.
+     */
+    private DataSize batchSize = DataSize.ofKilobytes(64);
+    /**
+     * Compression of the batches: none, gzip, snappy, lz4 or zstd.
+     */
+    private String compression = "lz4";
+    /**
+     * Whether the broker discards the records a producer retries after they were written, so none is written twice.
+     * Requires acks to be all.
+     */
+    private boolean idempotence = true;
+    /**
+     * Acknowledgements the producer waits for before a record is sent: 0, 1 or all.
+     */
+    private String acks = "all";
+    /**
+     * Partitions of the novelties topic. Its records are keyed by show, so the messages of a show keep their order.
+     */
+    private int noveltiesPartitions = 3;
+    /**
+     * Consumers of the novelties topic, each reading its own partitions. Defaults to the partitions of the topic, and
+     * is never more than them, as the extra consumers would be idle.
+     */
+    private Integer listenerConcurrency;
+    /**
+     * Maximum number of records handed to a listener by each poll, and so the size of the batches of the novelties
+     * listener.
+     */
+    private int maxPollRecords = 500;
+    /**
+     * The broker answers a fetch once it has this much data, or once the fetch max wait has passed.
+     */
+    private DataSize fetchMinSize = DataSize.ofKilobytes(1);
+    /**
+     * How long the broker waits to fill the fetch min size.
+     */
+    private Duration fetchMaxWait = Duration.ofMillis(500);
+    /**
+     * Maximum data returned by a fetch for each partition.
+     */
+    private DataSize maxPartitionFetchSize = DataSize.ofMegabytes(1);
+
+    /**
+     * Maximum number of outbox messages sent by the relay in a single transaction.
+     */
+    private int outboxBatchSize = 500;
+    /**
+     * How long the relay waits after emptying the outbox before looking for new messages in it.
+     */
+    private Duration outboxPollInterval = Duration.ofMillis(500);
+    /**
+     * How long the relay waits for Kafka to acknowledge a batch, while the other nodes wait for its rows. Messages
+     * acknowledged later are sent again.
+     */
+    private Duration outboxSendTimeout = Duration.ofSeconds(30);
+
+    public int getListenerConcurrency() {
+        return listenerConcurrency == null ? noveltiesPartitions : Math.min(listenerConcurrency, noveltiesPartitions);
+    }
+}
@@ -1,23 +1,28 @@
 package com.andreas.showsdb.messaging;
 
-import com.andreas.showsdb.exception.NotFoundException;
 import com.andreas.showsdb.messaging.messages.BatchOrder;
 import com.andreas.showsdb.messaging.messages.EpisodeMessage;
 import com.andreas.showsdb.messaging.messages.Message;
 import com.andreas.showsdb.messaging.messages.ShowMessage;
 import com.andreas.showsdb.model.dto.EpisodeOutputDto;
 import com.andreas.showsdb.model.dto.ShowOutputDto;
-import com.andreas.showsdb.service.ShowsService;
+import com.andreas.showsdb.model.OutboxEvent;
+import com.andreas.showsdb.repository.OutboxRepository;
+import com.andreas.showsdb.util.SavedFile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -26,9 +31,16 @@ import java.util.concurrent.CompletableFuture;
 public class Messenger {
 
     private final KafkaTemplate<String, Message> kafkaTemplate;
-    private final ShowsService showsService;
+    private final OutboxRepository outboxRepository;
+    private final MessageSerializer serializer = new MessageSerializer();
 
-    public void newEpisode(EpisodeOutputDto episode) throws NotFoundException {
+    /**
+     * Writes the message to the outbox, to be sent by the {@link OutboxRelay}. Must be called inside the
+     * transaction that saves the episode.
+     *
+     * @param showName name of the show, stored in the message so neither this nor its readers have to look it up
+     */
+    public void newEpisode(EpisodeOutputDto episode, String showName) {
         LocalDate releaseDate = episode.getReleaseDate();
         Date date = null;
         if (releaseDate != null) {
@@ -37,33 +49,54 @@ public class Messenger {
         }
         EpisodeMessage message = EpisodeMessage.builder()
                 .text("New episode released")
-                .show(showsService.findById(episode.getShowId()).getName())
+                .showId(episode.getShowId())
+                .show(showName)
                 .seasonNumber(episode.getSeasonNumber())
                 .episodeNumber(episode.getEpisodeNumber())
                 .name(episode.getName())
                 .releaseDate(date)
                 .build();
-        sendMessage("novelties", message);
+        addToOutbox("novelties", Objects.toString(episode.getShowId(), null), message);
     }
 
+    /**
+     * Writes the message to the outbox, to be sent by the {@link OutboxRelay}. Must be called inside the
+     * transaction that saves the show.
+     */
     public void newShow(ShowOutputDto show) {
         ShowMessage message = ShowMessage.builder()
                 .text("New show released")
                 .name(show.getName())
                 .build();
-        sendMessage("novelties", message);
+        addToOutbox("novelties", Objects.toString(show.getId(), null), message);
     }
 
-    public void sendBatchOrder(String importJob, String file) {
+    public void sendBatchOrder(String importJob, SavedFile file) {
         BatchOrder batchOrder = BatchOrder.builder()
                 .text(importJob)
-                .filepath(file)
+                .filepath(file.path())
+                .checksum(file.checksum())
                 .build();
-        sendMessage("batch-order", batchOrder);
+        sendMessage("batch-order", null, batchOrder);
     }
 
-    private void sendMessage(String topic, Message message) {
-        CompletableFuture<SendResult<String, Message>> future = kafkaTemplate.send(topic, message);
+    private void addToOutbox(String topic, String key, Message message) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox messages must be written in the transaction of their change");
+        }
+        outboxRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .key(key)
+                .payload(new String(serializer.serialize(topic, message), StandardCharsets.UTF_8))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * @param key the show the message is about, so all the messages of a show go to the same partition in order
+     */
+    private void sendMessage(String topic, String key, Message message) {
+        CompletableFuture<SendResult<String, Message>> future = kafkaTemplate.send(topic, key, message);
         future.whenComplete((result, ex) -> {
             if (ex == null) {
                 log.info("Sent message=[%s] with offset=[%d]"
@@ -0,0 +1,89 @@
+package com.andreas.showsdb.messaging;
+
+import com.andreas.showsdb.messaging.messages.Message;
+import com.andreas.showsdb.model.OutboxEvent;
+import com.andreas.showsdb.repository.OutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the messages of the outbox to Kafka in batches, oldest first, and removes them once Kafka has acknowledged
+ * all of them. Messages are sent at least once: if a batch fails or is not acknowledged in time they stay in the
+ * outbox and the whole batch is sent again, so some of them may be received twice.
+ * <p>
+ * The rows of a batch stay locked until it is removed, and the relays of the other nodes wait for them instead of
+ * taking newer rows, so only one node sends at a time and the messages of a show reach its partition in the order
+ * they were written.
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements SchedulingConfigurer {
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, Message> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageDeserializer deserializer = new MessageDeserializer();
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration sendTimeout;
+
+    public OutboxRelay(OutboxRepository outboxRepository, KafkaTemplate<String, Message> kafkaTemplate,
+                       TransactionTemplate transactionTemplate, MessagingProperties properties) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = properties.getOutboxBatchSize();
+        this.pollInterval = properties.getOutboxPollInterval();
+        this.sendTimeout = properties.getOutboxSendTimeout();
+    }
+
+    /**
+     * Runs the relay with the poll interval of the properties, which {@code @Scheduled} can not read as a duration.
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::relay, pollInterval);
+    }
+
+    /**
+     * Sends batches until the outbox is empty.
+     */
+    public void relay() {
+        try {
+            Integer sent;
+            do {
+                sent = transactionTemplate.execute(status -> relayBatch());
+            } while (sent != null && sent == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Could not send the outbox messages, they will be sent again: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of messages sent
+     */
+    int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.findByOrderByIdAsc(Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture<?>[] sends = events.stream()
+                .map(event -> kafkaTemplate.send(event.getTopic(), event.getKey(), deserializer.deserialize(
+                        event.getTopic(), event.getPayload().getBytes(StandardCharsets.UTF_8))))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(sends).orTimeout(sendTimeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        outboxRepository.deleteAllInBatch(events);
+        log.debug("Sent {} outbox messages", events.size());
+        return events.size();
+    }
+}
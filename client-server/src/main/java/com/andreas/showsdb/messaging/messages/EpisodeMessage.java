@@ -1,55 +1,65 @@
 package com.andreas.showsdb.messaging.messages;
 
 import com.andreas.showsdb.util.Utils;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
+import java.io.IOException;
 import java.util.Date;
-import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
 @SuperBuilder
+@JsonTypeName("EpisodeMessage")
 public class EpisodeMessage extends Message {
+    private Long showId;
     private String show;
     private Integer seasonNumber;
     private Integer episodeNumber;
     private String name;
+    /**
+     * Written as dd/MM/yyyy in the default time zone, or as "TBA" when there is none.
+     */
+    @JsonSerialize(using = ReleaseDateSerializer.class, nullsUsing = ReleaseDateSerializer.class)
+    @JsonDeserialize(using = ReleaseDateDeserializer.class)
     private Date releaseDate;
 
-    public static EpisodeMessage fromJson(JsonNode json) {
-        return builder()
-                .text(json.path("text").asText())
-                .show(json.path("show").asText())
-                .seasonNumber(json.path("seasonNumber").asInt())
-                .episodeNumber(json.path("episodeNumber").asInt())
-                .name(json.path("name").asText())
-                .releaseDate(Utils.parseDate(json.path("releaseDate").asText()))
-                .build();
-    }
+    private static final String TO_BE_ANNOUNCED = "TBA";
+
+    static class ReleaseDateSerializer extends StdScalarSerializer<Date> {
+        ReleaseDateSerializer() {
+            super(Date.class);
+        }
 
-    @Override
-    public Map<String, Object> toMap() {
-        Map<String, Object> map = super.toMap();
-        map.put("show", show);
-        map.put("seasonNumber", seasonNumber);
-        map.put("episodeNumber", episodeNumber);
-        map.put("name", name);
-        String releaseDateStr;
-        try {
-            releaseDateStr = Utils.dateToString(releaseDate);
-        } catch (Exception ignored) {
-            releaseDateStr = "TBA";
+        @Override
+        public void serialize(Date value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(value == null ? TO_BE_ANNOUNCED : Utils.dateToString(value));
         }
-        map.put("releaseDate", releaseDateStr);
-        return map;
     }
-}
 
+    static class ReleaseDateDeserializer extends StdScalarDeserializer<Date> {
+        ReleaseDateDeserializer() {
+            super(Date.class);
+        }
 
+        @Override
+        public Date deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String value = parser.getValueAsString();
+            return value == null || value.equals(TO_BE_ANNOUNCED) ? null : Utils.parseDate(value);
+        }
+    }
+}
@@ -1,30 +1,29 @@
 package com.andreas.showsdb.messaging.messages;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Base of every Kafka message. The simple name of the concrete class is written in the "class" property, and
+ * messages with an unknown class are read as a plain {@code Message}.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "class", defaultImpl = Message.class)
+@JsonSubTypes({
+        @JsonSubTypes.Type(ShowMessage.class),
+        @JsonSubTypes.Type(EpisodeMessage.class),
+        @JsonSubTypes.Type(BatchOrder.class)})
+@JsonTypeName("Message")
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class Message {
     private String text;
-
-    public static Message fromJson(JsonNode json) {
-        return builder()
-                .text(json.path("text").asText())
-                .build();
-    }
-
-    public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("text", text);
-        return map;
-    }
 }
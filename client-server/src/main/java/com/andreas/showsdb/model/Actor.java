@@ -43,8 +43,11 @@ public class Actor {
 
     public static Actor translateFromDto(@Valid ActorOutputDto dto) {
         LocalDate dtoBirthDate = dto.getBirthDate();
-        Instant instant = dtoBirthDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
-        Date date = Date.from(instant);
+        Date date = null;
+        if (dtoBirthDate != null) {
+            Instant instant = dtoBirthDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
+            date = Date.from(instant);
+        }
         return Actor.builder()
                 .id(dto.getId())
                 .name(dto.getName())
@@ -0,0 +1,34 @@
+package com.andreas.showsdb.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Kafka message waiting to be sent, written in the same transaction as the change it tells about.
+ */
+@Entity
+@Table(name = "outbox_event")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String topic;
+    @Column(name = "message_key")
+    private String key;
+    /**
+     * The message as serialized by the Kafka value serializer.
+     */
+    @Column(columnDefinition = "text")
+    private String payload;
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -14,7 +14,7 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "show")
+@Table(name = "show", indexes = @Index(name = "show_name", columnList = "name"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
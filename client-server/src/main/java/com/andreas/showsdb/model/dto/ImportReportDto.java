@@ -0,0 +1,38 @@
+package com.andreas.showsdb.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Summary of a batch import. The counters add up every step of the job, and the rows per second are the rows written
+ * since the import started. Sampled and missing are only set if the import was verified by sampling its file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReportDto implements Serializable {
+    Long jobExecutionId;
+    String job;
+    String status;
+    String exitCode;
+    String file;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    long read;
+    long written;
+    long filtered;
+    long skipped;
+    long commits;
+    long rollbacks;
+    double rowsPerSecond;
+    Integer sampled;
+    Integer missing;
+    List<String> failures;
+}
@@ -0,0 +1,37 @@
+package com.andreas.showsdb.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a keyset paginated list. The next page is requested by passing {@link #getNextCursor()} as
+ * {@code after}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDto<T> implements Serializable {
+    List<T> content;
+    /**
+     * Cursor of each element of the content, in the same order. Used for the edges of the GraphQL connections.
+     */
+    @JsonIgnore
+    List<String> cursors;
+    boolean hasNext;
+
+    public String getNextCursor() {
+        return hasNext && !cursors.isEmpty() ? cursors.getLast() : null;
+    }
+
+    public <R> PageDto<R> map(Function<? super T, ? extends R> mapper) {
+        return new PageDto<>(content.stream().<R>map(mapper).toList(), cursors, hasNext);
+    }
+}
@@ -2,6 +2,7 @@ package com.andreas.showsdb.repository;
 
 import com.andreas.showsdb.model.Actor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface ActorsRepository extends JpaRepository<Actor, Long> {
+public interface ActorsRepository extends JpaRepository<Actor, Long>, JpaSpecificationExecutor<Actor> {
 }
@@ -1,17 +1,68 @@
 package com.andreas.showsdb.repository;
 
 import com.andreas.showsdb.model.Episode;
+import com.andreas.showsdb.model.Season;
+import com.andreas.showsdb.model.dto.SeasonOutputDto;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EpisodesRepository extends JpaRepository<Episode, Long> {
+public interface EpisodesRepository extends JpaRepository<Episode, Long>, JpaSpecificationExecutor<Episode> {
     List<Episode> findBySeasonShowIdAndSeasonNumber(long showId, int seasonNumber);
 
+    /**
+     * Finds the episodes of the given seasons, each matched by its pair of show id and season number so that the
+     * unique key of the seasons finds it, with their season and show fetched in the same query, ordered by show,
+     * season and episode number.
+     */
+    @SuppressWarnings("unchecked")
+    default List<Episode> findBySeasons(Collection<SeasonOutputDto> seasons) {
+        if (seasons.isEmpty()) {
+            return List.of();
+        }
+        return findAll((root, query, builder) -> {
+            // Hibernate fetches are joins too, so the seasons fetched are the ones filtered
+            Join<Episode, Season> season = (Join<Episode, Season>) root.<Episode, Season>fetch("season");
+            season.fetch("show");
+            Path<Long> showId = season.get("show").get("id");
+            Path<Integer> seasonNumber = season.get("number");
+            query.orderBy(builder.asc(showId), builder.asc(seasonNumber), builder.asc(root.get("number")));
+            return builder.or(seasons.stream()
+                    .map(pair -> builder.and(builder.equal(showId, pair.getShowId()),
+                            builder.equal(seasonNumber, pair.getSeasonNumber())))
+                    .toArray(Predicate[]::new));
+        });
+    }
+
+    @Query("SELECT e.number FROM Episode e WHERE e.season.show.id = :showId AND e.season.number = :seasonNumber")
+    List<Integer> findNumbersBySeason(@Param("showId") long showId, @Param("seasonNumber") int seasonNumber);
+
     Optional<Episode> findBySeasonShowIdAndSeasonNumberAndNumber(long showId, int seasonNumber, int episodeNumber);
 
+    /**
+     * Streams the show name, season number, number and name of every episode, read from a database cursor. Must be
+     * called inside a transaction, and the stream must be closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ShowsRepository.EXPORT_FETCH_SIZE))
+    @Query("""
+            SELECT sh.name, s.number, e.number, e.name
+            FROM Episode e JOIN e.season s JOIN s.show sh
+            ORDER BY sh.id, s.number, e.number""")
+    Stream<Object[]> streamAllForExport();
+
     @Transactional
     void deleteBySeasonShowIdAndSeasonNumberAndNumber(long showId, int seasonNumber, int episodeNumber);
 }
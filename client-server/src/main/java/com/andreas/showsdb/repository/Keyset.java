@@ -0,0 +1,177 @@
+package com.andreas.showsdb.repository;
+
+import com.andreas.showsdb.exception.ShowsDatabaseException;
+import com.andreas.showsdb.model.dto.PageDto;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset ("seek") pagination for an entity. Instead of skipping an offset, each page starts right after the sort key
+ * of the last element of the previous page, so every page is an index range scan no matter how deep it is.
+ * <p>
+ * Each sort is a list of attributes, most significant first, that must be unique together (usually the sorted
+ * attribute followed by the id). Sorts are written as {@code name} or {@code name,desc}. Cursors are opaque strings
+ * holding the sort and the values of its attributes, so a cursor cannot be used with a different sort.
+ */
+public class Keyset<E> {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private static final String SEPARATOR = "\u0000";
+    private static final String DESCENDING = ",desc";
+
+    private final String defaultSort;
+    private final Map<String, List<String>> sorts;
+
+    /**
+     * @param sorts attribute paths of each sort, by sort name. Nested attributes are separated by dots
+     */
+    public Keyset(String defaultSort, Map<String, List<String>> sorts) {
+        this.defaultSort = defaultSort;
+        this.sorts = sorts;
+    }
+
+    /**
+     * Finds the page of entities matching the filter that starts after the given cursor.
+     *
+     * @param limit maximum number of elements of the page; {@link #DEFAULT_LIMIT} if null
+     * @param after cursor of the last element of the previous page, or null for the first page
+     * @param sort  {@code name} or {@code name,desc}; the default sort if null
+     */
+    public PageDto<E> findPage(JpaSpecificationExecutor<E> repository, Specification<E> filter, Integer limit,
+                               String after, String sort) throws ShowsDatabaseException {
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new ShowsDatabaseException("Limit must be between 1 and " + MAX_LIMIT, HttpStatus.BAD_REQUEST);
+        }
+        String sortName = sort == null || sort.isBlank() ? defaultSort : sort.strip();
+        boolean descending = sortName.endsWith(DESCENDING);
+        List<String> attributes = sorts.get(descending
+                ? sortName.substring(0, sortName.length() - DESCENDING.length())
+                : sortName);
+        if (attributes == null) {
+            throw new ShowsDatabaseException("Cannot sort by " + sortName + ". Valid sorts: " + sorts.keySet(),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        Specification<E> specification = Specification.where(filter);
+        if (after != null && !after.isBlank()) {
+            specification = specification.and(after(attributes, decode(after, sortName, attributes.size()),
+                    descending));
+        }
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = Sort.by(attributes.stream().map(attribute -> new Sort.Order(direction, attribute)).toList());
+        List<E> rows;
+        try {
+            rows = repository.findBy(specification, query -> query.sortBy(order).limit(pageSize + 1).all());
+        } catch (NumberFormatException e) {
+            throw new ShowsDatabaseException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<E> content = hasNext ? rows.subList(0, pageSize) : rows;
+        List<String> cursors = content.stream()
+                .map(row -> encode(row, sortName, attributes))
+                .toList();
+        return new PageDto<>(List.copyOf(content), cursors, hasNext);
+    }
+
+    /**
+     * Filter on an attribute being equal to the value, or no filter if the value is null.
+     */
+    public static <E> Specification<E> equal(String attribute, Object value) {
+        return value == null ? null : (root, query, cb) -> cb.equal(path(root, attribute), value);
+    }
+
+    /**
+     * Filter on an attribute being between the bounds, both included. Null bounds are not applied.
+     */
+    public static <E, C extends Comparable<? super C>> Specification<E> between(String attribute, C from, C to) {
+        return (root, query, cb) -> {
+            Path<C> path = root.get(attribute);
+            return cb.and(
+                    from == null ? cb.conjunction() : cb.greaterThanOrEqualTo(path, from),
+                    to == null ? cb.conjunction() : cb.lessThanOrEqualTo(path, to));
+        };
+    }
+
+    /**
+     * Rows whose sort key comes after the given one: {@code (a > v1) OR (a = v1 AND b > v2) OR ...}
+     */
+    private static <E> Specification<E> after(List<String> attributes, List<String> values, boolean descending) {
+        return (root, query, cb) -> {
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalPrefix = new ArrayList<>();
+            for (int i = 0; i < attributes.size(); i++) {
+                Path<Comparable<Object>> path = path(root, attributes.get(i));
+                Comparable<Object> value = parse(path, values.get(i));
+                List<Predicate> alternative = new ArrayList<>(equalPrefix);
+                alternative.add(descending ? cb.lessThan(path, value) : cb.greaterThan(path, value));
+                alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+                equalPrefix.add(cb.equal(path, value));
+            }
+            return cb.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    private static <E> Path<Comparable<Object>> path(Root<E> root, String attribute) {
+        Path<?> path = root;
+        for (String part : attribute.split("\\.")) {
+            path = path.get(part);
+        }
+        @SuppressWarnings("unchecked")
+        Path<Comparable<Object>> comparablePath = (Path<Comparable<Object>>) path;
+        return comparablePath;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> parse(Path<?> path, String value) {
+        Class<?> type = path.getJavaType();
+        Comparable<?> parsed;
+        if (type == Long.class || type == long.class) {
+            parsed = Long.valueOf(value);
+        } else if (type == Integer.class || type == int.class) {
+            parsed = Integer.valueOf(value);
+        } else {
+            parsed = value;
+        }
+        return (Comparable<Object>) parsed;
+    }
+
+    private static String encode(Object row, String sortName, List<String> attributes) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(row);
+        StringBuilder cursor = new StringBuilder(sortName);
+        for (String attribute : attributes) {
+            cursor.append(SEPARATOR).append(wrapper.getPropertyValue(attribute));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> decode(String cursor, String sortName, int size) throws ShowsDatabaseException {
+        List<String> parts;
+        try {
+            parts = List.of(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, -1));
+        } catch (IllegalArgumentException e) {
+            throw new ShowsDatabaseException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+        if (parts.size() != size + 1 || !parts.getFirst().equals(sortName)) {
+            throw new ShowsDatabaseException("Cursor does not belong to sort " + sortName, HttpStatus.BAD_REQUEST);
+        }
+        return parts.subList(1, parts.size());
+    }
+}
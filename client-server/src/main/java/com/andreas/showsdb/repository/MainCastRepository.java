@@ -1,17 +1,34 @@
 package com.andreas.showsdb.repository;
 
 import com.andreas.showsdb.model.MainCast;
+import com.andreas.showsdb.model.dto.MainCastDto;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface MainCastRepository extends JpaRepository<MainCast, MainCast.MainCastKey> {
+public interface MainCastRepository extends JpaRepository<MainCast, MainCast.MainCastKey>,
+        JpaSpecificationExecutor<MainCast> {
 
     List<MainCast> findByShowId(long showId);
 
+    /**
+     * Finds the main cast of all the given shows, selecting only the keys and character so that neither the actors
+     * nor the shows are loaded.
+     */
+    @Query("""
+            SELECT new com.andreas.showsdb.model.dto.MainCastDto(m.id.actorId, m.id.showId, m.character)
+            FROM MainCast m
+            WHERE m.id.showId IN :showIds
+            ORDER BY m.id.showId, m.id.actorId""")
+    List<MainCastDto> findInfoByShowIdIn(@Param("showIds") Collection<Long> showIds);
+
 
     List<MainCast> findByActorId(long actorId);
 
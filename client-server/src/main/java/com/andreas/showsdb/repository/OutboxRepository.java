@@ -0,0 +1,18 @@
+package com.andreas.showsdb.repository;
+
+import com.andreas.showsdb.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Finds the oldest events and locks them until the transaction ends. A node that finds them locked by another
+     * waits for it to send and remove them, so the nodes relay one batch at a time, oldest first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OutboxEvent> findByOrderByIdAsc(Limit limit);
+}
@@ -1,19 +1,65 @@
 package com.andreas.showsdb.repository;
 
 import com.andreas.showsdb.model.Season;
+import com.andreas.showsdb.model.dto.SeasonOutputDto;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Stream;
 
 public interface SeasonsRepository extends JpaRepository<Season, Long> {
     List<Season> findByShowId(long showId);
 
     Optional<Season> findByShowIdAndNumber(long showId, int number);
 
-    Optional<Season> findFirstByShowNameAndNumber(String showName, int number);
+    /**
+     * Finds the seasons of all the given shows along with their number of episodes, counted by the database in a
+     * single query, ordered by show and season number.
+     */
+    @Query("""
+            SELECT new com.andreas.showsdb.model.dto.SeasonOutputDto(s.show.id, s.number, CAST(COUNT(e.id) AS Integer))
+            FROM Season s LEFT JOIN s.episodes e
+            WHERE s.show.id IN :showIds
+            GROUP BY s.show.id, s.id, s.number
+            ORDER BY s.show.id, s.number""")
+    List<SeasonOutputDto> findInfoByShowIdIn(@Param("showIds") Collection<Long> showIds);
+
+    @Query("SELECT s.number, e.number FROM Season s LEFT JOIN s.episodes e WHERE s.show.id = :showId")
+    List<Object[]> findSeasonAndEpisodeNumbersByShowId(@Param("showId") long showId);
+
+    /**
+     * Finds the episode numbers of every season of a show, by season number. Seasons without episodes are mapped
+     * to an empty list.
+     */
+    default Map<Integer, List<Integer>> findEpisodeNumbersByShowId(long showId) {
+        Map<Integer, List<Integer>> episodesBySeason = new HashMap<>();
+        for (Object[] row : findSeasonAndEpisodeNumbersByShowId(showId)) {
+            List<Integer> episodes = episodesBySeason.computeIfAbsent((Integer) row[0], k -> new ArrayList<>());
+            if (row[1] != null) {
+                episodes.add((Integer) row[1]);
+            }
+        }
+        return episodesBySeason;
+    }
+
+    /**
+     * Streams the show name, number and number of episodes of every season, read from a database cursor. Must be
+     * called inside a transaction, and the stream must be closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ShowsRepository.EXPORT_FETCH_SIZE))
+    @Query("""
+            SELECT sh.name, s.number, COUNT(e.id)
+            FROM Season s JOIN s.show sh LEFT JOIN s.episodes e
+            GROUP BY sh.id, sh.name, s.id, s.number
+            ORDER BY sh.id, s.number""")
+    Stream<Object[]> streamAllForExport();
 
     @Modifying
     @Transactional
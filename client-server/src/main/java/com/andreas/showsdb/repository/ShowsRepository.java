@@ -1,7 +1,50 @@
 package com.andreas.showsdb.repository;
 
 import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.ShowOutputDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface ShowsRepository extends JpaRepository<Show, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ShowsRepository extends JpaRepository<Show, Long>, JpaSpecificationExecutor<Show> {
+    String SHOW_INFO_SELECT = """
+            SELECT new com.andreas.showsdb.model.dto.ShowOutputDto(s.id, s.name, s.country,
+                CAST(COUNT(DISTINCT se.id) AS Integer), CAST(COUNT(e.id) AS Integer), s.state)
+            FROM Show s LEFT JOIN s.seasons se LEFT JOIN se.episodes e""";
+    String SHOW_INFO_GROUP_BY = " GROUP BY s.id, s.name, s.country, s.state";
+    /**
+     * Rows fetched from the database at a time by the export streams. MySQL only honours it with
+     * {@code useCursorFetch=true} in the connection url; otherwise the driver reads the whole result at once.
+     */
+    String EXPORT_FETCH_SIZE = "1000";
+
+    /**
+     * Finds every show along with its number of seasons and episodes, counted by the database in a single query
+     * instead of loading the seasons and episodes of each show.
+     */
+    @Query(SHOW_INFO_SELECT + SHOW_INFO_GROUP_BY + " ORDER BY s.id")
+    List<ShowOutputDto> findAllInfo();
+
+    /**
+     * Same as {@link #findAllInfo()}, but the rows are read from a database cursor as the stream is consumed. Must be
+     * called inside a transaction, and the stream must be closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SHOW_INFO_SELECT + SHOW_INFO_GROUP_BY + " ORDER BY s.id")
+    Stream<ShowOutputDto> streamAllInfo();
+
+    @Query(SHOW_INFO_SELECT + " WHERE s.id = :id" + SHOW_INFO_GROUP_BY)
+    Optional<ShowOutputDto> findInfoById(@Param("id") long id);
+
+    @Query(SHOW_INFO_SELECT + " WHERE s.id IN :ids" + SHOW_INFO_GROUP_BY)
+    List<ShowOutputDto> findInfoByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,46 +1,68 @@
 package com.andreas.showsdb.service;
 
+import com.andreas.showsdb.cache.CacheInvalidator;
 import com.andreas.showsdb.exception.NotFoundException;
+import com.andreas.showsdb.exception.ShowsDatabaseException;
 import com.andreas.showsdb.model.Actor;
+import com.andreas.showsdb.model.MainCast;
 import com.andreas.showsdb.model.dto.ActorInputDto;
 import com.andreas.showsdb.model.dto.ActorOutputDto;
+import com.andreas.showsdb.model.dto.PageDto;
 import com.andreas.showsdb.repository.ActorsRepository;
+import com.andreas.showsdb.repository.Keyset;
+import com.andreas.showsdb.repository.MainCastRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ActorsService {
+    private static final Keyset<Actor> KEYSET = new Keyset<>("id", Map.of(
+            "id", List.of("id"),
+            "name", List.of("name", "id")));
+
     private final ActorsRepository actorsRepository;
+    private final MainCastRepository mainCastRepository;
+    private final CacheInvalidator cacheInvalidator;
 
-    @Cacheable("actors-cache")
-    public List<ActorOutputDto> findAll() {
-        return actorsRepository.findAll().stream()
-                .map(Actor::getInfoDto)
-                .toList();
+    @Cacheable(value = "actors-page-cache", key = "@cacheKeys.page(#limit, #after, #sort, #country)")
+    public PageDto<ActorOutputDto> findPage(Integer limit, String after, String sort, String country)
+            throws ShowsDatabaseException {
+        return KEYSET.findPage(actorsRepository, Keyset.equal("country", country), limit, after, sort)
+                .map(Actor::getInfoDto);
     }
 
-    @Cacheable("actors-cache")
+    @Cacheable(value = "actors-cache", key = "@cacheKeys.actor(#id)")
     public ActorOutputDto findById(long id) throws NotFoundException {
         return actorsRepository.findById(id)
                 .orElseThrow(NotFoundException::new)
                 .getInfoDto();
     }
 
-    @CacheEvict(cacheNames = {"actors-cache"}, allEntries = true)
+    /**
+     * Finds all the given actors in a single query, by id. Actors that do not exist are not in the map.
+     */
+    public Map<Long, ActorOutputDto> findByIds(Collection<Long> ids) {
+        return actorsRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Actor::getId, Actor::getInfoDto));
+    }
+
     public ActorOutputDto save(@Valid ActorInputDto actorInputDto) {
         Actor actor = Actor.translateFromDto(actorInputDto);
         Actor saved = actorsRepository.save(actor);
+        cacheInvalidator.actorAdded();
         return saved.getInfoDto();
     }
 
-    @CacheEvict(cacheNames = {"actors-cache"}, allEntries = true)
     public ActorOutputDto modify(@Valid ActorOutputDto actorOutputDto) throws NotFoundException {
         Optional<Actor> optionalActor = actorsRepository.findById(actorOutputDto.getId());
         if (optionalActor.isEmpty()) {
@@ -49,15 +71,20 @@ public class ActorsService {
 
         Actor actor = Actor.translateFromDto(actorOutputDto);
         Actor saved = actorsRepository.save(actor);
+        cacheInvalidator.actorChanged(saved.getId());
         return saved.getInfoDto();
     }
 
-    @CacheEvict(cacheNames = {"actors-cache"}, allEntries = true)
     public void deleteById(long id) {
+        List<Long> showIds = mainCastRepository.findByActorId(id).stream()
+                .map(MainCast::getId)
+                .map(MainCast.MainCastKey::getShowId)
+                .toList();
         actorsRepository.deleteById(id);
+        cacheInvalidator.actorDeleted(id, showIds);
     }
 
-    @CacheEvict(cacheNames = {"actors-cache"}, allEntries = true)
+    @CacheEvict(cacheNames = {"actors-cache", "actors-page-cache"}, allEntries = true)
     public void clearCache() {
     }
 }
@@ -1,37 +1,90 @@
 package com.andreas.showsdb.service;
 
+import com.andreas.showsdb.cache.CacheInvalidator;
 import com.andreas.showsdb.exception.NotFoundException;
+import com.andreas.showsdb.exception.ShowsDatabaseException;
+import com.andreas.showsdb.messaging.Messenger;
 import com.andreas.showsdb.model.Episode;
 import com.andreas.showsdb.model.Season;
 import com.andreas.showsdb.model.dto.EpisodeInputDto;
 import com.andreas.showsdb.model.dto.EpisodeOutputDto;
+import com.andreas.showsdb.model.dto.PageDto;
+import com.andreas.showsdb.model.dto.SeasonOutputDto;
 import com.andreas.showsdb.repository.EpisodesRepository;
+import com.andreas.showsdb.repository.Keyset;
 import com.andreas.showsdb.repository.SeasonsRepository;
+import com.andreas.showsdb.util.Utils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EpisodesService {
+    private static final Keyset<Episode> KEYSET = new Keyset<>("number", Map.of(
+            "number", List.of("number")));
 
     private final EpisodesRepository episodesRepository;
     private final SeasonsRepository seasonsRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final Messenger messenger;
+    private final TransactionTemplate transactionTemplate;
 
-    @Cacheable("episodes-cache")
+    @Cacheable(value = "episodes-cache", key = "@cacheKeys.season(#showId, #seasonNumber)", sync = true)
     public List<EpisodeOutputDto> findBySeason(long showId, int seasonNumber) {
         return episodesRepository.findBySeasonShowIdAndSeasonNumber(showId, seasonNumber).stream()
                 .map(Episode::getInfoDto).toList();
     }
 
-    @Cacheable("episodes-cache")
+    /**
+     * Finds the episodes of all the given seasons in a single query.
+     *
+     * @return the episodes of each season that has any
+     */
+    public Map<SeasonOutputDto, List<EpisodeOutputDto>> findBySeasons(Collection<SeasonOutputDto> seasons) {
+        Map<List<Number>, SeasonOutputDto> seasonsByKey = new HashMap<>();
+        for (SeasonOutputDto season : seasons) {
+            seasonsByKey.put(List.of(season.getShowId(), season.getSeasonNumber()), season);
+        }
+        Map<SeasonOutputDto, List<EpisodeOutputDto>> episodesBySeason = new HashMap<>();
+        for (Episode episode : episodesRepository.findBySeasons(seasons)) {
+            EpisodeOutputDto info = episode.getInfoDto();
+            SeasonOutputDto season = seasonsByKey.get(List.of(info.getShowId(), info.getSeasonNumber()));
+            episodesBySeason.computeIfAbsent(season, k -> new ArrayList<>()).add(info);
+        }
+        return episodesBySeason;
+    }
+
+    @Cacheable(value = "episodes-page-cache",
+            key = "@cacheKeys.page(#showId, #seasonNumber, #limit, #after, #sort, #releasedFrom, #releasedTo)",
+            sync = true)
+    public PageDto<EpisodeOutputDto> findPage(long showId, int seasonNumber, Integer limit, String after, String sort,
+                                              LocalDate releasedFrom, LocalDate releasedTo)
+            throws ShowsDatabaseException {
+        Specification<Episode> filter = Specification.allOf(
+                Keyset.equal("season.show.id", showId),
+                Keyset.equal("season.number", seasonNumber),
+                Keyset.between("releaseDate", toDate(releasedFrom), toDate(releasedTo)));
+        return KEYSET.findPage(episodesRepository, filter, limit, after, sort)
+                .map(Episode::getInfoDto);
+    }
+
+    @Cacheable(value = "episodes-cache", key = "@cacheKeys.episode(#showId, #seasonNumber, #episodeNumber)",
+            sync = true)
     public EpisodeOutputDto findByShowAndSeasonAndEpisodeNumbers(long showId, int seasonNumber, int episodeNumber)
             throws NotFoundException {
         return episodesRepository.findBySeasonShowIdAndSeasonNumberAndNumber(showId, seasonNumber, episodeNumber)
@@ -39,7 +92,6 @@ public class EpisodesService {
                 .getInfoDto();
     }
 
-    @CacheEvict(cacheNames = {"shows-cache", "seasons-cache", "episodes-cache"}, allEntries = true)
     public EpisodeOutputDto save(long showId, int seasonNumber, EpisodeInputDto episodeInputDto)
             throws NotFoundException {
         Season season = seasonsRepository.findByShowIdAndNumber(showId, seasonNumber)
@@ -52,10 +104,23 @@ public class EpisodesService {
                 .releaseDate(episodeInputDto.getReleaseDate())
                 .build();
 
-        return episodesRepository.save(episode).getInfoDto();
+        EpisodeOutputDto saved = saveAndNotify(episode);
+        cacheInvalidator.episodesAddedOrDeleted(showId, seasonNumber, List.of(saved.getEpisodeNumber()));
+        return saved;
+    }
+
+    /**
+     * Saves the new episode and the message telling about it in the same transaction. The callers clear the cache
+     * once it is committed.
+     */
+    private EpisodeOutputDto saveAndNotify(Episode episode) {
+        return transactionTemplate.execute(status -> {
+            EpisodeOutputDto saved = episodesRepository.save(episode).getInfoDto();
+            messenger.newEpisode(saved, episode.getShow().getName());
+            return saved;
+        });
     }
 
-    @CacheEvict(cacheNames = {"shows-cache", "seasons-cache", "episodes-cache"}, allEntries = true)
     public EpisodeOutputDto modify(long showId, int seasonNumber, @Valid EpisodeInputDto episodeInputDto)
             throws NotFoundException {
         Episode episode = episodesRepository.findBySeasonShowIdAndSeasonNumberAndNumber(showId, seasonNumber,
@@ -65,10 +130,11 @@ public class EpisodesService {
         episode.setName(episodeInputDto.getName());
         episode.setReleaseDate(episodeInputDto.getReleaseDate());
 
-        return episodesRepository.save(episode).getInfoDto();
+        EpisodeOutputDto saved = episodesRepository.save(episode).getInfoDto();
+        cacheInvalidator.episodeChanged(showId, seasonNumber, saved.getEpisodeNumber());
+        return saved;
     }
 
-    @CacheEvict(cacheNames = {"shows-cache", "seasons-cache", "episodes-cache"}, allEntries = true)
     public EpisodeOutputDto createInSeason(long showId, int seasonNumber) throws NotFoundException {
         Season season = seasonsRepository.findByShowIdAndNumber(showId, seasonNumber)
                 .orElseThrow(NotFoundException::new);
@@ -86,26 +152,46 @@ public class EpisodesService {
         Episode episode = new Episode();
         episode.setSeason(season);
         episode.setNumber(episodeNumber);
-        return episodesRepository.save(episode).getInfoDto();
+        EpisodeOutputDto saved = saveAndNotify(episode);
+        cacheInvalidator.episodesAddedOrDeleted(showId, seasonNumber, List.of(episodeNumber));
+        return saved;
     }
 
-    @CacheEvict(cacheNames = {"shows-cache", "seasons-cache", "episodes-cache"}, allEntries = true)
     public void deleteByShowAndSeasonAndEpisodeNumbers(long showId, int seasonNumber, int episodeNumber) {
         episodesRepository.deleteBySeasonShowIdAndSeasonNumberAndNumber(showId, seasonNumber, episodeNumber);
+        cacheInvalidator.episodesAddedOrDeleted(showId, seasonNumber, List.of(episodeNumber));
     }
 
-    @CacheEvict(cacheNames = {"shows-cache", "seasons-cache", "episodes-cache"}, allEntries = true)
     public void deleteAllBySeason(long showId, int seasonNumber) {
+        List<Integer> deleted = new ArrayList<>();
         try {
             episodesRepository.findBySeasonShowIdAndSeasonNumber(showId, seasonNumber)
-                    .stream().map(Episode::getId)
-                    .forEach(episodesRepository::deleteById);
+                    .forEach(episode -> {
+                        episodesRepository.deleteById(episode.getId());
+                        deleted.add(episode.getNumber());
+                    });
         } catch (Exception e) {
             log.error(e.getMessage());
         }
+        cacheInvalidator.episodesAddedOrDeleted(showId, seasonNumber, deleted);
     }
 
-    @CacheEvict(cacheNames = {"shows-cache", "seasons-cache", "episodes-cache"}, allEntries = true)
+    @CacheEvict(cacheNames = {"shows-cache", "seasons-cache", "episodes-cache", "episodes-page-cache"},
+            allEntries = true)
     public void clearCache() {
     }
+
+    /**
+     * Writes every episode as csv, streamed from the database, with the same headers the episodes import reads.
+     */
+    @Transactional(readOnly = true)
+    public void writeCsv(OutputStream outputStream) throws IOException {
+        try (Stream<Object[]> episodes = episodesRepository.streamAllForExport()) {
+            Utils.writeCsv(outputStream, episodes, "Show", "Season", "Episode", "Name");
+        }
+    }
+
+    private static Date toDate(LocalDate date) {
+        return date == null ? null : Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
 }
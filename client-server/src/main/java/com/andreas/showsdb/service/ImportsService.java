@@ -0,0 +1,96 @@
+package com.andreas.showsdb.service;
+
+import com.andreas.showsdb.batch.ImportReports;
+import com.andreas.showsdb.exception.NotFoundException;
+import com.andreas.showsdb.exception.ShowsDatabaseException;
+import com.andreas.showsdb.model.dto.ImportReportDto;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobExecutionNotRunningException;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.launch.NoSuchJobException;
+import org.springframework.batch.core.launch.NoSuchJobExecutionException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class ImportsService {
+    private static final List<String> IMPORT_JOBS = List.of("importShowJob", "importEpisodeJob");
+
+    private final JobExplorer jobExplorer;
+    private final JobOperator jobOperator;
+
+    public ImportsService(JobExplorer jobExplorer, @Qualifier("importJobOperator") JobOperator jobOperator) {
+        this.jobExplorer = jobExplorer;
+        this.jobOperator = jobOperator;
+    }
+
+    public ImportReportDto getReport(long jobExecutionId) throws NotFoundException {
+        return ImportReports.of(getJobExecution(jobExecutionId));
+    }
+
+    /**
+     * Finds the reports of the latest imports, newest first, whether they are running or not.
+     */
+    public List<ImportReportDto> findLatest(int limit) {
+        return IMPORT_JOBS.stream()
+                .flatMap(job -> jobExplorer.getJobInstances(job, 0, limit).stream())
+                .map(JobInstance::getInstanceId)
+                .sorted(Comparator.reverseOrder())
+                .limit(limit)
+                .flatMap(instanceId -> jobExplorer.getJobExecutions(jobExplorer.getJobInstance(instanceId)).stream())
+                .sorted(Comparator.comparing(JobExecution::getId).reversed())
+                .limit(limit)
+                .map(ImportReports::of)
+                .toList();
+    }
+
+    /**
+     * Asks a running import to stop. It stops after the chunk it is writing, and can then be restarted.
+     */
+    public ImportReportDto stop(long jobExecutionId) throws ShowsDatabaseException {
+        try {
+            jobOperator.stop(jobExecutionId);
+        } catch (NoSuchJobExecutionException e) {
+            throw new NotFoundException("Import %d not found".formatted(jobExecutionId));
+        } catch (JobExecutionNotRunningException e) {
+            throw new ShowsDatabaseException("Import %d is not running".formatted(jobExecutionId),
+                    HttpStatus.CONFLICT);
+        }
+        return getReport(jobExecutionId);
+    }
+
+    /**
+     * Restarts a failed or stopped import from where it was left, in the background.
+     *
+     * @return the report of the new execution
+     */
+    public ImportReportDto restart(long jobExecutionId) throws ShowsDatabaseException {
+        try {
+            return getReport(jobOperator.restart(jobExecutionId));
+        } catch (NoSuchJobExecutionException e) {
+            throw new NotFoundException("Import %d not found".formatted(jobExecutionId));
+        } catch (JobInstanceAlreadyCompleteException | JobRestartException e) {
+            throw new ShowsDatabaseException("Import %d can not be restarted: %s"
+                    .formatted(jobExecutionId, e.getMessage()), HttpStatus.CONFLICT);
+        } catch (NoSuchJobException | JobParametersInvalidException e) {
+            throw new ShowsDatabaseException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private JobExecution getJobExecution(long jobExecutionId) throws NotFoundException {
+        JobExecution jobExecution = jobExplorer.getJobExecution(jobExecutionId);
+        if (jobExecution == null) {
+            throw new NotFoundException("Import %d not found".formatted(jobExecutionId));
+        }
+        return jobExecution;
+    }
+}
@@ -1,39 +1,55 @@
 package com.andreas.showsdb.service;
 
+import com.andreas.showsdb.cache.CacheInvalidator;
 import com.andreas.showsdb.exception.NotFoundException;
 import com.andreas.showsdb.exception.ShowsDatabaseException;
 import com.andreas.showsdb.model.Actor;
 import com.andreas.showsdb.model.MainCast;
 import com.andreas.showsdb.model.Show;
 import com.andreas.showsdb.model.dto.MainCastDto;
+import com.andreas.showsdb.model.dto.PageDto;
 import com.andreas.showsdb.repository.ActorsRepository;
+import com.andreas.showsdb.repository.Keyset;
 import com.andreas.showsdb.repository.MainCastRepository;
 import com.andreas.showsdb.repository.ShowsRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MainCastService {
+    private static final Keyset<MainCast> KEYSET = new Keyset<>("actorId", Map.of(
+            "actorId", List.of("id.actorId", "id.showId"),
+            "showId", List.of("id.showId", "id.actorId")));
+
     private final MainCastRepository mainCastRepository;
     private final ActorsRepository actorsRepository;
     private final ShowsRepository showsRepository;
-
-    @Cacheable("main-cast-cache")
-    public List<MainCastDto> findAll() {
-        return mainCastRepository.findAll().stream()
-                .map(MainCast::getInfoDto)
-                .toList();
+    private final CacheInvalidator cacheInvalidator;
+
+    @Cacheable(value = "main-cast-page-cache", key = "@cacheKeys.page(#limit, #after, #sort)")
+    public PageDto<MainCastDto> findPage(Integer limit, String after, String sort) throws ShowsDatabaseException {
+        // Fetch the actor and show in the same query instead of one query per main cast
+        Specification<MainCast> fetchActorAndShow = (root, query, cb) -> {
+            root.fetch("actor");
+            root.fetch("show");
+            return null;
+        };
+        return KEYSET.findPage(mainCastRepository, fetchActorAndShow, limit, after, sort)
+                .map(MainCast::getInfoDto);
     }
 
-    @CacheEvict(cacheNames = {"main-cast-cache", "main-cast-cache-actor", "main-cast-cache-show"}, allEntries = true)
     public MainCastDto save(@Valid MainCastDto mainCastDto) throws ShowsDatabaseException {
         Actor actor = actorsRepository.findById(mainCastDto.getActorId())
                 .orElseThrow(() -> new NotFoundException("Actor not found"));
@@ -53,10 +69,11 @@ public class MainCastService {
                 .character(mainCastDto.getCharacter())
                 .build();
 
-        return mainCastRepository.save(mainCast).getInfoDto();
+        MainCastDto saved = mainCastRepository.save(mainCast).getInfoDto();
+        cacheInvalidator.mainCastChanged(saved.getActorId(), saved.getShowId());
+        return saved;
     }
 
-    @CacheEvict(cacheNames = {"main-cast-cache", "main-cast-cache-actor", "main-cast-cache-show"}, allEntries = true)
     public MainCastDto modify(@Valid MainCastDto mainCastDto) throws NotFoundException {
 
         MainCast mainCast = mainCastRepository.findDistinctByActorIdAndShowId(mainCastDto.getActorId(),
@@ -65,36 +82,48 @@ public class MainCastService {
 
         mainCast.copyInfo(mainCastDto);
 
-        return mainCastRepository.save(mainCast).getInfoDto();
+        MainCastDto saved = mainCastRepository.save(mainCast).getInfoDto();
+        cacheInvalidator.mainCastChanged(saved.getActorId(), saved.getShowId());
+        return saved;
     }
 
-    @Cacheable("main-cast-cache-actor")
+    @Cacheable(value = "main-cast-cache-actor", key = "@cacheKeys.actor(#actorId)")
     public List<MainCastDto> findByActor(long actorId) {
         return mainCastRepository.findByActorId(actorId).stream()
                 .map(MainCast::getInfoDto)
                 .toList();
     }
 
-    @Cacheable("main-cast-cache-show")
+    @Cacheable(value = "main-cast-cache-show", key = "@cacheKeys.show(#showId)")
     public List<MainCastDto> findByShow(long showId) {
         return mainCastRepository.findByShowId(showId).stream()
                 .map(MainCast::getInfoDto)
                 .toList();
     }
 
-    @Cacheable("main-cast-cache")
+    /**
+     * Finds the main cast of all the given shows in a single query, by show id. Shows without main cast are not in
+     * the map.
+     */
+    public Map<Long, List<MainCastDto>> findByShows(Collection<Long> showIds) {
+        return mainCastRepository.findInfoByShowIdIn(showIds).stream()
+                .collect(Collectors.groupingBy(MainCastDto::getShowId));
+    }
+
+    @Cacheable(value = "main-cast-cache", key = "@cacheKeys.mainCast(#actorId, #showId)")
     public MainCastDto findByActorAndShow(Long actorId, Long showId) throws NotFoundException {
         return mainCastRepository.findDistinctByActorIdAndShowId(actorId, showId)
                 .orElseThrow(NotFoundException::new)
                 .getInfoDto();
     }
 
-    @CacheEvict(cacheNames = {"main-cast-cache", "main-cast-cache-actor", "main-cast-cache-show"}, allEntries = true)
     public void delete(Long actorId, Long showId) {
         mainCastRepository.deleteDistinctByActorIdAndShowId(actorId, showId);
+        cacheInvalidator.mainCastChanged(actorId, showId);
     }
 
-    @CacheEvict(cacheNames = {"main-cast-cache", "main-cast-cache-actor", "main-cast-cache-show"}, allEntries = true)
+    @CacheEvict(cacheNames = {"main-cast-cache", "main-cast-cache-actor", "main-cast-cache-show",
+            "main-cast-page-cache"}, allEntries = true)
     public void clearCache() {
     }
 }
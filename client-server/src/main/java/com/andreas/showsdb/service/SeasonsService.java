@@ -1,41 +1,61 @@
 package com.andreas.showsdb.service;
 
+import com.andreas.showsdb.cache.CacheInvalidator;
 import com.andreas.showsdb.exception.NotFoundException;
 import com.andreas.showsdb.model.Season;
 import com.andreas.showsdb.model.Show;
 import com.andreas.showsdb.model.dto.SeasonInputDto;
 import com.andreas.showsdb.model.dto.SeasonOutputDto;
+import com.andreas.showsdb.repository.EpisodesRepository;
 import com.andreas.showsdb.repository.SeasonsRepository;
 import com.andreas.showsdb.repository.ShowsRepository;
+import com.andreas.showsdb.util.Utils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class SeasonsService {
     private final ShowsRepository showsRepository;
     private final SeasonsRepository seasonsRepository;
+    private final EpisodesRepository episodesRepository;
+    private final CacheInvalidator cacheInvalidator;
 
-    @Cacheable("seasons-cache")
+    @Cacheable(value = "seasons-cache", key = "@cacheKeys.show(#showId)")
     public List<SeasonOutputDto> findByShow(long showId) {
         return seasonsRepository.findByShowId(showId).stream()
                 .map(Season::getInfoDto).toList();
     }
 
-    @Cacheable("seasons-cache")
+    /**
+     * Finds the seasons of all the given shows in a single query, by show id. Shows without seasons are not in the
+     * map.
+     */
+    public Map<Long, List<SeasonOutputDto>> findByShows(Collection<Long> showIds) {
+        return seasonsRepository.findInfoByShowIdIn(showIds).stream()
+                .collect(Collectors.groupingBy(SeasonOutputDto::getShowId));
+    }
+
+    @Cacheable(value = "seasons-cache", key = "@cacheKeys.season(#showId, #seasonNumber)")
     public SeasonOutputDto findByShowAndNumber(long showId, int seasonNumber) throws NotFoundException {
         return seasonsRepository.findByShowIdAndNumber(showId, seasonNumber)
                 .orElseThrow(() -> new NotFoundException("Season not found"))
                 .getInfoDto();
     }
 
-    @CacheEvict(cacheNames = {"seasons-cache", "shows-cache"}, allEntries = true)
     public SeasonOutputDto save(long showId, @Valid SeasonInputDto seasonInputDto) throws NotFoundException {
         Show show = showsRepository.findById(showId)
                 .orElseThrow(() -> new NotFoundException("Show not found"));
@@ -44,10 +64,11 @@ public class SeasonsService {
                 .number(seasonInputDto.getSeasonNumber())
                 .build();
 
-        return seasonsRepository.save(season).getInfoDto();
+        SeasonOutputDto saved = seasonsRepository.save(season).getInfoDto();
+        cacheInvalidator.seasonAdded(showId, saved.getSeasonNumber());
+        return saved;
     }
 
-    @CacheEvict(cacheNames = {"seasons-cache", "shows-cache"}, allEntries = true)
     public SeasonOutputDto createInShow(long showId) throws NotFoundException {
         Show show = showsRepository.findById(showId)
                 .orElseThrow(() -> new NotFoundException("Show not found"));
@@ -66,20 +87,34 @@ public class SeasonsService {
                 .number(seasonNumber)
                 .build();
 
-        return seasonsRepository.save(season).getInfoDto();
+        SeasonOutputDto saved = seasonsRepository.save(season).getInfoDto();
+        cacheInvalidator.seasonAdded(showId, seasonNumber);
+        return saved;
     }
 
-    @CacheEvict(cacheNames = {"seasons-cache", "shows-cache"}, allEntries = true)
     public void delete(long showId, int seasonNumber) {
+        List<Integer> episodeNumbers = episodesRepository.findNumbersBySeason(showId, seasonNumber);
         seasonsRepository.deleteByShowIdAndNumber(showId, seasonNumber);
+        cacheInvalidator.seasonsDeleted(showId, Map.of(seasonNumber, episodeNumbers));
     }
 
-    @CacheEvict(cacheNames = {"seasons-cache", "shows-cache"}, allEntries = true)
     public void deleteByShow(long showId) {
+        Map<Integer, List<Integer>> episodesBySeason = seasonsRepository.findEpisodeNumbersByShowId(showId);
         seasonsRepository.deleteAllByShowId(showId);
+        cacheInvalidator.seasonsDeleted(showId, episodesBySeason);
     }
 
     @CacheEvict(cacheNames = {"seasons-cache", "shows-cache"}, allEntries = true)
     public void clearCache() {
     }
+
+    /**
+     * Writes every season as csv, streamed from the database.
+     */
+    @Transactional(readOnly = true)
+    public void writeCsv(OutputStream outputStream) throws IOException {
+        try (Stream<Object[]> seasons = seasonsRepository.streamAllForExport()) {
+            Utils.writeCsv(outputStream, seasons, "Show", "Season", "Episodes");
+        }
+    }
 }
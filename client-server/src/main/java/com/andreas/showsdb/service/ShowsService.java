@@ -1,116 +1,172 @@
 package com.andreas.showsdb.service;
 
+import com.andreas.showsdb.cache.CacheInvalidator;
 import com.andreas.showsdb.exception.NotFoundException;
 import com.andreas.showsdb.exception.ShowsDatabaseException;
+import com.andreas.showsdb.messaging.Messenger;
 import com.andreas.showsdb.model.Episode;
+import com.andreas.showsdb.model.MainCast;
 import com.andreas.showsdb.model.Season;
 import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.PageDto;
 import com.andreas.showsdb.model.dto.ShowInputDto;
 import com.andreas.showsdb.model.dto.ShowOutputDto;
 import com.andreas.showsdb.repository.EpisodesRepository;
+import com.andreas.showsdb.repository.Keyset;
+import com.andreas.showsdb.repository.MainCastRepository;
 import com.andreas.showsdb.repository.SeasonsRepository;
 import com.andreas.showsdb.repository.ShowsRepository;
 import com.andreas.showsdb.statemachine.ShowStateMachine;
+import com.andreas.showsdb.util.Utils;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.andreas.showsdb.model.Show.State.UNRELEASED;
 
 @Service
 @RequiredArgsConstructor
 public class ShowsService {
+    private static final Keyset<Show> KEYSET = new Keyset<>("id", Map.of(
+            "id", List.of("id"),
+            "name", List.of("name", "id")));
+
+    private static final String[] EXPORT_HEADERS = {"Name", "Country", "Seasons", "State"};
 
     private final ShowsRepository showsRepository;
     private final SeasonsRepository seasonsRepository;
     private final EpisodesRepository episodesRepository;
-
-    @Cacheable("shows-cache")
-    public List<ShowOutputDto> findAll() {
-        return showsRepository.findAll().stream()
-                .map(Show::getInfoDto)
-                .toList();
+    private final MainCastRepository mainCastRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final Messenger messenger;
+    private final TransactionTemplate transactionTemplate;
+
+    @Cacheable(value = "shows-page-cache", key = "@cacheKeys.page(#limit, #after, #sort, #country, #state)",
+            sync = true)
+    public PageDto<ShowOutputDto> findPage(Integer limit, String after, String sort, String country, Show.State state)
+            throws ShowsDatabaseException {
+        PageDto<Show> page = KEYSET.findPage(showsRepository,
+                Specification.allOf(Keyset.equal("country", country), Keyset.equal("state", state)),
+                limit, after, sort);
+        // The page only selects the shows; their season and episode counts come from the grouped projection
+        Map<Long, ShowOutputDto> info = showsRepository.findInfoByIdIn(page.getContent().stream()
+                        .map(Show::getId)
+                        .toList()).stream()
+                .collect(Collectors.toMap(ShowOutputDto::getId, Function.identity()));
+        return page.map(show -> info.get(show.getId()));
     }
 
-    @Cacheable("shows-cache")
+    @Cacheable(value = "shows-cache", key = "@cacheKeys.show(#id)", sync = true)
     public ShowOutputDto findById(long id) throws NotFoundException {
-        return showsRepository.findById(id)
-                .orElseThrow(NotFoundException::new)
-                .getInfoDto();
+        return showsRepository.findInfoById(id)
+                .orElseThrow(NotFoundException::new);
+    }
+
+    /**
+     * Finds all the given shows in a single query, by id. Shows that do not exist are not in the map.
+     */
+    public Map<Long, ShowOutputDto> findByIds(Collection<Long> ids) {
+        return showsRepository.findInfoByIdIn(ids).stream()
+                .collect(Collectors.toMap(ShowOutputDto::getId, Function.identity()));
     }
 
-    @CacheEvict(cacheNames = {"shows-cache"}, allEntries = true)
+    /**
+     * Saves the show and the message telling about it in the same transaction. The cache is cleared once it is
+     * committed.
+     */
     public ShowOutputDto save(ShowInputDto showInputDto) {
         Show show = Show.translateFromDto(showInputDto);
-        return showsRepository.save(show).getInfoDto();
+        ShowOutputDto saved = transactionTemplate.execute(status -> {
+            ShowOutputDto savedShow = showsRepository.save(show).getInfoDto();
+            messenger.newShow(savedShow);
+            return savedShow;
+        });
+        cacheInvalidator.showAdded();
+        return saved;
     }
 
-    @CacheEvict(cacheNames = {"shows-cache"}, allEntries = true)
     public ShowOutputDto modify(ShowOutputDto showOutputDto) throws NotFoundException {
         Optional<Show> optionalShow = showsRepository.findById(showOutputDto.getId());
         if (optionalShow.isEmpty()) throw new NotFoundException();
 
         Show show = Show.translateFromDto(showOutputDto);
         Show saved = showsRepository.save(show);
+        cacheInvalidator.showChanged(saved.getId());
         return saved.getInfoDto();
     }
 
-    @CacheEvict(cacheNames = {"shows-cache"}, allEntries = true)
     public void deleteById(long id) {
+        Map<Integer, List<Integer>> episodesBySeason = seasonsRepository.findEpisodeNumbersByShowId(id);
+        List<Long> actorIds = mainCastRepository.findByShowId(id).stream()
+                .map(MainCast::getId)
+                .map(MainCast.MainCastKey::getActorId)
+                .toList();
         showsRepository.deleteById(id);
+        cacheInvalidator.showDeleted(id, episodesBySeason, actorIds);
     }
 
-    @CacheEvict(cacheNames = {"shows-cache"}, allEntries = true)
+    @CacheEvict(cacheNames = {"shows-cache", "shows-page-cache"}, allEntries = true)
     public void clearCache() {
     }
 
-    public byte[] getAsCsvFile() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Name,Country,Show").append("\n");
-        showsRepository.findAll().stream()
-                .map(Show::getInfoDto)
-                .forEach(show -> sb.append(show.getName())
-                        .append(",")
-                        .append(show.getCountry())
-                        .append(",")
-                        .append(show.getNumberOfSeasons())
-                        .append("\n"));
-        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    /**
+     * Writes every show as csv, with the same headers the shows import reads. The shows are streamed from the
+     * database, so memory use does not grow with their number.
+     */
+    @Transactional(readOnly = true)
+    public void writeCsv(OutputStream outputStream) throws IOException {
+        try (Stream<ShowOutputDto> shows = showsRepository.streamAllInfo()) {
+            Utils.writeCsv(outputStream, shows.map(ShowsService::toExportRow), EXPORT_HEADERS);
+        }
     }
 
+    /**
+     * Writes every show as an xlsx workbook, streamed from the database with a bounded number of rows in memory.
+     */
+    @Transactional(readOnly = true)
+    public void writeXlsx(OutputStream outputStream) throws IOException {
+        try (Stream<ShowOutputDto> shows = showsRepository.streamAllInfo()) {
+            Utils.writeXlsx(outputStream, "Shows", shows.map(ShowsService::toExportRow), EXPORT_HEADERS);
+        }
+    }
+
+    /**
+     * Builds the legacy xls workbook in memory. Only meant for small exports: the format is limited to 65,536 rows,
+     * so bigger catalogues are rejected in favour of xlsx.
+     */
     public byte[] getAsXlsFile() throws ShowsDatabaseException {
+        long maxShows = SpreadsheetVersion.EXCEL97.getMaxRows() - 1L;
+        if (showsRepository.count() > maxShows) {
+            throw tooManyShowsForXls(maxShows);
+        }
         try (Workbook wb = new HSSFWorkbook()) {
-            Sheet sheet = wb.createSheet("Shows");
-
-            Row firstRow = sheet.createRow(0);
-            firstRow.createCell(0).setCellValue("Name");
-            firstRow.createCell(1).setCellValue("Country");
-            firstRow.createCell(2).setCellValue("Seasons");
-
-
-            List<ShowOutputDto> shows = showsRepository.findAll().stream()
-                    .map(Show::getInfoDto)
-                    .toList();
-            for (int i = 0, showsSize = shows.size(); i < showsSize; i++) {
-                ShowOutputDto show = shows.get(i);
-                Row row = sheet.createRow(i + 1);
-                row.createCell(0).setCellValue(show.getName());
-                row.createCell(1).setCellValue(show.getCountry());
-                row.createCell(2).setCellValue(show.getNumberOfSeasons());
+            Iterator<Object[]> rows = showsRepository.findAllInfo().stream().map(ShowsService::toExportRow).iterator();
+            Utils.writeSheet(wb.createSheet("Shows"), rows, EXPORT_HEADERS);
+            if (rows.hasNext()) {
+                // shows added since they were counted
+                throw tooManyShowsForXls(maxShows);
             }
 
             try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
@@ -123,6 +179,15 @@ public class ShowsService {
         }
     }
 
+    private static ShowsDatabaseException tooManyShowsForXls(long maxShows) {
+        return new ShowsDatabaseException("There are more than %d shows, which does not fit in a xls file. Use xlsx"
+                .formatted(maxShows), HttpStatus.BAD_REQUEST);
+    }
+
+    private static Object[] toExportRow(ShowOutputDto show) {
+        return new Object[]{show.getName(), show.getCountry(), show.getNumberOfSeasons(), show.getState()};
+    }
+
     public ShowOutputDto updateState(Long id) throws ShowsDatabaseException {
         Show show = showsRepository.findById(id).orElseThrow(NotFoundException::new);
         Show.State state = show.getState();
@@ -147,6 +212,8 @@ public class ShowsService {
         }
         Show.State newState = showStateMachine.getState().getId();
         show.setState(newState);
-        return showsRepository.save(show).getInfoDto();
+        ShowOutputDto saved = showsRepository.save(show).getInfoDto();
+        cacheInvalidator.showChanged(id);
+        return saved;
     }
 }
@@ -0,0 +1,11 @@
+package com.andreas.showsdb.util;
+
+/**
+ * A file saved by {@link Utils#saveFile}.
+ *
+ * @param path     where it was saved
+ * @param checksum SHA-256 hash of its contents, in hex
+ * @param size     size in bytes
+ */
+public record SavedFile(String path, String checksum, long size) {
+}
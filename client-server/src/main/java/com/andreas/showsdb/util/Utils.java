@@ -6,22 +6,51 @@ import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.Random;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Slf4j
 public class Utils {
 
-    private static final String DATE_FORMAT = "dd/MM/yyyy";
+    public static final String DATE_FORMAT = "dd/MM/yyyy";
     private static final Random RANDOM = new Random();
+    /**
+     * Rows of an xlsx export kept in memory; older ones are flushed to a compressed temp file.
+     */
+    private static final int XLSX_ROW_WINDOW = 100;
+    /**
+     * Bytes copied at a time by each {@link FileChannel#transferFrom} call of an upload.
+     */
+    private static final long TRANSFER_SIZE = 1 << 20;
 
     private Utils() {
         throw new IllegalStateException("Utility class");
@@ -46,22 +75,173 @@ public class Utils {
         }
     }
 
-    public static String saveFile(MultipartFile multipartFile, String path) throws ShowsDatabaseException {
-        String originalName = multipartFile.getOriginalFilename();
+    public static SavedFile saveFile(MultipartFile multipartFile, String path, long maxSize)
+            throws ShowsDatabaseException {
+        if (multipartFile.getSize() > maxSize) {
+            throw fileTooLarge(maxSize);
+        }
+        try (ReadableByteChannel source = Channels.newChannel(multipartFile.getInputStream())) {
+            return saveFile(source, path, multipartFile.getOriginalFilename(), maxSize);
+        } catch (IOException e) {
+            throw new ShowsDatabaseException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Copies the channel straight into a new file in the directory, hashing the bytes as they are copied. The
+     * channel is read to its end, but not closed.
+     *
+     * @param maxSize if the channel has more bytes, the file is removed and nothing is saved
+     */
+    public static SavedFile saveFile(ReadableByteChannel source, String path, String originalName, long maxSize)
+            throws ShowsDatabaseException {
         if (originalName == null) {
             throw new ShowsDatabaseException("File name null", HttpStatus.BAD_REQUEST);
         }
-        String finalName = "%s%s".formatted(randomAlphaNumeric(8), originalName.replace(" ", "-"));
+        // Only the name is kept, so the file can not be written outside the directory
+        Path fileName;
         try {
-            File file = new File(path + finalName);
-            if (file.mkdirs()) {
-                multipartFile.transferTo(file);
-                log.info("Created file: {}", finalName);
-                return path + finalName;
-            } else throw new ShowsDatabaseException("Error creating directory", HttpStatus.INTERNAL_SERVER_ERROR);
+            fileName = Path.of(originalName).getFileName();
+        } catch (InvalidPathException e) {
+            fileName = null;
+        }
+        if (fileName == null) {
+            throw new ShowsDatabaseException("Invalid file name: " + originalName, HttpStatus.BAD_REQUEST);
+        }
+        String baseName = fileName.toString();
+        String finalName = "%s%s".formatted(randomAlphaNumeric(8), baseName.replace(" ", "-"));
+        Path file = Path.of(path + finalName);
+        DigestChannel digestChannel = new DigestChannel(source, maxSize);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel target = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = target.transferFrom(digestChannel, position, TRANSFER_SIZE)) > 0) {
+                    position += transferred;
+                }
+            }
+            // transferFrom ends quietly if the channel fails after some bytes were copied
+            digestChannel.checkSize();
         } catch (IOException e) {
+            deleteQuietly(file);
+            if (digestChannel.size > maxSize) {
+                throw fileTooLarge(maxSize);
+            }
             throw new ShowsDatabaseException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
+        log.info("Created file: {}", finalName);
+        return new SavedFile(file.toString(), HexFormat.of().formatHex(digestChannel.digest.digest()),
+                digestChannel.size);
+    }
+
+    private static ShowsDatabaseException fileTooLarge(long maxSize) {
+        return new ShowsDatabaseException("File larger than %d bytes".formatted(maxSize), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.error("Could not delete file {}, please make sure to remove it manually.", file);
+        }
+    }
+
+    /**
+     * @return the SHA-256 hash of the contents of the file, in hex
+     */
+    public static String sha256(Path path) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(path), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return the SHA-256 hash of the UTF-8 bytes of the text, in hex
+     */
+    public static String sha256(String text) {
+        return HexFormat.of().formatHex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the rows as csv as they are read from the stream, so only the current row and the output buffer are
+     * kept in memory. The output stream is flushed but not closed.
+     */
+    public static void writeCsv(OutputStream outputStream, Stream<Object[]> rows, String... headers)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                .setHeader(headers)
+                .build());
+        printer.printRecords(rows);
+        printer.flush();
+    }
+
+    /**
+     * Writes the rows as an xlsx workbook. Only the last {@value XLSX_ROW_WINDOW} rows are kept in memory, so the
+     * heap used does not grow with the size of the export. A sheet holds at most 1,048,576 rows, so once one is full
+     * the rows go on in a new sheet named after the first one and its position, e.g. "Shows (2)".
+     */
+    public static void writeXlsx(OutputStream outputStream, String sheetName, Stream<Object[]> rows,
+                                 String... headers) throws IOException {
+        writeXlsx(outputStream, sheetName, rows, SpreadsheetVersion.EXCEL2007.getMaxRows(), headers);
+    }
+
+    static void writeXlsx(OutputStream outputStream, String sheetName, Stream<Object[]> rows, int maxRowsPerSheet,
+                          String... headers) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Iterator<Object[]> iterator = rows.iterator();
+            writeSheet(workbook.createSheet(sheetName), iterator, maxRowsPerSheet, headers);
+            for (int sheet = 2; iterator.hasNext(); sheet++) {
+                writeSheet(workbook.createSheet("%s (%d)".formatted(sheetName, sheet)), iterator, maxRowsPerSheet,
+                        headers);
+            }
+            workbook.write(outputStream);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Writes the headers and then as many rows as fit into the sheet, leaving the rest in the iterator. Numbers are
+     * written as numeric cells and anything else as text.
+     */
+    public static void writeSheet(Sheet sheet, Iterator<Object[]> rows, String... headers) {
+        writeSheet(sheet, rows, sheet.getWorkbook().getSpreadsheetVersion().getMaxRows(), headers);
+    }
+
+    private static void writeSheet(Sheet sheet, Iterator<Object[]> rows, int maxRows, String... headers) {
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            headerRow.createCell(i).setCellValue(headers[i]);
+        }
+        for (int rowNumber = 1; rowNumber < maxRows && rows.hasNext(); rowNumber++) {
+            Object[] values = rows.next();
+            Row row = sheet.createRow(rowNumber);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) continue;
+                Cell cell = row.createCell(i);
+                if (values[i] instanceof Number number) {
+                    cell.setCellValue(number.doubleValue());
+                } else {
+                    cell.setCellValue(values[i].toString());
+                }
+            }
+        }
     }
 
     public static String randomAlphaNumeric(int count) {
@@ -73,4 +253,48 @@ public class Utils {
         }
         return sb.toString();
     }
+
+    /**
+     * Hashes and counts the bytes read from a channel, failing once more than the maximum size has been read.
+     */
+    private static class DigestChannel implements ReadableByteChannel {
+        private final ReadableByteChannel source;
+        private final long maxSize;
+        private final MessageDigest digest = sha256();
+        private long size;
+
+        DigestChannel(ReadableByteChannel source, long maxSize) {
+            this.source = source;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read(ByteBuffer buffer) throws IOException {
+            checkSize();
+            int start = buffer.position();
+            int read = source.read(buffer);
+            if (read > 0) {
+                size += read;
+                checkSize();
+                digest.update(buffer.duplicate().flip().position(start));
+            }
+            return read;
+        }
+
+        void checkSize() throws IOException {
+            if (size > maxSize) {
+                throw new IOException("File larger than %d bytes".formatted(maxSize));
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return source.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
 }
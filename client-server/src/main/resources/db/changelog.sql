@@ -68,4 +68,27 @@ create table `main_cast` (
 
 --changeset andreas:10 labels:actors,shows
 insert into `main_cast` values (1, 1, 'Nandor The Relentless'), (2, 2, 'Eleanor Shellstrop');
---rollback delete from `main_cast` where (`idActor`, `idShow`) = (1,1) or (`idActor`, `idShow`) = (2,2)
\ No newline at end of file
+--rollback delete from `main_cast` where (`idActor`, `idShow`) = (1,1) or (`idActor`, `idShow`) = (2,2)
+
+--changeset andreas:17 labels:shows
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'show' AND COLUMN_NAME = 'state'
+--comment: show state, already mapped by the Show entity
+alter table `show` add column `state` varchar(16);
+--rollback alter table `show` drop column `state`;
+
+--changeset andreas:18 labels:messaging
+--comment: Kafka messages written with the changes they tell about, and sent by the outbox relay
+create table `outbox_event` (
+    `id` bigint primary key auto_increment,
+    `topic` varchar(255) not null,
+    `message_key` varchar(255),
+    `payload` text not null,
+    `created_at` datetime not null
+);
+--rollback drop table `outbox_event`
+
+--changeset andreas:19 labels:shows
+--comment: shows are looked up by name, as the import verifier does with the rows it samples
+create index `show_name` on `show`(`name`);
+--rollback drop index `show_name` on `show`
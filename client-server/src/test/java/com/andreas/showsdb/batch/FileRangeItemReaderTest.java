@@ -0,0 +1,139 @@
+package com.andreas.showsdb.batch;
+
+import com.andreas.showsdb.batch.ShowsBatchConfig.ShowBatchFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRangeItemReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSkipsHeaderAndBlankLines() throws Exception {
+        Path file = Files.writeString(directory.resolve("shows.csv"),
+                "Name,Country,Seasons,State\r\nDark,Germany,3,\r\n\r\nLost,USA,6,FINISHED");
+
+        List<ShowBatchFormat> shows = readAll(reader(file, 0), new ExecutionContext());
+
+        assertEquals(List.of(new ShowBatchFormat("Dark", "Germany", 3, ""),
+                new ShowBatchFormat("Lost", "USA", 6, "FINISHED")), shows);
+    }
+
+    @Test
+    void testRestartGoesOnFromSavedOffset() throws Exception {
+        StringBuilder text = new StringBuilder("Name,Country,Seasons,State\n");
+        for (int i = 0; i < 10; i++) {
+            text.append("Show %d,Country,%d,\n".formatted(i, i));
+        }
+        Path file = Files.writeString(directory.resolve("shows.csv"), text);
+        ExecutionContext context = new ExecutionContext();
+
+        FileRangeItemReader<ShowBatchFormat> first = reader(file, 0);
+        first.open(context);
+        for (int i = 0; i < 4; i++) {
+            first.read();
+        }
+        first.update(context);
+        first.read();
+        first.close();
+
+        List<ShowBatchFormat> rest = readAll(reader(file, 0), context);
+
+        assertEquals(6, rest.size());
+        assertEquals("Show 4", rest.getFirst().getName());
+        assertEquals("Show 9", rest.getLast().getName());
+    }
+
+    @Test
+    void testReadsOnlyItsRange() throws Exception {
+        String header = "Name,Country,Seasons,State\n";
+        String dark = "Dark,Germany,3,\n";
+        Path file = Files.writeString(directory.resolve("shows.csv"), header + dark + "Lost,USA,6,\n");
+
+        List<ShowBatchFormat> shows = readAll(new FileRangeItemReader<>("showsReader", file, header.length(),
+                header.length() + dark.length(), showMapper()), new ExecutionContext());
+
+        assertEquals(List.of(new ShowBatchFormat("Dark", "Germany", 3, "")), shows);
+    }
+
+    @Test
+    void testRestartOfCompressedFile() throws Exception {
+        Path file = directory.resolve("shows.csv.gz");
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)),
+                StandardCharsets.UTF_8)) {
+            writer.write("Name,Country,Seasons,State\n");
+            for (int i = 0; i < 10; i++) {
+                writer.write("Show %d,Country,%d,\n".formatted(i, i));
+            }
+        }
+        ExecutionContext context = new ExecutionContext();
+
+        FileRangeItemReader<ShowBatchFormat> first = new FileRangeItemReader<>("showsReader", file, 0,
+                Long.MAX_VALUE, showMapper());
+        first.open(context);
+        for (int i = 0; i < 7; i++) {
+            first.read();
+        }
+        first.update(context);
+        first.close();
+
+        List<ShowBatchFormat> rest = readAll(new FileRangeItemReader<>("showsReader", file, 0, Long.MAX_VALUE,
+                showMapper()), context);
+
+        assertEquals(List.of("Show 7", "Show 8", "Show 9"), rest.stream().map(ShowBatchFormat::getName).toList());
+    }
+
+    @Test
+    void testRejectsRecordSpanningLines() throws Exception {
+        Path file = Files.writeString(directory.resolve("shows.csv"),
+                "Name,Country,Seasons,State\n\"Dark, \"\"the\"\" series\",Germany,3,\n\"Money\nHeist\",Spain,5,\n");
+        FileRangeItemReader<ShowBatchFormat> reader = reader(file, 0);
+        reader.open(new ExecutionContext());
+
+        try {
+            assertEquals("Dark, \"the\" series", reader.read().getName());
+            FlatFileParseException exception = assertThrows(FlatFileParseException.class, reader::read);
+            assertEquals("\"Money", exception.getInput());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static FileRangeItemReader<ShowBatchFormat> reader(Path file, long start) throws IOException {
+        return new FileRangeItemReader<>("showsReader", file, start, Files.size(file), showMapper());
+    }
+
+    private static LineMapper<ShowBatchFormat> showMapper() {
+        return FileRangeItemReader.delimited(ShowBatchFormat.class, "Name", "Country", "Seasons", "State");
+    }
+
+    private static List<ShowBatchFormat> readAll(FileRangeItemReader<ShowBatchFormat> reader,
+                                                 ExecutionContext context) throws Exception {
+        List<ShowBatchFormat> items = new ArrayList<>();
+        reader.open(context);
+        try {
+            for (ShowBatchFormat item = reader.read(); item != null; item = reader.read()) {
+                items.add(item);
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+}
@@ -0,0 +1,62 @@
+package com.andreas.showsdb.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRangePartitionerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRangesCoverEveryLineOnce() throws IOException {
+        List<String> lines = new ArrayList<>(List.of("Name,Country,Seasons,State"));
+        IntStream.range(0, 1_000).forEach(i -> lines.add("Show %d,Country %d,%d,AIRING".formatted(i, i % 7, i % 5)));
+        Path file = Files.write(directory.resolve("shows.csv"), lines);
+
+        Map<String, ExecutionContext> partitions = new FileRangePartitioner(file, 1_000).partition(8);
+
+        assertEquals(8, partitions.size());
+        List<String> read = new ArrayList<>();
+        long previousEnd = 0;
+        for (ExecutionContext context : partitions.values().stream()
+                .sorted(Comparator.comparingLong(c -> c.getLong(FileRangePartitioner.START)))
+                .toList()) {
+            long start = context.getLong(FileRangePartitioner.START);
+            long end = context.getLong(FileRangePartitioner.END);
+            assertEquals(previousEnd, start);
+            try (InputStream in = new FileRangeResource(file, start, end).getInputStream()) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(text.endsWith("\n"));
+                read.addAll(text.lines().toList());
+            }
+            previousEnd = end;
+        }
+        assertEquals(Files.size(file), previousEnd);
+        assertEquals(lines, read);
+    }
+
+    @Test
+    void testSmallFileIsNotSplit() throws IOException {
+        Path file = Files.writeString(directory.resolve("shows.csv"), "Name,Country,Seasons,State\nDark,Germany,3,\n");
+
+        Map<String, ExecutionContext> partitions = new FileRangePartitioner(file, 1_000).partition(8);
+
+        assertEquals(1, partitions.size());
+        assertEquals(Files.size(file), partitions.get("partition0").getLong(FileRangePartitioner.END));
+    }
+}
@@ -0,0 +1,61 @@
+package com.andreas.showsdb.batch;
+
+import com.andreas.showsdb.model.dto.ImportReportDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.SimpleStepExecutionSplitter;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportReportsTest {
+
+    @Test
+    void testPartitionsAreCountedInsteadOfTheirStep() {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "importShowJob"), 2L, new JobParameters());
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        StepExecution manager = jobExecution.createStepExecution("importShowStep");
+        manager.setReadCount(30);
+        manager.setWriteCount(28);
+        manager.setFilterCount(2);
+        manager.getExecutionContext().putLong(SimpleStepExecutionSplitter.class.getSimpleName() + ".GRID_SIZE", 2);
+        StepExecution partition0 = jobExecution.createStepExecution("importShowPartitionStep:partition0");
+        partition0.setReadCount(10);
+        partition0.setWriteCount(10);
+        StepExecution partition1 = jobExecution.createStepExecution("importShowPartitionStep:partition1");
+        partition1.setReadCount(20);
+        partition1.setWriteCount(18);
+        partition1.setFilterCount(2);
+        jobExecution.setStartTime(LocalDateTime.of(2024, 1, 1, 0, 0, 0));
+        jobExecution.setEndTime(LocalDateTime.of(2024, 1, 1, 0, 0, 2));
+
+        ImportReportDto report = ImportReports.of(jobExecution);
+
+        assertEquals(2L, report.getJobExecutionId());
+        assertEquals("importShowJob", report.getJob());
+        assertEquals("COMPLETED", report.getStatus());
+        assertEquals(30, report.getRead());
+        assertEquals(28, report.getWritten());
+        assertEquals(2, report.getFiltered());
+        assertEquals(14, report.getRowsPerSecond());
+        assertNull(report.getSampled());
+        assertNull(report.getMissing());
+    }
+
+    @Test
+    void testVerificationResults() {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "importEpisodeJob"), 2L, new JobParameters());
+        jobExecution.getExecutionContext().putInt(ImportReports.SAMPLED, 100);
+        jobExecution.getExecutionContext().putInt(ImportReports.MISSING, 3);
+
+        ImportReportDto report = ImportReports.of(jobExecution);
+
+        assertEquals(100, report.getSampled());
+        assertEquals(3, report.getMissing());
+    }
+}
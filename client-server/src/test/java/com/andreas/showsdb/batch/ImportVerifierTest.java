@@ -0,0 +1,57 @@
+package com.andreas.showsdb.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportVerifierTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSampleWholeLinesWithoutHeader() throws IOException {
+        List<String> lines = new ArrayList<>(List.of("Name,Country,Seasons,State"));
+        IntStream.range(0, 100).forEach(i -> lines.add("Show %d,Country %d,%d,AIRING".formatted(i, i % 7, i % 5)));
+        Path file = Files.write(directory.resolve("shows.csv"), lines);
+
+        List<String> sample = ImportVerifier.sample(file, 50);
+
+        assertFalse(sample.isEmpty());
+        assertTrue(sample.size() <= 50);
+        assertTrue(lines.subList(1, lines.size()).containsAll(sample));
+    }
+
+    @Test
+    void testMalformedEpisodesAreMissing() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(1);
+        ImportVerifier verifier = new ImportVerifier(jdbcTemplate);
+
+        int missing = verifier.countMissingEpisodes(List.of("Dark,1,1,Secrets", "Dark,one,2,Lies", "Dark,,3,Past",
+                "Dark"));
+
+        assertEquals(3, missing);
+    }
+
+    @Test
+    void testSampleEmptyFile() throws IOException {
+        Path file = Files.createFile(directory.resolve("empty.csv"));
+
+        assertEquals(List.of(), ImportVerifier.sample(file, 10));
+    }
+}
@@ -0,0 +1,86 @@
+package com.andreas.showsdb.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MultiRowInsertWriterTest {
+    private static final MultiRowInsertWriter.RowSetter<Object[]> ROW_SETTER = (ps, index, row) -> {
+        ps.setLong(index, (Long) row[0]);
+        ps.setInt(index + 1, (Integer) row[1]);
+        ps.setString(index + 2, (String) row[2]);
+    };
+
+    /**
+     * Multi-row inserts run on H2 in MySQL mode, the portable statements on plain H2. H2 does not know the row alias
+     * of the MySQL upserts, so only the portable mode is given key columns.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testInsertAndUpdateExistingRows(boolean multiRow) {
+        String url = "jdbc:h2:mem:multi-row-" + multiRow + ";DATABASE_TO_UPPER=false" + (multiRow ? ";MODE=MySQL" : "");
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, "sa", "sa", true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("""
+                    create table "episode" ("id" bigint primary key auto_increment, "season" bigint not null,
+                    "episode_number" int not null, "name" varchar(255), unique ("season", "episode_number"))""");
+            MultiRowInsertWriter<Object[]> writer = new MultiRowInsertWriter<>(jdbcTemplate, "episode",
+                    List.of("season", "episode_number", "name"),
+                    multiRow ? List.of() : List.of("season", "episode_number"), ROW_SETTER, 2, multiRow);
+
+            writer.write(List.of(
+                    new Object[]{1L, 1, "Pilot"},
+                    new Object[]{1L, 2, multiRow ? "Renamed" : "Second"},
+                    new Object[]{2L, 1, "Premiere"}));
+            writer.write(multiRow ? List.<Object[]>of(new Object[]{1L, 3, "Third"}) : List.of(
+                    new Object[]{1L, 2, "Renamed"},
+                    new Object[]{1L, 3, "Third"}));
+
+            List<Map<String, Object>> episodes = jdbcTemplate.queryForList("""
+                    select "season", "episode_number", "name" from "episode" order by "season", "episode_number\"""");
+            assertEquals(List.of(
+                    Map.of("season", 1L, "episode_number", 1, "name", "Pilot"),
+                    Map.of("season", 1L, "episode_number", 2, "name", "Renamed"),
+                    Map.of("season", 1L, "episode_number", 3, "name", "Third"),
+                    Map.of("season", 2L, "episode_number", 1, "name", "Premiere")), episodes);
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void testMultiRowUpsertsUseRowAlias() {
+        List<String> statements = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int update(String sql, PreparedStatementSetter pss) {
+                statements.add(sql);
+                return 0;
+            }
+        };
+        MultiRowInsertWriter<Object[]> writer = new MultiRowInsertWriter<>(jdbcTemplate, "episode",
+                List.of("season", "episode_number", "name"), List.of("season", "episode_number"), ROW_SETTER, 2, true);
+
+        writer.write(List.of(
+                new Object[]{1L, 1, "Pilot"},
+                new Object[]{1L, 2, "Second"},
+                new Object[]{2L, 1, "Premiere"}));
+
+        assertEquals(List.of("""
+                        INSERT INTO `episode`(`season`, `episode_number`, `name`) VALUES (?, ?, ?), (?, ?, ?) \
+                        AS new ON DUPLICATE KEY UPDATE `name` = new.`name`""", """
+                        INSERT INTO `episode`(`season`, `episode_number`, `name`) VALUES (?, ?, ?) \
+                        AS new ON DUPLICATE KEY UPDATE `name` = new.`name`"""),
+                statements);
+    }
+}
@@ -0,0 +1,38 @@
+package com.andreas.showsdb.batch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeasonIdLookupTest {
+
+    @Test
+    void testFindSeasons() {
+        SeasonIdLookup lookup = new SeasonIdLookup();
+        lookup.add("Show", 2, 20);
+        lookup.add("Show", 1, 10);
+        lookup.add("Show", 4, 40);
+        lookup.add("Other show", 1, 50);
+
+        assertEquals(2, lookup.size());
+        assertEquals(10, lookup.find("Show", 1));
+        assertEquals(20, lookup.find("Show", 2));
+        assertEquals(40, lookup.find("Show", 4));
+        assertEquals(50, lookup.find("Other show", 1));
+        assertEquals(SeasonIdLookup.NOT_FOUND, lookup.find("Show", 3));
+        assertEquals(SeasonIdLookup.NOT_FOUND, lookup.find("Show", 5));
+        assertEquals(SeasonIdLookup.NOT_FOUND, lookup.find("Show", -1));
+        assertEquals(SeasonIdLookup.NOT_FOUND, lookup.find("Missing show", 1));
+    }
+
+    @Test
+    void testFirstSeasonWinsForRepeatedShowNames() {
+        SeasonIdLookup lookup = new SeasonIdLookup();
+        lookup.add("Show", 1, 10);
+        lookup.add("Show", 1, 30);
+        lookup.add("Show", 2, 31);
+
+        assertEquals(10, lookup.find("Show", 1));
+        assertEquals(31, lookup.find("Show", 2));
+    }
+}
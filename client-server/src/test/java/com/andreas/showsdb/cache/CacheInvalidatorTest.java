@@ -0,0 +1,81 @@
+package com.andreas.showsdb.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+
+import static com.andreas.showsdb.cache.CacheKeys.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidatorTest {
+    private final CacheKeys keys = new CacheKeys();
+    private ConcurrentMapCacheManager cacheManager;
+    private CacheInvalidator cacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager();
+        cacheInvalidator = new CacheInvalidator(cacheManager, keys);
+
+        cache(SHOW_PAGES).put(keys.page(50, null, null, null, null), "first page of shows");
+        cache(SHOWS).put(keys.show(1), "show 1");
+        cache(SHOWS).put(keys.show(2), "show 2");
+        cache(SEASONS).put(keys.show(1), "seasons of show 1");
+        cache(SEASONS).put(keys.season(1, 1), "season 1x1");
+        cache(EPISODES).put(keys.season(1, 1), "episodes of 1x1");
+        cache(EPISODES).put(keys.season(1, 2), "episodes of 1x2");
+        cache(EPISODES).put(keys.episode(1, 1, 1), "episode 1x1x1");
+        cache(EPISODES).put(keys.episode(1, 1, 2), "episode 1x1x2");
+        cache(EPISODE_PAGES).put(keys.page(1, 1, 50, null, null, null, null), "first page of 1x1");
+    }
+
+    @Test
+    void testEpisodeChangedOnlyEvictsEpisodeEntries() {
+        cacheInvalidator.episodeChanged(1, 1, 1);
+
+        assertNull(cache(EPISODES).get(keys.season(1, 1)));
+        assertNull(cache(EPISODES).get(keys.episode(1, 1, 1)));
+        assertNull(cache(EPISODE_PAGES).get(keys.page(1, 1, 50, null, null, null, null)));
+        assertNotNull(cache(EPISODES).get(keys.episode(1, 1, 2)));
+        assertNotNull(cache(EPISODES).get(keys.season(1, 2)));
+        assertNotNull(cache(SEASONS).get(keys.season(1, 1)));
+        assertNotNull(cache(SHOW_PAGES).get(keys.page(50, null, null, null, null)));
+    }
+
+    @Test
+    void testEpisodeAddedEvictsCounts() {
+        cacheInvalidator.episodesAddedOrDeleted(1, 1, List.of(3));
+
+        assertNull(cache(SHOW_PAGES).get(keys.page(50, null, null, null, null)));
+        assertNull(cache(SHOWS).get(keys.show(1)));
+        assertNull(cache(SEASONS).get(keys.show(1)));
+        assertNull(cache(SEASONS).get(keys.season(1, 1)));
+        assertNull(cache(EPISODES).get(keys.season(1, 1)));
+        assertNotNull(cache(SHOWS).get(keys.show(2)));
+        assertNotNull(cache(EPISODES).get(keys.episode(1, 1, 1)));
+        assertNotNull(cache(EPISODES).get(keys.season(1, 2)));
+    }
+
+    @Test
+    void testMainCastChanged() {
+        cache(MAIN_CAST_PAGES).put(keys.page(50, null, null), "first page of main casts");
+        cache(MAIN_CAST_BY_ACTOR).put(keys.actor(1), "shows of actor 1");
+        cache(MAIN_CAST_BY_ACTOR).put(keys.actor(2), "shows of actor 2");
+        cache(MAIN_CAST_BY_SHOW).put(keys.show(1), "actors of show 1");
+
+        cacheInvalidator.mainCastChanged(1, 1);
+
+        assertNull(cache(MAIN_CAST_PAGES).get(keys.page(50, null, null)));
+        assertNull(cache(MAIN_CAST_BY_ACTOR).get(keys.actor(1)));
+        assertNull(cache(MAIN_CAST_BY_SHOW).get(keys.show(1)));
+        assertNotNull(cache(MAIN_CAST_BY_ACTOR).get(keys.actor(2)));
+        assertNotNull(cache(SHOWS).get(keys.show(1)));
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+}
@@ -0,0 +1,65 @@
+package com.andreas.showsdb.cache;
+
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCacheSerializerTest {
+    private final CompactCacheSerializer serializer = new CompactCacheSerializer(
+            CacheConfig.jsonSerializer(new ObjectMapper().registerModule(new JavaTimeModule())), 1024);
+
+    @Test
+    void testDtosRoundTrip() {
+        List<Object> values = List.of(
+                new ShowOutputDto(1L, "What We Do in the Shadows", "United States", 2, 12, Show.State.AIRING),
+                new ShowOutputDto(2L, "The Good Place", null, 0, 0, null),
+                new SeasonOutputDto(1L, 1, 10),
+                new EpisodeOutputDto(1L, 1, 3, "Werewolf Feud", LocalDate.of(2019, 4, 11)),
+                new EpisodeOutputDto(1L, 1, 4, null, null),
+                new ActorOutputDto(1L, "Kayvan Novak", "United Kingdom", LocalDate.of(1978, 11, 23)),
+                new MainCastDto(1L, 1L, "Nandor The Relentless"),
+                new PageDto<>(List.of(new SeasonOutputDto(1L, 1, 10)), List.of("aWQAMQ"), true));
+
+        for (Object value : values) {
+            assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+        }
+        assertEquals(values, serializer.deserialize(serializer.serialize(values)));
+    }
+
+    @Test
+    void testBigListsAreCompressed() {
+        List<ShowOutputDto> shows = IntStream.range(0, 1000)
+                .mapToObj(i -> new ShowOutputDto((long) i, "Show " + i, "United States", 3, 30, Show.State.FINISHED))
+                .toList();
+
+        byte[] bytes = serializer.serialize(shows);
+
+        assertEquals(CompactCacheSerializer.VERSION, bytes[0]);
+        assertEquals(1, bytes[1]);
+        assertEquals(shows, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testUnknownTypesUseFallback() {
+        Map<String, Integer> value = Map.of("shows", 2);
+
+        assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+    }
+
+    @Test
+    void testOtherVersionIsAMiss() {
+        byte[] bytes = serializer.serialize(new SeasonOutputDto(1L, 1, 10));
+        bytes[0] = CompactCacheSerializer.VERSION + 1;
+
+        assertNull(serializer.deserialize(bytes));
+    }
+}
@@ -0,0 +1,158 @@
+package com.andreas.showsdb.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TwoTierCacheTest {
+    private ConcurrentMapCache local;
+    private ConcurrentMapCache remote;
+    private CacheInvalidationPublisher publisher;
+    private TwoTierCacheMetrics metrics;
+    private CacheProperties properties;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        local = new ConcurrentMapCache("shows-cache", false);
+        remote = new ConcurrentMapCache("shows-cache", false);
+        publisher = mock(CacheInvalidationPublisher.class);
+        metrics = TwoTierCacheMetrics.of(new SimpleMeterRegistry(), "shows-cache");
+        properties = new CacheProperties();
+        properties.setEarlyRefreshBeta(0);
+        cache = new TwoTierCache(local, remote, publisher, metrics, LoadLock.NONE, properties, Runnable::run);
+    }
+
+    @Test
+    void testRemoteHitIsCopiedToLocal() {
+        remote.put(1L, "What We Do in the Shadows");
+
+        assertEquals("What We Do in the Shadows", cache.get(1L, String.class));
+        assertNotNull(local.get(1L));
+        assertEquals(1, metrics.remoteHits().count());
+    }
+
+    @Test
+    void testLocalHitDoesNotGoToRemote() {
+        local.put(1L, "What We Do in the Shadows");
+
+        assertEquals("What We Do in the Shadows", cache.get(1L, String.class));
+        assertNull(remote.get(1L));
+        assertEquals(1, metrics.localHits().count());
+    }
+
+    @Test
+    void testValueLoaderFillsBothTiers() {
+        assertEquals("The Good Place", cache.get(2L, () -> "The Good Place"));
+        assertEquals("The Good Place", local.get(2L, String.class));
+        assertEquals("The Good Place", remote.get(2L, String.class));
+        assertEquals(1, metrics.misses().count());
+
+        assertEquals("The Good Place", cache.get(2L, () -> "Not loaded"));
+        assertEquals(1, metrics.localHits().count());
+    }
+
+    @Test
+    void testEvictClearsBothTiersAndPublishes() {
+        cache.put(1L, "What We Do in the Shadows");
+
+        cache.evict(1L);
+
+        assertNull(local.get(1L));
+        assertNull(remote.get(1L));
+        verify(publisher).publish("shows-cache", 1L);
+    }
+
+    @Test
+    void testEvictLocalKeepsRemote() {
+        cache.put(1L, "What We Do in the Shadows");
+
+        cache.evictLocal(1L);
+
+        assertNull(local.get(1L));
+        assertNotNull(remote.get(1L));
+    }
+
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "Severance";
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get(3L, loader)));
+            loading.await();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> cache.get(3L, loader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("Severance", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEvictDuringLoadIsNotOverwritten() {
+        String value = cache.get(4L, () -> {
+            cache.evict(4L);
+            return "Loaded before the write";
+        });
+
+        assertEquals("Loaded before the write", value);
+        assertNull(local.get(4L));
+        assertNull(remote.get(4L));
+    }
+
+    @Test
+    void testWaitsForTheNodeHoldingTheLock() {
+        LoadLock lock = mock(LoadLock.class);
+        when(lock.tryLock(any(), any())).thenAnswer(invocation -> {
+            // Another node stores the value while this one waits
+            remote.put(5L, "Loaded by another node");
+            return false;
+        });
+        cache = new TwoTierCache(local, remote, publisher, metrics, lock, properties, Runnable::run);
+
+        assertEquals("Loaded by another node", cache.get(5L, () -> fail("Should not load")));
+        verify(lock, never()).unlock(any(), any());
+    }
+
+    @Test
+    void testHitIsRefreshedBeforeExpiring() {
+        // With a huge beta every hit of an entry loaded by this node is due for a refresh
+        properties.setEarlyRefreshBeta(Double.MAX_VALUE);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> "Season " + loads.incrementAndGet();
+
+        assertEquals("Season 1", cache.get(6L, loader));
+        assertEquals("Season 1", cache.get(6L, loader));
+
+        assertEquals(2, loads.get());
+        assertEquals("Season 2", local.get(6L, String.class));
+        assertEquals("Season 2", remote.get(6L, String.class));
+        assertEquals(1, metrics.refreshes().count());
+    }
+}
@@ -0,0 +1,146 @@
+package com.andreas.showsdb.config;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphQLInstrumentationTest {
+    // Depth 4, complexity 1 + 1 + 10 * (1 + 1 + 10 * (1 + 1)) = 222
+    private static final String SHOW_PAGE = """
+            query {
+                showById(id: 1) {
+                    name
+                    seasons {
+                        seasonNumber
+                        episodes { name }
+                    }
+                }
+            }""";
+
+    private final GraphQLProperties properties = new GraphQLProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private GraphQL graphQL;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties.setDefaults(new GraphQLProperties.QueryLimits(3, 1_000));
+        properties.setRoles(Map.of("ADMIN", new GraphQLProperties.QueryLimits(4, 100)));
+
+        DataFetcher<List<Map<String, Object>>> seasons = environment -> List.of(Map.of("seasonNumber", 1));
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .scalar(ExtendedScalars.Date)
+                .type("Query", type -> type.dataFetcher("showById", environment -> Map.of("name", "Dark")))
+                .type("Show", type -> type.dataFetcher("seasons", seasons))
+                .type("Season", type -> type.dataFetcher("episodes", environment -> {
+                    throw new IllegalStateException("Database down");
+                }))
+                .build();
+        try (InputStream schema = getClass().getResourceAsStream("/graphql/schema.graphqls");
+             Reader reader = new InputStreamReader(schema, StandardCharsets.UTF_8)) {
+            GraphQLSchema graphQLSchema = new SchemaGenerator()
+                    .makeExecutableSchema(new SchemaParser().parse(reader), wiring);
+            graphQL = GraphQL.newGraphQL(graphQLSchema)
+                    .instrumentation(new ChainedInstrumentation(
+                            new QueryLimitsInstrumentation(properties),
+                            new FieldTimingInstrumentation(registry)))
+                    .build();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testLimitsOfTheCallerRoleApply() {
+        ExecutionResult anonymous = graphQL.execute(SHOW_PAGE);
+        assertEquals("Query is nested 4 levels deep, the limit is 3", anonymous.getErrors().getFirst().getMessage());
+        assertNull(anonymous.getData());
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", null,
+                "ROLE_ADMIN"));
+        ExecutionResult admin = graphQL.execute(SHOW_PAGE);
+        assertEquals("Query has complexity 222, the limit is 100", admin.getErrors().getFirst().getMessage());
+    }
+
+    @Test
+    void testPagedFieldsCostTheirPage() {
+        properties.setDefaults(new GraphQLProperties.QueryLimits(10, 5_000));
+        String page = "query { shows(first: %d) { edges { node { name seasons { seasonNumber } } } } }";
+
+        // 200 * (1 + 1 + (1 + 1 + 10 * (1 + 1))) = 4,800
+        assertTrue(graphQL.execute(page.formatted(200)).getErrors().stream()
+                .noneMatch(error -> error.getMessage().contains("limit")));
+        assertEquals("Query has complexity 5016, the limit is 5000",
+                graphQL.execute(page.formatted(209)).getErrors().getFirst().getMessage());
+    }
+
+    @Test
+    void testPagesOutOfRangeCostTheirLimits() {
+        properties.setDefaults(new GraphQLProperties.QueryLimits(10, 5_000));
+        String pages = """
+                query {
+                    none: shows(first: -1000) { edges { node { name seasons { seasonNumber } } } }
+                    all: shows(first: %d) { edges { node { name seasons { seasonNumber } } } }
+                }""";
+
+        assertEquals("Query has complexity 12000, the limit is 5000",
+                graphQL.execute(pages.formatted(500)).getErrors().getFirst().getMessage());
+        assertEquals("Query has complexity 12000, the limit is 5000",
+                graphQL.execute(pages.formatted(1_000_000)).getErrors().getFirst().getMessage());
+    }
+
+    @Test
+    void testIntrospectionIsNotCounted() {
+        ExecutionResult result = graphQL.execute(
+                "query { __schema { types { name fields { name type { name ofType { name } } } } } }");
+
+        assertTrue(result.getErrors().isEmpty(), result.getErrors()::toString);
+    }
+
+    @Test
+    void testFetchedFieldsAreTimed() {
+        properties.setDefaults(new GraphQLProperties.QueryLimits(4, 1_000));
+
+        graphQL.execute(SHOW_PAGE);
+
+        assertEquals(1, timer("Query.showById", "success").count());
+        assertEquals(1, timer("Show.seasons", "success").count());
+        assertEquals(1, timer("Season.episodes", "error").count());
+        // Plain properties of their parent are not timed
+        assertNull(registry.find(FieldTimingInstrumentation.METER).tag("field", "Show.name").timer());
+    }
+
+    private Timer timer(String field, String outcome) {
+        Timer timer = registry.find(FieldTimingInstrumentation.METER)
+                .tag("field", field)
+                .tag("outcome", outcome)
+                .timer();
+        assertNotNull(timer, field);
+        return timer;
+    }
+}
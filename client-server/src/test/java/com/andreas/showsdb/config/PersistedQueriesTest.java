@@ -0,0 +1,140 @@
+package com.andreas.showsdb.config;
+
+import com.andreas.showsdb.util.Utils;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.ParseAndValidate;
+import graphql.ParseAndValidateResult;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistedQueriesTest {
+    private static final String QUERY = "query { showById(id: 1) { name } }";
+
+    private final GraphQLProperties properties = new GraphQLProperties();
+    private final AtomicInteger parsed = new AtomicInteger();
+    private GraphQLSchema schema;
+    private Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .scalar(ExtendedScalars.Date)
+                .type("Query", type -> type.dataFetcher("showById", environment -> Map.of("name", "Dark")))
+                .build();
+        try (InputStream input = getClass().getResourceAsStream("/graphql/schema.graphqls");
+             Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(reader), wiring);
+        }
+        parseAndValidate = executionInput -> {
+            parsed.incrementAndGet();
+            ParseAndValidateResult result = ParseAndValidate.parseAndValidate(schema, executionInput);
+            return result.isFailure()
+                    ? new PreparsedDocumentEntry(result.getErrors())
+                    : new PreparsedDocumentEntry(result.getDocument());
+        };
+    }
+
+    @Test
+    void testDocumentsAreParsedOnce() {
+        PersistedQueries persistedQueries = new PersistedQueries(properties, Map.of());
+
+        PreparsedDocumentEntry first = persistedQueries.getDocumentAsync(input(QUERY, null), parseAndValidate).join();
+        PreparsedDocumentEntry second = persistedQueries.getDocumentAsync(input(QUERY, null), parseAndValidate).join();
+
+        assertFalse(first.hasErrors());
+        assertSame(first, second);
+        assertEquals(1, parsed.get());
+    }
+
+    @Test
+    void testInvalidDocumentsAreNotCached() {
+        PersistedQueries persistedQueries = new PersistedQueries(properties, Map.of());
+
+        ExecutionInput invalid = input("query { nothing }", null);
+        assertTrue(persistedQueries.getDocumentAsync(invalid, parseAndValidate).join().hasErrors());
+        assertTrue(persistedQueries.getDocumentAsync(invalid, parseAndValidate).join().hasErrors());
+
+        assertEquals(2, parsed.get());
+    }
+
+    @Test
+    void testClientsSendTheDocumentOnlyIfItIsNotKnown() {
+        GraphQL graphQL = graphQL(new PersistedQueries(properties, Map.of()));
+        String hash = Utils.sha256(QUERY);
+
+        ExecutionResult unknown = graphQL.execute(input(PersistedQuerySupport.PERSISTED_QUERY_MARKER, hash));
+        assertEquals("PersistedQueryNotFound", unknown.getErrors().getFirst().getMessage());
+
+        assertTrue(graphQL.execute(input(QUERY, hash)).getErrors().isEmpty());
+
+        ExecutionResult known = graphQL.execute(input(PersistedQuerySupport.PERSISTED_QUERY_MARKER, hash));
+        assertEquals(Map.of("showById", Map.of("name", "Dark")), known.getData());
+        assertEquals(1, parsed.get());
+    }
+
+    @Test
+    void testHashMustMatchTheDocument() {
+        GraphQL graphQL = graphQL(new PersistedQueries(properties, Map.of()));
+
+        ExecutionResult result = graphQL.execute(input(QUERY, Utils.sha256("query { shows { pageInfo } }")));
+
+        assertEquals("PersistedQueryIdInvalid", result.getErrors().getFirst().getMessage());
+    }
+
+    @Test
+    void testAllowlistOnly() throws IOException {
+        properties.setAllowlistOnly(true);
+        Map<String, String> allowlist = PersistedQueries.loadAllowlist(properties.getAllowlist());
+        GraphQL graphQL = graphQL(new PersistedQueries(properties, allowlist));
+        String episodes = allowlist.values().stream()
+                .filter(document -> document.startsWith("query Episodes"))
+                .findFirst().orElseThrow();
+
+        ExecutionResult allowed = graphQL.execute(ExecutionInput.newExecutionInput()
+                .query(PersistedQuerySupport.PERSISTED_QUERY_MARKER)
+                .variables(Map.of("showId", 1))
+                .extensions(persistedQuery(Utils.sha256(episodes))));
+        ExecutionResult rejected = graphQL.execute(input(QUERY, null));
+
+        assertTrue(allowed.getErrors().isEmpty(), allowed.getErrors()::toString);
+        assertEquals("Query is not in the allowlist", rejected.getErrors().getFirst().getMessage());
+    }
+
+    private GraphQL graphQL(PersistedQueries persistedQueries) {
+        return GraphQL.newGraphQL(schema)
+                .preparsedDocumentProvider((executionInput, function) ->
+                        persistedQueries.getDocumentAsync(executionInput, parseAndValidate).join())
+                .build();
+    }
+
+    private static ExecutionInput input(String query, String hash) {
+        return ExecutionInput.newExecutionInput()
+                .query(query)
+                .extensions(hash != null ? persistedQuery(hash) : Map.of())
+                .build();
+    }
+
+    private static Map<String, Object> persistedQuery(String hash) {
+        return Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+    }
+}
@@ -0,0 +1,36 @@
+package com.andreas.showsdb.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskExecutionConfigTest {
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class,
+                    WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class))
+            .withUserConfiguration(TaskExecutionConfig.class)
+            // Like those of the cache and the imports
+            .withBean("otherExecutor", ThreadPoolTaskExecutor.class)
+            .withPropertyValues("spring.task.execution.pool.core-size=6", "spring.task.execution.pool.max-size=6",
+                    "spring.task.execution.pool.queue-capacity=100");
+
+    @Test
+    void testAsyncRequestsRunOnTheBoundedPool() {
+        contextRunner.run(context -> {
+            ThreadPoolTaskExecutor executor = context.getBean("applicationTaskExecutor",
+                    ThreadPoolTaskExecutor.class);
+            assertEquals(6, executor.getMaxPoolSize());
+            assertEquals(100, executor.getQueueCapacity());
+            assertSame(executor, ReflectionTestUtils.getField(context.getBean(RequestMappingHandlerAdapter.class),
+                    "taskExecutor"));
+        });
+    }
+}
@@ -48,7 +48,7 @@ class ActorsControllerTest {
 
         String body = response.getBody();
         assertNotNull(body);
-        JsonNode tree = mapper.readTree(body);
+        JsonNode tree = mapper.readTree(body).get("content");
 
         assertTrue(tree.size() >= 2);
         JsonNode actor = tree.get(0).get("content");
@@ -199,7 +199,7 @@ class ActorsControllerTest {
         assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
         String body = response.getBody();
         assertNotNull(body);
-        JsonNode actors = mapper.readTree(body);
+        JsonNode actors = mapper.readTree(body).get("content");
 
         assertEquals(4, actors.size());
 
@@ -209,7 +209,7 @@ class ActorsControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         body = response.getBody();
         assertNotNull(body);
-        actors = mapper.readTree(body);
+        actors = mapper.readTree(body).get("content");
 
         assertEquals(3, actors.size());
     }
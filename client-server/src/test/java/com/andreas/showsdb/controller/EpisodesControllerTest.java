@@ -17,9 +17,7 @@ import org.springframework.http.*;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -168,14 +166,14 @@ class EpisodesControllerTest {
 
     @Test
     @Order(6)
-    void testGetAllSeasonEpisodes() throws URISyntaxException {
-        ResponseEntity<EpisodeOutputDto[]> response = client.getForEntity(createUri("/api/shows/1/seasons/1/episodes"),
-                EpisodeOutputDto[].class);
+    void testGetAllSeasonEpisodes() throws URISyntaxException, JsonProcessingException {
+        ResponseEntity<String> response = client.getForEntity(createUri("/api/shows/1/seasons/1/episodes"),
+                String.class);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
 
-        List<EpisodeOutputDto> episodes = Arrays.asList(Objects.requireNonNull(response.getBody()));
+        JsonNode episodes = mapper.readTree(Objects.requireNonNull(response.getBody())).get("content");
 
         assertEquals(4, episodes.size());
     }
@@ -280,7 +278,7 @@ class EpisodesControllerTest {
 
         String body = response.getBody();
         assertNotNull(body);
-        JsonNode tree = mapper.readTree(body);
+        JsonNode tree = mapper.readTree(body).get("content");
         assertEquals(4, tree.size());
 
         RequestEntity<Void> requestEntity =
@@ -297,7 +295,7 @@ class EpisodesControllerTest {
 
         body = response.getBody();
         assertNotNull(body);
-        tree = mapper.readTree(body);
+        tree = mapper.readTree(body).get("content");
         assertEquals(3, tree.size());
     }
 
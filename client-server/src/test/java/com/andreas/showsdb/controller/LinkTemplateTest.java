@@ -0,0 +1,87 @@
+package com.andreas.showsdb.controller;
+
+import com.andreas.showsdb.model.dto.MainCastDto;
+import com.andreas.showsdb.model.dto.ShowOutputDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * The links must be written the same as those {@code linkTo(methodOn(...))} builds. They are not equal, as those have
+ * the affordances of the methods, which are not written.
+ */
+class LinkTemplateTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testLinksOutsideARequest() throws Exception {
+        assertSameLinks();
+    }
+
+    @Test
+    void testLinksOfARequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/shows");
+        request.setServerName("shows.example.com");
+        request.setServerPort(8443);
+        request.setScheme("https");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertEquals("https://shows.example.com:8443/api/shows/1/seasons/2/episodes/3",
+                LinkTemplate.of(EpisodesController.class, "get", IanaLinkRelations.SELF).expand(1, 2, 3).getHref());
+        assertSameLinks();
+    }
+
+    @Test
+    void testOverloadedMethodsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LinkTemplate.of(String.class, "valueOf", IanaLinkRelations.SELF));
+    }
+
+    private void assertSameLinks() throws Exception {
+        assertSameJson(linkTo(methodOn(ShowsController.class).get(1L)).withSelfRel(),
+                LinkTemplate.of(ShowsController.class, "get", IanaLinkRelations.SELF).expand(1L));
+        assertSameJson(linkTo(methodOn(SeasonsController.class).get(1L, 2)).withRel("season"),
+                LinkTemplate.of(SeasonsController.class, "get", LinkRelation.of("season")).expand(1L, 2));
+        assertSameJson(linkTo(methodOn(EpisodesController.class)
+                        .getAllFromSeason(1L, 2, null, null, null, null, null)).withRel("episodes"),
+                LinkTemplate.of(EpisodesController.class, "getAllFromSeason", LinkRelation.of("episodes"))
+                        .expand(1L, 2));
+        assertSameJson(linkTo(methodOn(EpisodesController.class).get(1L, 2, 3)).withSelfRel(),
+                LinkTemplate.of(EpisodesController.class, "get", IanaLinkRelations.SELF).expand(1L, 2, 3));
+        assertSameJson(linkTo(methodOn(ActorsController.class).getShows(4L)).withRel("shows"),
+                LinkTemplate.of(ActorsController.class, "getShows", LinkRelation.of("shows")).expand(4L));
+
+        ShowOutputDto show = ShowOutputDto.builder().id(1L).name("The Wire").build();
+        assertSameJson(List.of(
+                        linkTo(methodOn(ShowsController.class).get(1L)).withSelfRel(),
+                        linkTo(methodOn(ShowsController.class).updateState(1L)).withRel("update state"),
+                        linkTo(methodOn(SeasonsController.class).getAllByShow(1L)).withRel("seasons")),
+                ShowsController.addLinks(show).getLinks().toList());
+        MainCastDto mainCast = MainCastDto.builder().actorId(4L).showId(1L).character("McNulty").build();
+        assertSameJson(List.of(
+                        linkTo(methodOn(ShowsController.class).get(1L)).withRel("show"),
+                        linkTo(methodOn(ActorsController.class).get(4L)).withRel("actor")),
+                MainCastController.addLinks(mainCast).getLinks().toList());
+    }
+
+    private void assertSameJson(Object expected, Object actual) throws JsonProcessingException {
+        assertEquals(mapper.writeValueAsString(expected), mapper.writeValueAsString(actual));
+    }
+}
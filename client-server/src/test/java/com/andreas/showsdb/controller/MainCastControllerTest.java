@@ -39,7 +39,7 @@ class MainCastControllerTest {
         ResponseEntity<String> response = client.getForEntity(createUri("/api/main-cast"), String.class);
         String body = response.getBody();
         assertNotNull(body);
-        JsonNode tree = mapper.readTree(body);
+        JsonNode tree = mapper.readTree(body).get("content");
 
         assertTrue(tree.size() >= 2);
         JsonNode mainCast = tree.get(0).get("content");
@@ -238,7 +238,7 @@ class MainCastControllerTest {
 
         String body = response.getBody();
         assertNotNull(body);
-        JsonNode tree = mapper.readTree(body);
+        JsonNode tree = mapper.readTree(body).get("content");
 
         int size = tree.size();
 
@@ -251,7 +251,7 @@ class MainCastControllerTest {
 
         body = response.getBody();
         assertNotNull(body);
-        tree = mapper.readTree(body);
+        tree = mapper.readTree(body).get("content");
         assertEquals(size - 1, tree.size());
     }
 
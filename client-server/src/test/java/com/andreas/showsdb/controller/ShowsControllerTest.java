@@ -45,7 +45,7 @@ class ShowsControllerTest {
 
         String body = response.getBody();
         assertNotNull(body);
-        JsonNode tree = mapper.readTree(body);
+        JsonNode tree = mapper.readTree(body).get("content");
 
         assertEquals(2, tree.size());
         JsonNode node = tree.get(0);
@@ -198,7 +198,7 @@ class ShowsControllerTest {
         ResponseEntity<String> response = client.getForEntity(createUri("/api/shows"), String.class);
         String body = response.getBody();
         assertNotNull(body);
-        JsonNode tree = mapper.readTree(body);
+        JsonNode tree = mapper.readTree(body).get("content");
         int numberOfShows = tree.size();
 
         client.delete(createUri("/api/shows/3"));
@@ -206,7 +206,7 @@ class ShowsControllerTest {
         response = client.getForEntity(createUri("/api/shows"), String.class);
         body = response.getBody();
         assertNotNull(body);
-        tree = mapper.readTree(body);
+        tree = mapper.readTree(body).get("content");
 
         assertNotEquals(numberOfShows, tree.size());
     }
@@ -0,0 +1,199 @@
+package com.andreas.showsdb.controller.graphql;
+
+import com.andreas.showsdb.cache.CacheInvalidator;
+import com.andreas.showsdb.config.GraphQLConfig;
+import com.andreas.showsdb.messaging.EpisodeReleases;
+import com.andreas.showsdb.messaging.Messenger;
+import com.andreas.showsdb.model.*;
+import com.andreas.showsdb.model.dto.EpisodeOutputDto;
+import com.andreas.showsdb.model.dto.SeasonOutputDto;
+import com.andreas.showsdb.service.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.AutoConfigureGraphQl;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:graphql;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureGraphQl
+@Import({GraphQLConfig.class, GraphQLController.class, ShowsService.class, SeasonsService.class,
+        EpisodesService.class, ActorsService.class, MainCastService.class, EpisodeReleases.class,
+        SimpleMeterRegistry.class})
+class GraphQLBatchMappingTest {
+    private static final String COUNTRY = "Atlantis";
+    private static final String SHOW_PAGE = """
+            query {
+                shows(first: 20, country: "Atlantis") {
+                    edges {
+                        node {
+                            name
+                            seasons {
+                                seasonNumber
+                                episodes { episodeNumber name }
+                            }
+                            mainCast {
+                                character
+                                actor { name }
+                                show { name }
+                            }
+                        }
+                    }
+                }
+            }""";
+
+    @MockBean
+    CacheInvalidator cacheInvalidator;
+    @MockBean
+    Messenger messenger;
+
+    @Autowired
+    ExecutionGraphQlService graphQlService;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    EpisodesService episodesService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNestedFieldsAreResolved() {
+        persistShow("Severance", 2, 3, "Mark", "Helly");
+
+        Map<String, Object> show = execute().getFirst();
+
+        assertEquals("Severance", show.get("name"));
+        List<Map<String, Object>> seasons = (List<Map<String, Object>>) show.get("seasons");
+        assertEquals(2, seasons.size());
+        assertEquals(List.of(Map.of("episodeNumber", 1, "name", "S02E01"),
+                Map.of("episodeNumber", 2, "name", "S02E02"),
+                Map.of("episodeNumber", 3, "name", "S02E03")), seasons.get(1).get("episodes"));
+        List<Map<String, Object>> mainCast = (List<Map<String, Object>>) show.get("mainCast");
+        assertEquals(List.of("Mark", "Helly"), mainCast.stream().map(character -> character.get("character")).toList());
+        assertEquals(Map.of("name", "Actor of Helly"), mainCast.get(1).get("actor"));
+        assertEquals(Map.of("name", "Severance"), mainCast.get(1).get("show"));
+    }
+
+    @Test
+    void testEachLevelIsASingleQuery() {
+        persistShow("Show A", 2, 3, "Lead");
+        // The page of shows and their counts, then one query each for the seasons, main cast, episodes, actors and
+        // shows of the main cast
+        assertEquals(7, countQueries());
+
+        for (int i = 0; i < 5; i++) {
+            persistShow("Show B" + i, 3, 4, "Lead", "Sidekick");
+        }
+        assertEquals(7, countQueries());
+    }
+
+    @Test
+    void testOnlyTheEpisodesOfTheSeasonsAreLoaded() {
+        long first = persistShow("Show A", 2, 3);
+        long second = persistShow("Show B", 2, 4);
+        entityManager.clear();
+        statistics.clear();
+
+        SeasonOutputDto firstSeason = SeasonOutputDto.builder().showId(first).seasonNumber(1).build();
+        SeasonOutputDto secondSeason = SeasonOutputDto.builder().showId(second).seasonNumber(2).build();
+        Map<SeasonOutputDto, List<EpisodeOutputDto>> episodes = episodesService.findBySeasons(
+                List.of(firstSeason, secondSeason));
+
+        assertEquals(List.of(1, 2, 3), episodes.get(firstSeason).stream().map(EpisodeOutputDto::getEpisodeNumber)
+                .toList());
+        assertEquals("S02E04", episodes.get(secondSeason).getLast().getName());
+        // Not those of the other season of each show, which match one of the show ids and one of the season numbers
+        assertEquals(7, statistics.getEntityStatistics(Episode.class.getName()).getLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private long countQueries() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        execute();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * @return the shows of the page
+     */
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> execute() {
+        ExecutionGraphQlResponse response = graphQlService
+                .execute(new DefaultExecutionGraphQlRequest(SHOW_PAGE, null, null, null, "1", null))
+                .block();
+        assertNotNull(response);
+        assertTrue(response.getErrors().isEmpty(), response.getErrors()::toString);
+        Map<String, Map<String, List<Map<String, Object>>>> data = response.getData();
+        return data.get("shows").get("edges").stream()
+                .map(edge -> (Map<String, Object>) edge.get("node"))
+                .toList();
+    }
+
+    /**
+     * @return the id of the show
+     */
+    private long persistShow(String name, int seasons, int episodesPerSeason, String... characters) {
+        Show show = Show.builder()
+                .name(name)
+                .country(COUNTRY)
+                .state(Show.State.AIRING)
+                .build();
+        entityManager.persist(show);
+        for (int s = 1; s <= seasons; s++) {
+            Season season = Season.builder()
+                    .show(show)
+                    .number(s)
+                    .build();
+            entityManager.persist(season);
+            for (int e = 1; e <= episodesPerSeason; e++) {
+                entityManager.persist(Episode.builder()
+                        .season(season)
+                        .number(e)
+                        .name("S%02dE%02d".formatted(s, e))
+                        .build());
+            }
+        }
+        for (String character : characters) {
+            Actor actor = Actor.builder()
+                    .name("Actor of " + character)
+                    .country(COUNTRY)
+                    .build();
+            entityManager.persist(actor);
+            entityManager.persist(MainCast.builder()
+                    .id(new MainCast.MainCastKey())
+                    .actor(actor)
+                    .show(show)
+                    .character(character)
+                    .build());
+        }
+        entityManager.flush();
+        return show.getId();
+    }
+}
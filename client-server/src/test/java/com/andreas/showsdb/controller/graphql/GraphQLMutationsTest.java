@@ -0,0 +1,183 @@
+package com.andreas.showsdb.controller.graphql;
+
+import com.andreas.showsdb.cache.CacheInvalidator;
+import com.andreas.showsdb.config.GraphQLConfig;
+import com.andreas.showsdb.messaging.EpisodeReleases;
+import com.andreas.showsdb.messaging.Messenger;
+import com.andreas.showsdb.model.dto.EpisodeOutputDto;
+import com.andreas.showsdb.service.*;
+import graphql.ExecutionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.AutoConfigureGraphQl;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:mutations;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureGraphQl
+@Import({GraphQLConfig.class, GraphQLController.class, ShowsService.class, SeasonsService.class,
+        EpisodesService.class, ActorsService.class, MainCastService.class, EpisodeReleases.class,
+        SimpleMeterRegistry.class})
+class GraphQLMutationsTest {
+    @MockBean
+    CacheInvalidator cacheInvalidator;
+    @MockBean
+    Messenger messenger;
+
+    @Autowired
+    ExecutionGraphQlService graphQlService;
+    @Autowired
+    EpisodeReleases episodeReleases;
+
+    @Test
+    void testEpisodesAreAddedThroughTheServices() {
+        String showId = addShow();
+
+        assertEquals(Map.of("seasonNumber", 1), execute("""
+                mutation { addSeason(showId: %s) { seasonNumber } }""".formatted(showId)).get("addSeason"));
+        assertEquals(Map.of("seasonNumber", 3), execute("""
+                mutation { addSeason(showId: %s, season: { seasonNumber: 3 }) { seasonNumber } }"""
+                .formatted(showId)).get("addSeason"));
+        assertEquals(Map.of("episodeNumber", 1, "name", "Pilot", "releaseDate", "2024-03-01"), execute("""
+                mutation {
+                    addEpisode(showId: %s, seasonNumber: 1,
+                               episode: { episodeNumber: 1, name: "Pilot", releaseDate: "2024-03-01" }) {
+                        episodeNumber name releaseDate
+                    }
+                }""".formatted(showId)).get("addEpisode"));
+        assertEquals(Map.of("episodeNumber", 2), execute("""
+                mutation { addEpisode(showId: %s, seasonNumber: 1) { episodeNumber } }"""
+                .formatted(showId)).get("addEpisode"));
+        assertEquals(Map.of("name", "The pilot"), execute("""
+                mutation {
+                    updateEpisode(showId: %s, seasonNumber: 1, episode: { episodeNumber: 1, name: "The pilot" }) {
+                        name
+                    }
+                }""".formatted(showId)).get("updateEpisode"));
+        assertEquals(true, execute("""
+                mutation { deleteEpisode(showId: %s, seasonNumber: 1, episodeNumber: 2) }"""
+                .formatted(showId)).get("deleteEpisode"));
+
+        verify(messenger).newEpisode(eq(EpisodeOutputDto.builder()
+                .showId(Long.valueOf(showId))
+                .seasonNumber(1)
+                .episodeNumber(1)
+                .name("Pilot")
+                .releaseDate(LocalDate.of(2024, 3, 1))
+                .build()), eq("Dark"));
+        // Both the episode added and the empty one
+        verify(messenger, times(2)).newEpisode(any(), eq("Dark"));
+        assertEquals(List.of(Map.of("episodeNumber", 1, "name", "The pilot")), execute("""
+                query { episodes(showId: %s, seasonNumber: 1) { episodeNumber name } }"""
+                .formatted(showId)).get("episodes"));
+    }
+
+    @Test
+    void testActorsJoinTheMainCast() {
+        String showId = addShow();
+        Map<String, Object> added = execute("""
+                mutation { addActor(actor: { name: "Louis Hofmann", birthDate: "1997-06-03" }) { id birthDate } }""")
+                .get("addActor");
+        Object actorId = added.get("id");
+        assertEquals("1997-06-03", added.get("birthDate"));
+
+        assertEquals(Map.of("name", "Louis Hofmann", "country", "Germany", "birthDate", "1997-06-03"), execute("""
+                mutation {
+                    updateActor(id: %s,
+                                actor: { name: "Louis Hofmann", country: "Germany", birthDate: "1997-06-03" }) {
+                        name country birthDate
+                    }
+                }""".formatted(actorId)).get("updateActor"));
+        assertEquals(Map.of("character", "Jonas"), execute("""
+                mutation { addMainCast(mainCast: { actorId: %s, showId: %s, character: "Jonas" }) { character } }"""
+                .formatted(actorId, showId)).get("addMainCast"));
+        assertEquals(Map.of("character", "Jonas Kahnwald", "actor", Map.of("name", "Louis Hofmann")), execute("""
+                mutation {
+                    updateMainCast(mainCast: { actorId: %s, showId: %s, character: "Jonas Kahnwald" }) {
+                        character
+                        actor { name }
+                    }
+                }""".formatted(actorId, showId)).get("updateMainCast"));
+        assertEquals(true, execute("mutation { deleteMainCast(actorId: %s, showId: %s) }"
+                .formatted(actorId, showId)).get("deleteMainCast"));
+        assertEquals(true, execute("mutation { deleteActor(id: %s) }".formatted(actorId)).get("deleteActor"));
+
+        assertNull(execute("query { actorById(id: %s) { name } }".formatted(actorId)).get("actorById"));
+    }
+
+    @Test
+    void testActorsWithoutBirthDateAreUpdated() {
+        Object actorId = execute("""
+                mutation { addActor(actor: { name: "Lisa Vicari" }) { id } }""").get("addActor").get("id");
+
+        Map<String, Object> updated = execute("""
+                mutation {
+                    updateActor(id: %s, actor: { name: "Lisa Vicari", country: "Germany" }) { country birthDate }
+                }""".formatted(actorId)).get("updateActor");
+
+        assertEquals("Germany", updated.get("country"));
+        assertNull(updated.get("birthDate"));
+    }
+
+    @Test
+    void testEpisodesReleasedAreStreamed() {
+        ExecutionGraphQlResponse response = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+                        "subscription { episodeReleased(showId: 7) { episodeNumber name } }",
+                        null, null, null, "1", null))
+                .block();
+        assertNotNull(response);
+        Publisher<ExecutionResult> results = response.getData();
+        Flux<Object> episodes = Flux.from(results)
+                .map(ExecutionResult::getData)
+                .take(2)
+                .cache();
+        episodes.subscribe();
+
+        episodeReleases.publish(EpisodeOutputDto.builder().showId(7L).seasonNumber(1).episodeNumber(1)
+                .name("Secrets").build());
+        episodeReleases.publish(EpisodeOutputDto.builder().showId(8L).seasonNumber(1).episodeNumber(1)
+                .name("Elsewhere").build());
+        episodeReleases.publish(EpisodeOutputDto.builder().showId(7L).seasonNumber(1).episodeNumber(2)
+                .name("Lies").build());
+
+        assertEquals(List.of(
+                        Map.of("episodeReleased", Map.of("episodeNumber", 1, "name", "Secrets")),
+                        Map.of("episodeReleased", Map.of("episodeNumber", 2, "name", "Lies"))),
+                episodes.collectList().block(Duration.ofSeconds(5)));
+    }
+
+    private String addShow() {
+        Map<String, Map<String, Object>> data = execute("""
+                mutation { addShow(show: { name: "Dark", country: "Germany" }) { id } }""");
+        return data.get("addShow").get("id").toString();
+    }
+
+    private Map<String, Map<String, Object>> execute(String document) {
+        ExecutionGraphQlResponse response = graphQlService
+                .execute(new DefaultExecutionGraphQlRequest(document, null, null, null, "1", null))
+                .block();
+        assertNotNull(response);
+        assertTrue(response.getErrors().isEmpty(), response.getErrors()::toString);
+        return response.getData();
+    }
+}
@@ -0,0 +1,142 @@
+package com.andreas.showsdb.messaging;
+
+import com.andreas.showsdb.config.GraphQLProperties;
+import com.andreas.showsdb.messaging.messages.EpisodeMessage;
+import com.andreas.showsdb.messaging.messages.ShowMessage;
+import com.andreas.showsdb.model.dto.EpisodeOutputDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpisodeReleasesTest {
+    private EpisodeReleases episodeReleases;
+
+    @BeforeEach
+    void setUp() {
+        GraphQLProperties properties = new GraphQLProperties();
+        properties.setSubscriberBufferSize(2);
+        episodeReleases = new EpisodeReleases(properties);
+    }
+
+    @Test
+    void testSubscribersOnlyGetTheirShow() {
+        List<EpisodeOutputDto> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = episodeReleases.ofShow(1).subscribe(received::add);
+
+        episodeReleases.noveltiesListener(Arrays.asList(
+                message(1, 1),
+                message(2, 1),
+                ShowMessage.builder().text("New show released").name("Dark").build(),
+                null,
+                message(1, 2)));
+
+        assertEquals(List.of(1, 2), received.stream().map(EpisodeOutputDto::getEpisodeNumber).toList());
+        assertEquals(LocalDate.of(2024, 3, 1), received.getFirst().getReleaseDate());
+        subscription.dispose();
+        assertEquals(0, episodeReleases.subscribers());
+    }
+
+    @Test
+    void testSlowSubscribersDropTheOldestEpisodes() {
+        List<EpisodeOutputDto> fast = new CopyOnWriteArrayList<>();
+        episodeReleases.ofShow(1).subscribe(fast::add);
+        SlowSubscriber slow = new SlowSubscriber();
+        episodeReleases.ofShow(1).subscribe(slow);
+
+        for (int i = 1; i <= 5; i++) {
+            episodeReleases.noveltiesListener(List.of(message(1, i)));
+        }
+        slow.request(5);
+
+        assertEquals(5, fast.size());
+        assertEquals(List.of(4, 5), slow.received.stream().map(EpisodeOutputDto::getEpisodeNumber).toList());
+    }
+
+    @Test
+    void testListenerReadsEveryPartitionOutsideAnyGroup() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(KafkaConsumerConfig.class, EpisodeReleases.class)
+                .withBean(GraphQLProperties.class)
+                .withBean(MessagingProperties.class)
+                .withBean(SimpleMeterRegistry.class)
+                .withBean(NoAutoStartup.class)
+                .withPropertyValues("spring.kafka.bootstrap-servers=localhost:9092",
+                        "showsdb.kafka.novelties-partitions=4")
+                .run(context -> {
+                    AbstractMessageListenerContainer<?, ?> container = (AbstractMessageListenerContainer<?, ?>)
+                            context.getBean(KafkaListenerEndpointRegistry.class).getListenerContainers().iterator()
+                                    .next();
+                    assertEquals(List.of("novelties-0", "novelties-1", "novelties-2", "novelties-3"),
+                            Arrays.stream(container.getContainerProperties().getTopicPartitions())
+                                    .map(partition -> partition.getTopicPartition().toString())
+                                    .toList());
+                    assertNull(container.getGroupId());
+                    Map<String, Object> consumer = context.getBean("releasesListenerContainerFactory",
+                            ConcurrentKafkaListenerContainerFactory.class).getConsumerFactory()
+                            .getConfigurationProperties();
+                    assertFalse(consumer.containsKey(ConsumerConfig.GROUP_ID_CONFIG));
+                    assertEquals(false, consumer.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG));
+                    assertEquals("latest", consumer.get(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG));
+                });
+    }
+
+    private static EpisodeMessage message(long showId, int episodeNumber) {
+        return EpisodeMessage.builder()
+                .text("New episode released")
+                .showId(showId)
+                .show("Show " + showId)
+                .seasonNumber(1)
+                .episodeNumber(episodeNumber)
+                .releaseDate(Date.from(LocalDate.of(2024, 3, episodeNumber).atStartOfDay(ZoneId.systemDefault())
+                        .toInstant()))
+                .build();
+    }
+
+    private static class SlowSubscriber extends BaseSubscriber<EpisodeOutputDto> {
+        private final List<EpisodeOutputDto> received = new ArrayList<>();
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            // Requests nothing until told to
+        }
+
+        @Override
+        protected void hookOnNext(EpisodeOutputDto episode) {
+            received.add(episode);
+        }
+    }
+
+    /**
+     * Keeps the listeners from connecting to a broker.
+     */
+    static class NoAutoStartup implements BeanPostProcessor {
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> factory) {
+                factory.setAutoStartup(false);
+            }
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.andreas.showsdb.messaging;
+
+import com.andreas.showsdb.messaging.messages.BatchOrder;
+import com.andreas.showsdb.messaging.messages.EpisodeMessage;
+import com.andreas.showsdb.messaging.messages.Message;
+import com.andreas.showsdb.messaging.messages.ShowMessage;
+import com.andreas.showsdb.util.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageCodecTest {
+    private final MessageSerializer serializer = new MessageSerializer();
+    private final MessageDeserializer deserializer = new MessageDeserializer();
+
+    @Test
+    void testRoundTrip() {
+        List<Message> messages = List.of(
+                Message.builder().text("Hello").build(),
+                ShowMessage.builder().text("New show released").name("Andor").build(),
+                EpisodeMessage.builder()
+                        .text("New episode released")
+                        .show("Andor")
+                        .seasonNumber(1)
+                        .episodeNumber(3)
+                        .name("Reckoning")
+                        .releaseDate(Utils.parseDate("21/09/2022"))
+                        .build(),
+                EpisodeMessage.builder().text("New episode released").show("Andor").build(),
+                BatchOrder.builder().text("shows").filepath("/files/shows.csv").checksum("9f86d081").build());
+
+        for (Message message : messages) {
+            assertEquals(message, deserializer.deserialize("novelties", serializer.serialize("novelties", message)));
+        }
+    }
+
+    @Test
+    void testReadsPreviousFormat() {
+        String json = """
+                {"class":"EpisodeMessage","text":"New episode released","show":"Andor","seasonNumber":1,
+                "episodeNumber":3,"name":"Reckoning","releaseDate":"21/09/2022"}""";
+
+        Message message = deserializer.deserialize("novelties", json.getBytes(StandardCharsets.UTF_8));
+
+        EpisodeMessage episode = assertInstanceOf(EpisodeMessage.class, message);
+        assertEquals("Reckoning", episode.getName());
+        assertEquals("21/09/2022", Utils.dateToString(episode.getReleaseDate()));
+    }
+
+    @Test
+    void testMissingReleaseDateIsToBeAnnounced() {
+        String json = new String(serializer.serialize("novelties", EpisodeMessage.builder()
+                .text("New episode released").show("Andor").build()), StandardCharsets.UTF_8);
+
+        assertTrue(json.contains("\"releaseDate\":\"TBA\""), json);
+        EpisodeMessage episode = assertInstanceOf(EpisodeMessage.class,
+                deserializer.deserialize("novelties", json.getBytes(StandardCharsets.UTF_8)));
+        assertNull(episode.getReleaseDate());
+    }
+
+    @Test
+    void testUnknownClassIsReadAsMessage() {
+        String json = """
+                {"class":"ActorMessage","text":"New actor","name":"Diego Luna"}""";
+
+        Message message = deserializer.deserialize("novelties", json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Message.class, message.getClass());
+        assertEquals("New actor", message.getText());
+    }
+
+    @Test
+    void testWritesClassProperty() {
+        String json = new String(serializer.serialize("novelties",
+                ShowMessage.builder().text("New show released").name("Andor").build()), StandardCharsets.UTF_8);
+
+        assertEquals("{\"class\":\"ShowMessage\",\"text\":\"New show released\",\"name\":\"Andor\"}", json);
+    }
+}
@@ -0,0 +1,37 @@
+package com.andreas.showsdb.messaging;
+
+import com.andreas.showsdb.config.SchedulingConfig;
+import com.andreas.showsdb.repository.OutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxRelaySchedulingTest {
+
+    @Test
+    void testRelayRunsEveryPollInterval() {
+        OutboxRepository outboxRepository = mock(OutboxRepository.class);
+        when(outboxRepository.findByOrderByIdAsc(any(Limit.class))).thenReturn(List.of());
+        MessagingProperties properties = new MessagingProperties();
+        properties.setOutboxPollInterval(Duration.ofMillis(50));
+
+        new ApplicationContextRunner()
+                .withUserConfiguration(SchedulingConfig.class, OutboxRelay.class)
+                .withBean(OutboxRepository.class, () -> outboxRepository)
+                .withBean(KafkaTemplate.class, () -> mock(KafkaTemplate.class))
+                .withBean(TransactionTemplate.class,
+                        () -> new TransactionTemplate(mock(PlatformTransactionManager.class)))
+                .withBean(MessagingProperties.class, () -> properties)
+                .run(context -> verify(outboxRepository, timeout(2_000).atLeast(3))
+                        .findByOrderByIdAsc(any(Limit.class)));
+    }
+}
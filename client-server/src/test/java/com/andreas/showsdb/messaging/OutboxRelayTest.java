@@ -0,0 +1,104 @@
+package com.andreas.showsdb.messaging;
+
+import com.andreas.showsdb.messaging.messages.EpisodeMessage;
+import com.andreas.showsdb.messaging.messages.Message;
+import com.andreas.showsdb.messaging.messages.ShowMessage;
+import com.andreas.showsdb.model.dto.EpisodeOutputDto;
+import com.andreas.showsdb.model.dto.ShowOutputDto;
+import com.andreas.showsdb.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OutboxRelayTest {
+
+    @Autowired
+    OutboxRepository outboxRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private KafkaTemplate<String, Message> kafkaTemplate;
+    private Messenger messenger;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        messenger = new Messenger(kafkaTemplate, outboxRepository);
+        MessagingProperties properties = new MessagingProperties();
+        properties.setOutboxBatchSize(2);
+        properties.setOutboxSendTimeout(Duration.ofMillis(100));
+        relay = new OutboxRelay(outboxRepository, kafkaTemplate, transactionTemplate, properties);
+    }
+
+    @Test
+    void testMessagesAreSentInOrderAndRemoved() {
+        messenger.newShow(ShowOutputDto.builder().id(7L).name("Andor").build());
+        messenger.newEpisode(EpisodeOutputDto.builder()
+                .showId(7L)
+                .seasonNumber(1)
+                .episodeNumber(3)
+                .name("Reckoning")
+                .releaseDate(LocalDate.of(2022, 9, 21))
+                .build(), "Andor");
+        when(kafkaTemplate.send(anyString(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        assertEquals(2, relay.relayBatch());
+
+        var inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send(eq("novelties"), eq("7"), any(ShowMessage.class));
+        inOrder.verify(kafkaTemplate).send(eq("novelties"), eq("7"),
+                argThat(message -> message instanceof EpisodeMessage episode && "Andor".equals(episode.getShow())));
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void testFailedSendKeepsMessages() {
+        messenger.newShow(ShowOutputDto.builder().id(7L).name("Andor").build());
+        when(kafkaTemplate.send(anyString(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThrows(RuntimeException.class, () -> relay.relayBatch());
+
+        assertEquals(1, outboxRepository.count());
+    }
+
+    @Test
+    void testUnacknowledgedSendKeepsMessages() {
+        messenger.newShow(ShowOutputDto.builder().id(7L).name("Andor").build());
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(new CompletableFuture<>());
+
+        assertThrows(RuntimeException.class, () -> relay.relayBatch());
+
+        assertEquals(1, outboxRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testMessagesOutsideTransactionAreRejected() {
+        ShowOutputDto show = ShowOutputDto.builder().id(7L).name("Andor").build();
+
+        assertThrows(IllegalStateException.class, () -> messenger.newShow(show));
+    }
+}
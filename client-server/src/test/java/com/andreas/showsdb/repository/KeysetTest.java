@@ -0,0 +1,81 @@
+package com.andreas.showsdb.repository;
+
+import com.andreas.showsdb.exception.ShowsDatabaseException;
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.PageDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:keyset;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class KeysetTest {
+    // Not used by the shows of the changelog
+    private static final String UNITED_STATES = "United States of Keysets";
+    private static final String GERMANY = "Keyset Germany";
+    private static final Keyset<Show> KEYSET = new Keyset<>("id", Map.of(
+            "id", List.of("id"),
+            "name", List.of("name", "id")));
+
+    @Autowired
+    ShowsRepository showsRepository;
+    @Autowired
+    EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (String name : List.of("Dark", "Atlanta", "Fleabag", "Barry", "Atlanta", "Succession", "Chernobyl")) {
+            entityManager.persist(Show.builder()
+                    .name(name)
+                    .country(name.equals("Dark") ? GERMANY : UNITED_STATES)
+                    .build());
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void testPagesCoverEveryRowOnce() throws ShowsDatabaseException {
+        List<String> names = new ArrayList<>();
+        String after = null;
+        PageDto<Show> page;
+        do {
+            page = KEYSET.findPage(showsRepository, Keyset.equal("country", UNITED_STATES), 2, after, "name,desc");
+            page.getContent().forEach(show -> names.add(show.getName()));
+            after = page.getNextCursor();
+        } while (page.isHasNext());
+
+        assertEquals(List.of("Succession", "Fleabag", "Chernobyl", "Barry", "Atlanta", "Atlanta"), names);
+    }
+
+    @Test
+    void testFilter() throws ShowsDatabaseException {
+        PageDto<Show> page = KEYSET.findPage(showsRepository, Keyset.equal("country", GERMANY), 10, null, null);
+
+        assertEquals(1, page.getContent().size());
+        assertEquals("Dark", page.getContent().getFirst().getName());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testCursorOfAnotherSortIsRejected() throws ShowsDatabaseException {
+        String cursor = KEYSET.findPage(showsRepository, null, 1, null, "name").getNextCursor();
+
+        ShowsDatabaseException e = assertThrows(ShowsDatabaseException.class,
+                () -> KEYSET.findPage(showsRepository, null, 1, cursor, "id"));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getResponse().getStatusCode());
+        assertThrows(ShowsDatabaseException.class,
+                () -> KEYSET.findPage(showsRepository, null, Keyset.MAX_LIMIT + 1, null, null));
+        assertThrows(ShowsDatabaseException.class, () -> KEYSET.findPage(showsRepository, null, 1, null, "country"));
+    }
+}
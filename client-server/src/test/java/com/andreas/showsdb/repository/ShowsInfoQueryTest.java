@@ -0,0 +1,150 @@
+package com.andreas.showsdb.repository;
+
+import com.andreas.showsdb.model.Episode;
+import com.andreas.showsdb.model.Season;
+import com.andreas.showsdb.model.Show;
+import com.andreas.showsdb.model.dto.ShowOutputDto;
+import com.andreas.showsdb.util.Utils;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ShowsInfoQueryTest {
+
+    @Autowired
+    ShowsRepository showsRepository;
+    @Autowired
+    SeasonsRepository seasonsRepository;
+    @Autowired
+    EpisodesRepository episodesRepository;
+    @Autowired
+    EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @Test
+    void testFindAllInfoCounts() {
+        Show show = persistShow("Bojack Horseman", 3, 4);
+
+        List<ShowOutputDto> shows = showsRepository.findAllInfo();
+
+        ShowOutputDto info = shows.stream()
+                .filter(s -> s.getId().equals(show.getId()))
+                .findFirst().orElseThrow();
+        assertEquals("Bojack Horseman", info.getName());
+        assertEquals(3, info.getNumberOfSeasons());
+        assertEquals(12, info.getNumberOfEpisodes());
+    }
+
+    @Test
+    void testFindInfoByIdWithoutSeasons() {
+        Show show = persistShow("Invincible", 0, 0);
+
+        ShowOutputDto info = showsRepository.findInfoById(show.getId()).orElseThrow();
+
+        assertEquals("Invincible", info.getName());
+        assertEquals(0, info.getNumberOfSeasons());
+        assertEquals(0, info.getNumberOfEpisodes());
+        assertTrue(showsRepository.findInfoById(999L).isEmpty());
+    }
+
+    @Test
+    void testFindAllInfoQueryCountIsConstant() {
+        persistShow("Show A", 2, 3);
+        assertEquals(1, countQueries());
+
+        for (int i = 0; i < 10; i++) {
+            persistShow("Show B" + i, 3, 5);
+        }
+        assertEquals(1, countQueries());
+    }
+
+    @Test
+    void testStreamAllInfoMatchesFindAllInfo() {
+        persistShow("Show A", 2, 3);
+
+        try (Stream<ShowOutputDto> shows = showsRepository.streamAllInfo()) {
+            assertEquals(showsRepository.findAllInfo(), shows.toList());
+        }
+    }
+
+    @Test
+    void testExportStreamsWriteEscapedCsv() throws IOException {
+        Show show = persistShow("Love, Death & Robots", 1, 2);
+
+        ByteArrayOutputStream seasons = new ByteArrayOutputStream();
+        try (Stream<Object[]> rows = seasonsRepository.streamAllForExport()) {
+            Utils.writeCsv(seasons, rows.filter(row -> row[0].equals(show.getName())), "Show", "Season", "Episodes");
+        }
+        ByteArrayOutputStream episodes = new ByteArrayOutputStream();
+        try (Stream<Object[]> rows = episodesRepository.streamAllForExport()) {
+            Utils.writeCsv(episodes, rows.filter(row -> row[0].equals(show.getName())),
+                    "Show", "Season", "Episode", "Name");
+        }
+
+        assertEquals("""
+                Show,Season,Episodes\r
+                "Love, Death & Robots",1,2\r
+                """, seasons.toString(StandardCharsets.UTF_8));
+        assertEquals("""
+                Show,Season,Episode,Name\r
+                "Love, Death & Robots",1,1,S01E01\r
+                "Love, Death & Robots",1,2,S01E02\r
+                """, episodes.toString(StandardCharsets.UTF_8));
+    }
+
+    private long countQueries() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        showsRepository.findAllInfo();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Show persistShow(String name, int seasons, int episodesPerSeason) {
+        Show show = Show.builder()
+                .name(name)
+                .country("United States")
+                .state(Show.State.AIRING)
+                .build();
+        entityManager.persist(show);
+        for (int s = 1; s <= seasons; s++) {
+            Season season = Season.builder()
+                    .show(show)
+                    .number(s)
+                    .build();
+            entityManager.persist(season);
+            for (int e = 1; e <= episodesPerSeason; e++) {
+                entityManager.persist(Episode.builder()
+                        .season(season)
+                        .number(e)
+                        .name("S%02dE%02d".formatted(s, e))
+                        .build());
+            }
+        }
+        entityManager.flush();
+        return show;
+    }
+}
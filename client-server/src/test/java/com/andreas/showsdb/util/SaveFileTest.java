@@ -0,0 +1,66 @@
+package com.andreas.showsdb.util;
+
+import com.andreas.showsdb.exception.ShowsDatabaseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveFileTest {
+    private static final byte[] CONTENT = "Name,Country,Seasons,State\nDark,Germany,3,\n".repeat(1_000)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSavesAndHashesWhileCopying() throws ShowsDatabaseException, IOException {
+        SavedFile savedFile = Utils.saveFile(channel(), directory + "/uploads/", "my shows.csv", CONTENT.length);
+
+        Path file = Path.of(savedFile.path());
+        assertEquals(directory.resolve("uploads"), file.getParent());
+        assertTrue(file.getFileName().toString().endsWith("my-shows.csv"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(file));
+        assertEquals(CONTENT.length, savedFile.size());
+        assertEquals(Utils.sha256(file), savedFile.checksum());
+    }
+
+    @Test
+    void testTooLargeFileIsRemoved() throws IOException {
+        ShowsDatabaseException e = assertThrows(ShowsDatabaseException.class,
+                () -> Utils.saveFile(channel(), directory + "/", "shows.csv", CONTENT.length - 1));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getResponse().getStatusCode());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testOnlyTheNameIsKept() throws ShowsDatabaseException {
+        SavedFile savedFile = Utils.saveFile(channel(), directory + "/", "../../shows.csv", CONTENT.length);
+
+        assertEquals(directory, Path.of(savedFile.path()).getParent());
+    }
+
+    @Test
+    void testNameWithoutFileIsRejected() {
+        ShowsDatabaseException e = assertThrows(ShowsDatabaseException.class,
+                () -> Utils.saveFile(channel(), directory + "/", "/", CONTENT.length));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getResponse().getStatusCode());
+    }
+
+    private static ReadableByteChannel channel() {
+        return Channels.newChannel(new ByteArrayInputStream(CONTENT));
+    }
+}
@@ -0,0 +1,131 @@
+package com.andreas.showsdb.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XlsxExportTest {
+    private static final String[] HEADERS = {"Name", "Country", "Seasons", "State"};
+
+    @Test
+    void testWriteXlsx() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utils.writeXlsx(bytes, "Shows", Stream.of(
+                new Object[]{"Dark", "Germany", 3, "FINISHED"},
+                new Object[]{"Severance", null, 2, null}), HEADERS);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Shows");
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals("State", sheet.getRow(0).getCell(3).getStringCellValue());
+            Row dark = sheet.getRow(1);
+            assertEquals("Dark", dark.getCell(0).getStringCellValue());
+            assertEquals(3, dark.getCell(2).getNumericCellValue());
+            assertEquals("FINISHED", dark.getCell(3).getStringCellValue());
+            assertNull(sheet.getRow(2).getCell(1));
+        }
+    }
+
+    @Test
+    void testWriteXlsxStartsNewSheetWhenFull() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utils.writeXlsx(bytes, "Shows", IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> new Object[]{"Show " + i}), 3, HEADERS);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            assertEquals(List.of("Shows", "Shows (2)", "Shows (3)"),
+                    IntStream.range(0, 3).mapToObj(workbook::getSheetName).toList());
+            Sheet second = workbook.getSheetAt(1);
+            assertEquals("Name", second.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Show 3", second.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("Show 4", second.getRow(2).getCell(0).getStringCellValue());
+            Sheet third = workbook.getSheetAt(2);
+            assertEquals(1, third.getLastRowNum());
+            assertEquals("Show 5", third.getRow(1).getCell(0).getStringCellValue());
+        }
+    }
+
+    /**
+     * Run with {@code mvn test -P load-test}, which gives the JVM a fixed 128 MB heap. A million rows would not fit
+     * in an in-memory workbook with that heap, nor in an xls file at all. The file written is read back as a stream
+     * too, as it would not be opened either.
+     */
+    @Test
+    @Tag("load")
+    void testWriteMillionRowsWithFixedHeap(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("shows.xlsx");
+        int rows = 1_000_000;
+
+        try (OutputStream output = Files.newOutputStream(file)) {
+            Utils.writeXlsx(output, "Shows", IntStream.rangeClosed(1, rows)
+                    .mapToObj(i -> new Object[]{"Show " + i, "Country " + i % 200, i % 10, "AIRING"}), HEADERS);
+        }
+
+        RowCollector collector = new RowCollector();
+        try (OPCPackage xlsx = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(xlsx);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            try (InputStream sheet = sheets.next()) {
+                assertEquals("Shows", sheets.getSheetName());
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                        new ReadOnlySharedStringsTable(xlsx), collector, false));
+                parser.parse(new InputSource(sheet));
+            }
+            assertFalse(sheets.hasNext());
+        }
+
+        assertEquals(rows, collector.lastRow);
+        assertEquals(List.of("Show 1000000", "Country 0", "0", "AIRING"), collector.lastCells);
+    }
+
+    /**
+     * Keeps only the cells of the last row read.
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private int lastRow;
+        private List<String> lastCells = new ArrayList<>();
+
+        @Override
+        public void startRow(int rowNum) {
+            lastRow = rowNum;
+            lastCells = new ArrayList<>();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            lastCells.add(formattedValue);
+        }
+    }
+}